@@ -0,0 +1,256 @@
+package org.pac4j.jee.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.finder.DefaultCallbackClientFinder;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.engine.CallbackLogic;
+import org.pac4j.core.engine.DefaultCallbackLogic;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.metrics.FilterMetrics;
+import org.pac4j.jee.metrics.MeteredRequest;
+import org.pac4j.jee.metrics.RequestTimings;
+import org.pac4j.jee.metrics.TimedClients;
+import org.pac4j.jee.metrics.TimedHttpServletRequest;
+import org.pac4j.jee.session.WriteBehindSessionStore;
+import org.pac4j.jee.util.BruteForceProtectingAuthenticator;
+import org.pac4j.jee.util.BruteForceProtection;
+import org.pac4j.jee.util.CallbackDeduplicator;
+import org.pac4j.jee.util.ClientBulkheads;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import java.util.List;
+
+/**
+ * <p>The callback plan of a {@link CallbackFilter}: the callback logic to perform for a given {@link Config}, with the settings
+ * and the optional components of the filter.</p>
+ *
+ * <p>Each callback takes a permit of the bulkhead of its client (if any), is timed, metered, deduplicated with the concurrent
+ * callbacks carrying the same credentials (if a {@link CallbackDeduplicator} is defined) and its session changes buffered
+ * by a {@link WriteBehindSessionStore} are written before the redirection is sent.</p>
+ *
+ * <p>When the callbacks are metered, timed or protected against brute force attacks and the configuration uses
+ * the {@link DefaultCallbackLogic} and its default client finder, the plan runs a dedicated copy of this logic whose client finder
+ * decorates the clients found (see {@link PlannedClients}): they validate the credentials through a
+ * {@link BruteForceProtectingAuthenticator} (for the clients of forms), record the duration of the successful validations in the
+ * {@link FilterMetrics} and the durations of the credentials extraction and of the authentication in the {@link RequestTimings}
+ * of the requests. Otherwise, the shared callback logic of the configuration is used as is. The decorations only apply to
+ * the callbacks of the filter.</p>
+ *
+ * <p>The plan must be rebuilt when the configuration or the settings of the filter change (see {@link #isValidFor}).</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Getter
+final class CallbackPlan {
+
+    private final Config config;
+
+    private final Clients configClients;
+
+    private final CallbackLogic configCallbackLogic;
+
+    private final CallbackLogic callbackLogic;
+
+    private final String defaultUrl;
+
+    private final Boolean renewSession;
+
+    private final String defaultClient;
+
+    private final boolean timed;
+
+    private final boolean serverTiming;
+
+    private final BruteForceProtection bruteForceProtection;
+
+    private final FilterMetrics metrics;
+
+    private final ClientBulkheads bulkheads;
+
+    private final CallbackDeduplicator callbackDeduplicator;
+
+    private CallbackPlan(final Config config, final CallbackFilter filter) {
+        this.config = config;
+        this.configClients = config.getClients();
+        this.configCallbackLogic = config.getCallbackLogic();
+        this.defaultUrl = filter.getDefaultUrl();
+        this.renewSession = filter.getRenewSession();
+        this.defaultClient = filter.getDefaultClient();
+        this.serverTiming = Boolean.TRUE.equals(filter.getServerTiming());
+        this.timed = serverTiming || Boolean.TRUE.equals(filter.getTimings());
+        this.bruteForceProtection = filter.getBruteForceProtection();
+        this.metrics = filter.getMetrics();
+        this.bulkheads = filter.getClientBulkheads();
+        this.callbackDeduplicator = filter.getCallbackDeduplicator();
+        this.callbackLogic = buildCallbackLogic(configCallbackLogic,
+            timed || bruteForceProtection != null || metrics != null ? this::decorate : null, timed);
+    }
+
+    /**
+     * Build the callback plan for the given configuration and the current settings of a filter.
+     *
+     * @param config the configuration (with its default settings applied)
+     * @param filter the callback filter
+     * @return the callback plan
+     */
+    static CallbackPlan build(final Config config, final CallbackFilter filter) {
+        CommonHelper.assertNotNull("config", config);
+        return new CallbackPlan(config, filter);
+    }
+
+    /**
+     * Whether this plan still applies to the given configuration and the current settings of the filter.
+     *
+     * @param config the configuration
+     * @param filter the callback filter
+     * @return whether the plan is still valid
+     */
+    boolean isValidFor(final Config config, final CallbackFilter filter) {
+        return this.config == config && configClients == config.getClients() && configCallbackLogic == config.getCallbackLogic()
+            && Objects.equals(defaultUrl, filter.getDefaultUrl()) && Objects.equals(renewSession, filter.getRenewSession())
+            && Objects.equals(defaultClient, filter.getDefaultClient()) && serverTiming == Boolean.TRUE.equals(filter.getServerTiming())
+            && timed == (serverTiming || Boolean.TRUE.equals(filter.getTimings()))
+            && bruteForceProtection == filter.getBruteForceProtection() && metrics == filter.getMetrics()
+            && bulkheads == filter.getClientBulkheads() && callbackDeduplicator == filter.getCallbackDeduplicator();
+    }
+
+    /**
+     * The decorators of the validation of the credentials, in this order: timings, brute force protection and metrics
+     * (only the real validations are metered).
+     */
+    private Authenticator decorate(final Authenticator validation, final String clientName) {
+        var decorated = validation;
+        if (metrics != null) {
+            decorated = new TimedClients.ExchangeMeteredAuthenticator(decorated, metrics, clientName);
+        }
+        if (bruteForceProtection != null) {
+            decorated = new BruteForceProtectingAuthenticator(decorated, bruteForceProtection, clientName);
+        }
+        if (timed) {
+            decorated = new TimedClients.TimedAuthenticator(decorated);
+        }
+        return decorated;
+    }
+
+    /**
+     * Perform the callback logic according to this plan.
+     *
+     * @param parameters the framework parameters
+     * @return the result of the callback logic
+     */
+    Object perform(final FrameworkParameters parameters) {
+        return callbackLogic.perform(config, defaultUrl, renewSession, defaultClient, parameters);
+    }
+
+    /**
+     * Perform the callback logic for a servlet request according to this plan: within the bulkhead of the client, timed,
+     * metered, deduplicated and within the write-behind scope of the session changes.
+     *
+     * @param metered the metering of the request
+     * @param clientName the name of the client of the callback (may be <code>null</code>)
+     * @param request the request
+     * @param response the response
+     * @throws IOException if the response can't be written
+     */
+    void perform(final MeteredRequest metered, final String clientName, final HttpServletRequest request,
+                 final HttpServletResponse response) throws IOException {
+        val bulkhead = bulkheads != null ? bulkheads.get(clientName) : null;
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            bulkheads.reject(response);
+            metered.failed(clientName);
+            return;
+        }
+        val requestTimings = timed ? RequestTimings.start(request) : null;
+        val writeBehind = WriteBehindSessionStore.open(request, config);
+        try {
+            performDeduplicated(metered, clientName,
+                requestTimings != null ? new TimedHttpServletRequest(request, requestTimings) : request, response, writeBehind);
+        } finally {
+            if (writeBehind) {
+                WriteBehindSessionStore.close(request);
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (requestTimings != null) {
+                requestTimings.finish(response, serverTiming);
+            }
+        }
+    }
+
+    private void performDeduplicated(final MeteredRequest metered, final String clientName, final HttpServletRequest request,
+                                     final HttpServletResponse response, final boolean writeBehind) throws IOException {
+        final Runnable callback = () -> {
+            perform(new JEEFrameworkParameters(request, response));
+            // the session changes are written before the redirection is sent or replayed to the duplicated callbacks
+            if (writeBehind) {
+                WriteBehindSessionStore.close(request);
+            }
+        };
+        try {
+            if (callbackDeduplicator != null) {
+                callbackDeduplicator.perform(request, response, callback);
+            } else {
+                callback.run();
+            }
+        } catch (final RuntimeException e) {
+            metered.failed(clientName);
+            throw e;
+        }
+        metered.completed(clientName);
+    }
+
+    private static CallbackLogic buildCallbackLogic(final CallbackLogic configCallbackLogic,
+                                                    final PlannedClients.AuthenticatorDecorator decorator, final boolean timed) {
+        if (decorator == null || configCallbackLogic == null) {
+            return configCallbackLogic;
+        }
+        if (configCallbackLogic.getClass() != DefaultCallbackLogic.class) {
+            LOGGER.warn("Custom callback logic: the brute force protection, exchange metrics and timings are not applied");
+            return configCallbackLogic;
+        }
+
+        val defaultLogic = (DefaultCallbackLogic) configCallbackLogic;
+        val clientFinder = defaultLogic.getClientFinder();
+        if (clientFinder == null || clientFinder.getClass() != DefaultCallbackClientFinder.class) {
+            LOGGER.warn("Custom client finder: the brute force protection, exchange metrics and timings are not applied");
+            return configCallbackLogic;
+        }
+
+        val plannedLogic = new DefaultCallbackLogic();
+        plannedLogic.setSavedRequestHandler(defaultLogic.getSavedRequestHandler());
+        plannedLogic.setErrorUrl(defaultLogic.getErrorUrl());
+        plannedLogic.setClientFinder(new PlannedClientFinder(new PlannedClients(decorator, timed)));
+        return plannedLogic;
+    }
+
+    /**
+     * Client finder applying the decorations of the plan to the clients found by the default callback client finder.
+     */
+    private static final class PlannedClientFinder extends DefaultCallbackClientFinder {
+
+        private final PlannedClients plannedClients;
+
+        private PlannedClientFinder(final PlannedClients plannedClients) {
+            this.plannedClients = plannedClients;
+        }
+
+        @Override
+        public List<Client> find(final Clients clients, final WebContext context, final String clientNames) {
+            return plannedClients.apply(super.find(clients, context, clientNames), context);
+        }
+    }
+}
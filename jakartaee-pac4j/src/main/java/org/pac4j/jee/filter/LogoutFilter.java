@@ -7,21 +7,37 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.pac4j.core.adapter.FrameworkAdapter;
 import org.pac4j.core.config.Config;
 import org.pac4j.core.util.Pac4jConstants;
 import org.pac4j.jee.config.AbstractConfigFilter;
 import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.metrics.FilterMetrics;
+import org.pac4j.jee.metrics.MeteredRequest;
+import org.pac4j.jee.metrics.MicrometerFilterMetrics;
+import org.pac4j.jee.metrics.RequestTimings;
+import org.pac4j.jee.metrics.TimedHttpServletRequest;
+import org.pac4j.jee.session.SessionIndex;
+import org.pac4j.jee.session.WriteBehindSessionStore;
+import org.pac4j.jee.util.ConfigHolder;
+import org.pac4j.jee.util.JEEConstants;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * <p>This filter handles the (application + identity provider) logout process.</p>
  *
+ * <p>Its optional features (logout of all the sessions, metrics, timings...) are enabled by init parameters
+ * (see {@link JEEConstants}) or setters.</p>
+ *
  * @author Jerome Leleu
  * @since 1.2.0
  */
+@Slf4j
 @Getter
 @Setter
 public class LogoutFilter extends AbstractConfigFilter {
@@ -36,6 +52,18 @@ public class LogoutFilter extends AbstractConfigFilter {
 
     private Boolean centralLogout;
 
+    private FilterMetrics metrics;
+
+    private Boolean logoutAllSessions;
+
+    private SessionIndex sessionIndex;
+
+    private ConfigHolder configHolder;
+
+    private Boolean timings;
+
+    private Boolean serverTiming;
+
     public LogoutFilter() {}
 
     public LogoutFilter(final Config config) {
@@ -51,21 +79,81 @@ public class LogoutFilter extends AbstractConfigFilter {
     public void init(final FilterConfig filterConfig) throws ServletException {
         super.init(filterConfig);
 
+        if (this.configHolder == null && getConfig() == null) {
+            this.configHolder = ConfigHolder.fromServletContext(filterConfig.getServletContext());
+        }
+
         this.defaultUrl = getStringParam(filterConfig, Pac4jConstants.DEFAULT_URL, this.defaultUrl);
         this.logoutUrlPattern = getStringParam(filterConfig, Pac4jConstants.LOGOUT_URL_PATTERN, this.logoutUrlPattern);
         this.localLogout = getBooleanParam(filterConfig, Pac4jConstants.LOCAL_LOGOUT, this.localLogout);
         this.destroySession = getBooleanParam(filterConfig, Pac4jConstants.DESTROY_SESSION, this.destroySession);
         this.centralLogout = getBooleanParam(filterConfig, Pac4jConstants.CENTRAL_LOGOUT, this.centralLogout);
+
+        if (this.metrics == null && Boolean.TRUE.equals(getBooleanParam(filterConfig, JEEConstants.METRICS, false))) {
+            this.metrics = MicrometerFilterMetrics.fromServletContext(filterConfig.getServletContext());
+        }
+
+        this.timings = getBooleanParam(filterConfig, JEEConstants.TIMINGS, this.timings);
+        this.serverTiming = getBooleanParam(filterConfig, JEEConstants.SERVER_TIMING, this.serverTiming);
+
+        this.logoutAllSessions = getBooleanParam(filterConfig, JEEConstants.LOGOUT_ALL_SESSIONS, this.logoutAllSessions);
+        if (Boolean.TRUE.equals(this.logoutAllSessions) && this.sessionIndex == null) {
+            this.sessionIndex = SessionIndex.fromServletContext(filterConfig.getServletContext());
+            if (this.sessionIndex == null) {
+                LOGGER.warn("No session index registered: only the current session is logged out");
+            }
+        }
     }
 
     @Override
     protected void internalFilter(final HttpServletRequest request, final HttpServletResponse response,
                                   final FilterChain chain) throws IOException, ServletException {
 
-        val config = getSharedConfig();
+        val config = ConfigHolder.resolve(configHolder, getSharedConfig());
+        val metered = MeteredRequest.start(metrics, FilterMetrics.FilterType.LOGOUT, request, response);
+        val otherSessionIds = findOtherSessionIds(request);
+        val requestTimings = isTimed() ? RequestTimings.start(request) : null;
+
+        val writeBehind = WriteBehindSessionStore.open(request, config);
+        try {
+            val logicRequest = requestTimings != null ? new TimedHttpServletRequest(request, requestTimings) : request;
+            config.getLogoutLogic().perform(config, defaultUrl, logoutUrlPattern, localLogout, destroySession, centralLogout, new JEEFrameworkParameters(logicRequest, response));
+            if (!otherSessionIds.isEmpty()) {
+                sessionIndex.revokeSessions(otherSessionIds, Boolean.TRUE.equals(destroySession));
+            }
+        } catch (final RuntimeException e) {
+            metered.failed(null);
+            throw e;
+        } finally {
+            if (writeBehind) {
+                WriteBehindSessionStore.close(request);
+            }
+            if (requestTimings != null) {
+                requestTimings.finish(response, Boolean.TRUE.equals(serverTiming));
+            }
+        }
+        metered.completed(null);
+    }
 
-        FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
+    private boolean isTimed() {
+        return Boolean.TRUE.equals(timings) || Boolean.TRUE.equals(serverTiming);
+    }
 
-        config.getLogoutLogic().perform(config, defaultUrl, logoutUrlPattern, localLogout, destroySession, centralLogout, new JEEFrameworkParameters(request, response));
+    // the sessions must be found before the current one is destroyed
+    private Set<String> findOtherSessionIds(final HttpServletRequest request) {
+        val index = this.sessionIndex;
+        if (!Boolean.TRUE.equals(logoutAllSessions) || index == null || Boolean.FALSE.equals(localLogout)) {
+            return Collections.emptySet();
+        }
+        val session = request.getSession(false);
+        if (session == null) {
+            return Collections.emptySet();
+        }
+        final Set<String> sessionIds = new HashSet<>();
+        for (val profileId : index.getProfileIds(session.getId())) {
+            sessionIds.addAll(index.getSessionIds(profileId));
+        }
+        sessionIds.remove(session.getId());
+        return sessionIds;
     }
 }
@@ -0,0 +1,186 @@
+package org.pac4j.jee.filter;
+
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.client.BaseClient;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.credentials.extractor.CredentialsExtractor;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jee.metrics.RequestTimings;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>The decorations of the clients of the configuration for a plan: the credentials are validated through the authenticator
+ * decorators of the filter (profile cache, brute force protection, bulkhead, timings...) and the duration of the credentials
+ * extraction can be recorded.</p>
+ *
+ * <p>The clients are used as they are: their authenticator and credentials extractor are only wrapped, once, by planned components
+ * which apply the decorations of the plan whose client finder has returned the clients for the current request, and delegate
+ * to the original components otherwise. So the clients can be shared by several filters with different settings and
+ * the other requests are not affected. The clients validating their credentials without their authenticator are not decorated.</p>
+ *
+ * @since 8.0.4
+ */
+final class PlannedClients {
+
+    /* the request attribute holding the decorations of the plan currently performed */
+    private static final String PLAN_ATTRIBUTE = PlannedClients.class.getName();
+
+    private final AuthenticatorDecorator decorator;
+
+    private final boolean timed;
+
+    private final Map<String, DecoratedAuthenticator> decoratedAuthenticators = new ConcurrentHashMap<>();
+
+    /**
+     * Build the decorations of a plan.
+     *
+     * @param decorator the decorator of the authenticators (optional)
+     * @param timed whether the credentials extraction is timed
+     */
+    PlannedClients(final AuthenticatorDecorator decorator, final boolean timed) {
+        this.decorator = decorator;
+        this.timed = timed;
+    }
+
+    /**
+     * The decorator of the authenticators of the clients.
+     */
+    @FunctionalInterface
+    interface AuthenticatorDecorator {
+
+        /**
+         * Decorate the validation of the credentials by a client.
+         *
+         * @param validation the validation of the credentials by the client
+         * @param clientName the name of the client
+         * @return the decorated authenticator
+         */
+        Authenticator decorate(Authenticator validation, String clientName);
+    }
+
+    /**
+     * Apply the decorations of this plan to the clients found for the current request.
+     *
+     * @param clients the clients found
+     * @param context the web context
+     * @return the same clients
+     */
+    List<Client> apply(final List<Client> clients, final WebContext context) {
+        for (val client : clients) {
+            if (client instanceof BaseClient baseClient) {
+                install(baseClient);
+            }
+        }
+        context.setRequestAttribute(PLAN_ATTRIBUTE, this);
+        return clients;
+    }
+
+    /**
+     * Stop applying the decorations of the plan currently performed for this request.
+     *
+     * @param context the web context
+     */
+    static void release(final WebContext context) {
+        context.setRequestAttribute(PLAN_ATTRIBUTE, null);
+    }
+
+    private static PlannedClients current(final WebContext context) {
+        return context.getRequestAttribute(PLAN_ATTRIBUTE).orElse(null) instanceof PlannedClients planned ? planned : null;
+    }
+
+    // the clients may be reinitialized and replace their components: the planned ones are installed again
+    private void install(final BaseClient client) {
+        client.init();
+        val authenticator = client.getAuthenticator();
+        val extractor = client.getCredentialsExtractor();
+        if (decorator != null && authenticator != null && !(authenticator instanceof PlannedAuthenticator)
+            || timed && extractor != null && !(extractor instanceof PlannedCredentialsExtractor)) {
+            synchronized (client) {
+                val currentAuthenticator = client.getAuthenticator();
+                if (decorator != null && currentAuthenticator != null && !(currentAuthenticator instanceof PlannedAuthenticator)) {
+                    client.setAuthenticator(new PlannedAuthenticator(currentAuthenticator, client.getName()));
+                }
+                val currentExtractor = client.getCredentialsExtractor();
+                if (timed && currentExtractor != null && !(currentExtractor instanceof PlannedCredentialsExtractor)) {
+                    client.setCredentialsExtractor(new PlannedCredentialsExtractor(currentExtractor));
+                }
+            }
+        }
+    }
+
+    private Authenticator decorate(final Authenticator authenticator, final String clientName) {
+        var decorated = decoratedAuthenticators.get(clientName);
+        if (decorated == null || decorated.authenticator() != authenticator) {
+            val decoration = decorator.decorate(authenticator, clientName);
+            decorated = new DecoratedAuthenticator(authenticator, decoration != null ? decoration : authenticator);
+            decoratedAuthenticators.put(clientName, decorated);
+        }
+        return decorated.decoration();
+    }
+
+    private record DecoratedAuthenticator(Authenticator authenticator, Authenticator decoration) {}
+
+    /**
+     * The authenticator of a client, decorated by the plan currently performed for the request.
+     */
+    static final class PlannedAuthenticator implements Authenticator {
+
+        @Getter
+        private final Authenticator delegate;
+
+        private final String clientName;
+
+        private PlannedAuthenticator(final Authenticator delegate, final String clientName) {
+            CommonHelper.assertNotNull("delegate", delegate);
+            this.delegate = delegate;
+            this.clientName = clientName;
+        }
+
+        @Override
+        public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+            val planned = current(ctx.webContext());
+            if (planned == null || planned.decorator == null) {
+                return delegate.validate(ctx, credentials);
+            }
+            return planned.decorate(delegate, clientName).validate(ctx, credentials);
+        }
+    }
+
+    /**
+     * The credentials extractor of a client, timed if the plan currently performed for the request is.
+     */
+    static final class PlannedCredentialsExtractor implements CredentialsExtractor {
+
+        @Getter
+        private final CredentialsExtractor delegate;
+
+        private PlannedCredentialsExtractor(final CredentialsExtractor delegate) {
+            CommonHelper.assertNotNull("delegate", delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Optional<Credentials> extract(final CallContext ctx) {
+            val planned = current(ctx.webContext());
+            val timings = planned != null && planned.timed ? RequestTimings.current(ctx.webContext()) : null;
+            if (timings == null) {
+                return delegate.extract(ctx);
+            }
+            val start = System.nanoTime();
+            try {
+                return delegate.extract(ctx);
+            } finally {
+                timings.recordSince(RequestTimings.Phase.CREDENTIALS, start);
+            }
+        }
+    }
+}
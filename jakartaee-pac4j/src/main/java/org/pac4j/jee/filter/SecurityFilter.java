@@ -1,27 +1,67 @@
 package org.pac4j.jee.filter;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.val;
-import org.pac4j.core.adapter.FrameworkAdapter;
 import org.pac4j.core.config.Config;
+import org.pac4j.core.profile.UserProfile;
 import org.pac4j.core.util.Pac4jConstants;
 import org.pac4j.core.util.security.SecurityEndpoint;
 import org.pac4j.core.util.security.SecurityEndpointBuilder;
 import org.pac4j.jee.config.AbstractConfigFilter;
-import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.metrics.FilterMetrics;
+import org.pac4j.jee.metrics.MeteredRequest;
+import org.pac4j.jee.metrics.MicrometerFilterMetrics;
+import org.pac4j.jee.util.AsyncExecution;
+import org.pac4j.jee.util.BruteForceProtection;
+import org.pac4j.jee.util.ClientBulkheads;
+import org.pac4j.jee.util.ClientWarmUp;
+import org.pac4j.jee.util.ConfigHolder;
+import org.pac4j.jee.util.FilterConfigHelper;
+import org.pac4j.jee.util.JEEConstants;
 import org.pac4j.jee.util.Pac4JHttpServletRequestWrapper;
+import org.pac4j.jee.util.PathTrie;
+import org.pac4j.jee.util.ProfileCache;
+import org.pac4j.jee.util.StatelessHttpServletRequestWrapper;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * <p>This filter protects an URL.</p>
  *
+ * <p>Its parameters, defined by init parameters of the same name (see {@link JEEConstants}) or setters, are:</p>
+ * <ul>
+ *     <li><code>clients</code>, <code>authorizers</code> and <code>matchers</code>: the security parameters</li>
+ *     <li><code>async</code>, <code>asyncTimeout</code> and <code>asyncThreads</code>: perform the security logic
+ *     in an asynchronous execution (or an <code>asyncExecutor</code>)</li>
+ *     <li><code>profileCacheSize</code> and <code>profileCacheTtl</code>: cache the profiles of the direct clients
+ *     (or a <code>profileCache</code>)</li>
+ *     <li><code>metrics</code>: record Micrometer metrics (or some <code>metrics</code>)</li>
+ *     <li><code>bypassPaths</code>: the path patterns for which the filter is bypassed</li>
+ *     <li><code>stateless</code> and <code>statelessFailFast</code>: forbid the web sessions</li>
+ *     <li><code>bulkheads</code>, <code>bulkheadTimeout</code> and <code>retryAfter</code>: limit the concurrent validations
+ *     of the credentials (or some <code>clientBulkheads</code>)</li>
+ *     <li><code>bruteForceProtection</code>, <code>maxFailedAttempts</code>, <code>failedAttemptsPeriod</code>,
+ *     <code>negativeCacheTtl</code> and <code>bruteForceAddressHeader</code>: throttle the failed attempts
+ *     (or a <code>bruteForceProtection</code>)</li>
+ *     <li><code>timings</code> and <code>serverTiming</code>: record the time spent in each phase of the security logic</li>
+ *     <li><code>warmUp</code>, <code>warmUpTimeout</code> and <code>warmUpThreads</code>: initialize the clients at startup</li>
+ *     <li><code>configHolder</code>: the holder of a reloadable configuration</li>
+ * </ul>
+ *
+ * <p>The security logic and its optional features are performed by the {@link SecurityPlan} of the filter.</p>
+ *
  * @author Jerome Leleu, Michael Remond
  * @since 1.0.0
  */
@@ -29,12 +69,78 @@ import java.io.IOException;
 @Setter
 public class SecurityFilter extends AbstractConfigFilter implements SecurityEndpoint {
 
+    private static final long DEFAULT_PROFILE_CACHE_TTL = 60_000L;
+
+    private static final String ASYNC_GRANT_ATTRIBUTE = SecurityFilter.class.getName() + ".asyncGrant";
+
     private String clients;
 
     private String authorizers;
 
     private String matchers;
 
+    private Boolean async;
+
+    private Long asyncTimeout;
+
+    private Integer asyncThreads;
+
+    private Executor asyncExecutor;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ExecutorService ownedAsyncExecutor;
+
+    private Integer profileCacheSize;
+
+    private Long profileCacheTtl;
+
+    private ProfileCache profileCache;
+
+    private FilterMetrics metrics;
+
+    private String bypassPaths;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile PathTrie<Boolean> bypassPathTrie;
+
+    private Boolean stateless;
+
+    private Boolean statelessFailFast;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final LongAdder blockedSessions = new LongAdder();
+
+    private ClientBulkheads clientBulkheads;
+
+    /* Whether the bulkheads are already bound to the metrics, possibly by the filter sharing them */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile boolean bulkheadsBound;
+
+    private BruteForceProtection bruteForceProtection;
+
+    private Boolean timings;
+
+    private Boolean serverTiming;
+
+    private Boolean warmUp;
+
+    private Long warmUpTimeout;
+
+    private Integer warmUpThreads;
+
+    @Setter(AccessLevel.NONE)
+    private ClientWarmUp.Report warmUpReport;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile SecurityPlan securityPlan;
+
+    private ConfigHolder configHolder;
+
     public SecurityFilter() {}
 
     public SecurityFilter(final Config config) {
@@ -66,23 +172,245 @@ public class SecurityFilter extends AbstractConfigFilter implements SecurityEndp
     public void init(final FilterConfig filterConfig) throws ServletException {
         super.init(filterConfig);
 
+        if (this.configHolder == null && getConfig() == null) {
+            this.configHolder = ConfigHolder.fromServletContext(filterConfig.getServletContext());
+        }
+
         this.clients = getStringParam(filterConfig, Pac4jConstants.CLIENTS, this.clients);
         this.authorizers = getStringParam(filterConfig, Pac4jConstants.AUTHORIZERS, this.authorizers);
         this.matchers = getStringParam(filterConfig, Pac4jConstants.MATCHERS, this.matchers);
+        setBypassPaths(getStringParam(filterConfig, JEEConstants.BYPASS_PATHS, this.bypassPaths));
+        this.stateless = getBooleanParam(filterConfig, JEEConstants.STATELESS, this.stateless);
+        this.statelessFailFast = getBooleanParam(filterConfig, JEEConstants.STATELESS_FAIL_FAST, this.statelessFailFast);
+        initComponents(filterConfig);
+
+        this.timings = getBooleanParam(filterConfig, JEEConstants.TIMINGS, this.timings);
+        this.serverTiming = getBooleanParam(filterConfig, JEEConstants.SERVER_TIMING, this.serverTiming);
+
+        this.warmUp = getBooleanParam(filterConfig, JEEConstants.WARM_UP, this.warmUp);
+        this.warmUpTimeout = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.WARM_UP_TIMEOUT, this.warmUpTimeout);
+        this.warmUpThreads = FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.WARM_UP_THREADS, this.warmUpThreads);
+        if (Boolean.TRUE.equals(this.warmUp)) {
+            warmUpClients();
+        }
+    }
+
+    /**
+     * Read the init parameters of the shared components of the filter (asynchronous executor, profile cache, metrics, bulkheads
+     * and brute force protection) and build the ones which are not already defined.
+     *
+     * @param filterConfig the filter configuration
+     */
+    void initComponents(final FilterConfig filterConfig) {
+        this.async = getBooleanParam(filterConfig, JEEConstants.ASYNC, this.async);
+        this.asyncTimeout = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.ASYNC_TIMEOUT, this.asyncTimeout);
+        this.asyncThreads = FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.ASYNC_THREADS, this.asyncThreads);
+
+        if (Boolean.TRUE.equals(this.async) && this.asyncExecutor == null) {
+            this.ownedAsyncExecutor = AsyncExecution.newExecutor("pac4j-security-",
+                this.asyncThreads != null ? this.asyncThreads : 0, AsyncExecution.DEFAULT_POOL_THREADS);
+            this.asyncExecutor = this.ownedAsyncExecutor;
+        }
+
+        this.profileCacheSize = FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.PROFILE_CACHE_SIZE, this.profileCacheSize);
+        this.profileCacheTtl = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.PROFILE_CACHE_TTL, this.profileCacheTtl);
+        if (this.profileCache == null && this.profileCacheSize != null && this.profileCacheSize > 0) {
+            this.profileCache = new ProfileCache(this.profileCacheSize,
+                this.profileCacheTtl != null ? this.profileCacheTtl : DEFAULT_PROFILE_CACHE_TTL);
+        }
+
+        if (this.metrics == null && Boolean.TRUE.equals(getBooleanParam(filterConfig, JEEConstants.METRICS, false))) {
+            this.metrics = MicrometerFilterMetrics.fromServletContext(filterConfig.getServletContext());
+        }
+
+        if (this.clientBulkheads == null) {
+            this.clientBulkheads = ClientBulkheads.fromFilterConfig(filterConfig);
+        }
+        if (this.clientBulkheads != null && this.metrics != null && !this.bulkheadsBound) {
+            for (val bulkhead : this.clientBulkheads.getBulkheads().values()) {
+                this.metrics.bindBulkhead(FilterMetrics.FilterType.SECURITY, bulkhead);
+            }
+            this.bulkheadsBound = true;
+        }
+
+        if (this.bruteForceProtection == null) {
+            this.bruteForceProtection = BruteForceProtection.fromFilterConfig(filterConfig);
+        }
+    }
+
+    /**
+     * Use the components of another filter when they are not already defined, so that they are built (and their bulkheads
+     * bound to the metrics) only once for several filters (see {@link RoutingSecurityFilter}).
+     *
+     * @param components the filter holding the components
+     */
+    void shareComponents(final SecurityFilter components) {
+        if (this.asyncExecutor == null) {
+            this.asyncExecutor = components.asyncExecutor;
+        }
+        if (this.profileCache == null) {
+            this.profileCache = components.profileCache;
+        }
+        if (this.metrics == null) {
+            this.metrics = components.metrics;
+        }
+        if (this.clientBulkheads == null) {
+            this.clientBulkheads = components.clientBulkheads;
+        }
+        if (this.bruteForceProtection == null) {
+            this.bruteForceProtection = components.bruteForceProtection;
+        }
+        this.bulkheadsBound = components.bulkheadsBound && this.clientBulkheads == components.clientBulkheads
+            && this.metrics == components.metrics;
+    }
+
+    /**
+     * Release the components owned by the filter.
+     */
+    void destroyComponents() {
+        if (ownedAsyncExecutor != null) {
+            ownedAsyncExecutor.shutdown();
+            ownedAsyncExecutor = null;
+        }
+    }
+
+    private void warmUpClients() {
+        val config = ConfigHolder.resolve(configHolder, getSharedConfig());
+        if (config == null || config.getClients() == null) {
+            return;
+        }
+        this.warmUpReport = ClientWarmUp.warmUp(SecurityPlan.resolveClients(config.getClients(), clients),
+            warmUpThreads != null ? warmUpThreads : ClientWarmUp.DEFAULT_THREADS,
+            warmUpTimeout != null ? warmUpTimeout : ClientWarmUp.DEFAULT_TIMEOUT);
+        // the plan of the first request is also ready
+        getSecurityPlan(config);
+    }
+
+    @Override
+    public void destroy() {
+        destroyComponents();
+        super.destroy();
     }
 
     @Override
-    protected final void internalFilter(final HttpServletRequest request, final HttpServletResponse response,
+    protected final void internalFilter(final HttpServletRequest servletRequest, final HttpServletResponse response,
                                         final FilterChain filterChain) throws IOException, ServletException {
 
-        val config = getSharedConfig();
+        val bypass = this.bypassPathTrie;
+        if (bypass != null && bypass.matches(servletRequest)) {
+            filterChain.doFilter(servletRequest, response);
+            return;
+        }
+
+        final HttpServletRequest request = Boolean.TRUE.equals(stateless)
+            ? new StatelessHttpServletRequestWrapper(servletRequest, Boolean.TRUE.equals(statelessFailFast), this::blockSession)
+            : servletRequest;
+
+        // resume the filter chain after an asynchronous security check
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+            && request.getAttribute(ASYNC_GRANT_ATTRIBUTE) instanceof AsyncGrant grant && grant.filter() == this) {
+            request.removeAttribute(ASYNC_GRANT_ATTRIBUTE);
+            continueChain(request, response, filterChain, grant.profiles());
+            return;
+        }
 
-        FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
+        val config = ConfigHolder.resolve(configHolder, getSharedConfig());
+        val plan = getSecurityPlan(config);
+        val metered = MeteredRequest.start(metrics, FilterMetrics.FilterType.SECURITY, request, response);
 
-        config.getSecurityLogic().perform(config, (ctx, session, profiles) -> {
-            // if no profiles are loaded, pac4j is not concerned with this request
-            filterChain.doFilter(profiles.isEmpty() ? request : new Pac4JHttpServletRequestWrapper(request, profiles), response);
+        if (isAsync(request)) {
+            val timeout = asyncTimeout != null ? asyncTimeout : AsyncExecution.DEFAULT_TIMEOUT;
+            AsyncExecution.execute(asyncExecutor, timeout, request, response, execution -> {
+                val asyncRequest = execution.getRequest();
+                plan.perform(metered, asyncRequest, execution.getResponse(), (ctx, session, profiles) -> {
+                    asyncRequest.setAttribute(ASYNC_GRANT_ATTRIBUTE, new AsyncGrant(this, profiles));
+                    // the write-behind scope is already closed: the dispatched request may run before the end of this execution
+                    execution.dispatch();
+                    return null;
+                });
+                // if the request has not been dispatched, the response has been written by the security logic
+                execution.complete();
+            }, (req, resp) -> {
+                resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                metered.failed(clients);
+            });
+            return;
+        }
+
+        plan.perform(metered, request, response, (ctx, session, profiles) -> {
+            continueChain(request, response, filterChain, profiles);
             return null;
-        }, clients, authorizers, matchers, new JEEFrameworkParameters(request, response));
+        });
+    }
+
+    /**
+     * Define the path patterns for which the security filter is bypassed.
+     *
+     * @param bypassPaths the path patterns, separated by commas
+     */
+    public void setBypassPaths(final String bypassPaths) {
+        this.bypassPathTrie = PathTrie.compile(bypassPaths);
+        this.bypassPaths = bypassPaths;
+    }
+
+    private void blockSession() {
+        blockedSessions.increment();
+        if (metrics != null) {
+            metrics.recordBlockedSession(FilterMetrics.FilterType.SECURITY);
+        }
+    }
+
+    /**
+     * Get the number of attempts to create a web session blocked in stateless mode.
+     *
+     * @return the number of blocked attempts
+     */
+    public long getBlockedSessions() {
+        return blockedSessions.sum();
+    }
+
+    private boolean isTimed() {
+        return Boolean.TRUE.equals(timings) || Boolean.TRUE.equals(serverTiming);
+    }
+
+    // an asynchronous dispatch without a grant of this filter is checked synchronously: it must not start a new asynchronous cycle
+    private boolean isAsync(final HttpServletRequest request) {
+        return Boolean.TRUE.equals(async) && asyncExecutor != null && request.getDispatcherType() != DispatcherType.ASYNC
+            && request.isAsyncSupported() && !request.isAsyncStarted();
+    }
+
+    private static void continueChain(final HttpServletRequest request, final HttpServletResponse response,
+                                      final FilterChain filterChain, final Collection<UserProfile> profiles)
+        throws IOException, ServletException {
+        // if no profiles are loaded, pac4j is not concerned with this request
+        filterChain.doFilter(profiles.isEmpty() ? request : new Pac4JHttpServletRequestWrapper(request, profiles), response);
+    }
+
+    /**
+     * Get the security plan for the given configuration, (re)building it if the configuration or the security parameters changed.
+     *
+     * @param config the configuration
+     * @return the security plan
+     */
+    protected SecurityPlan getSecurityPlan(final Config config) {
+        var plan = this.securityPlan;
+        if (plan == null || !plan.isValidFor(config, clients, authorizers, matchers) || plan.getProfileCache() != profileCache
+            || plan.getBulkheads() != clientBulkheads || plan.getBruteForceProtection() != bruteForceProtection
+            || plan.isTimed() != isTimed() || plan.isServerTiming() != Boolean.TRUE.equals(serverTiming)) {
+            plan = SecurityPlan.builder(config)
+                .clients(clients)
+                .authorizers(authorizers)
+                .matchers(matchers)
+                .profileCache(profileCache)
+                .bulkheads(clientBulkheads)
+                .bruteForceProtection(bruteForceProtection)
+                .timed(Boolean.TRUE.equals(timings))
+                .serverTiming(Boolean.TRUE.equals(serverTiming))
+                .build();
+            this.securityPlan = plan;
+        }
+        return plan;
     }
+
+    private record AsyncGrant(SecurityFilter filter, Collection<UserProfile> profiles) {}
 }
@@ -0,0 +1,113 @@
+package org.pac4j.jee.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>The measurement of a request handled by a filter: the outcome is recorded only once, even if the request is handled
+ * asynchronously.</p>
+ *
+ * <p>When the filter has no metrics, the {@link #DISABLED} measurement is used: it does not read the clock nor allocate anything.</p>
+ *
+ * @since 8.0.4
+ */
+public final class MeteredRequest {
+
+    /* The measurement used when the filter has no metrics */
+    public static final MeteredRequest DISABLED = new MeteredRequest(null, null, null, null);
+
+    private final FilterMetrics metrics;
+
+    private final FilterMetrics.FilterType filterType;
+
+    private final HttpServletRequest request;
+
+    private final HttpServletResponse response;
+
+    private final long start;
+
+    private final boolean sessionExisted;
+
+    private final AtomicBoolean recorded;
+
+    private MeteredRequest(final FilterMetrics metrics, final FilterMetrics.FilterType filterType,
+                           final HttpServletRequest request, final HttpServletResponse response) {
+        this.metrics = metrics;
+        this.filterType = filterType;
+        this.request = request;
+        this.response = response;
+        if (metrics != null) {
+            this.start = System.nanoTime();
+            this.sessionExisted = request.getSession(false) != null;
+            this.recorded = new AtomicBoolean();
+        } else {
+            this.start = 0L;
+            this.sessionExisted = true;
+            this.recorded = null;
+        }
+    }
+
+    /**
+     * Start measuring a request.
+     *
+     * @param metrics the metrics of the filter (may be <code>null</code>)
+     * @param filterType the type of filter
+     * @param request the request
+     * @param response the response
+     * @return the measurement
+     */
+    public static MeteredRequest start(final FilterMetrics metrics, final FilterMetrics.FilterType filterType,
+                                       final HttpServletRequest request, final HttpServletResponse response) {
+        if (metrics == null) {
+            return DISABLED;
+        }
+        return new MeteredRequest(metrics, filterType, request, response);
+    }
+
+    public boolean isEnabled() {
+        return metrics != null;
+    }
+
+    /**
+     * Record the access granted by the filter.
+     *
+     * @param clientName the name of the client
+     */
+    public void granted(final String clientName) {
+        record(clientName, FilterMetrics.Outcome.AUTHENTICATED);
+    }
+
+    /**
+     * Record the end of the filter logic: the outcome depends on the status of the response.
+     *
+     * @param clientName the name of the client
+     */
+    public void completed(final String clientName) {
+        if (metrics != null) {
+            record(clientName, FilterMetrics.Outcome.fromStatus(response.getStatus()));
+        }
+    }
+
+    /**
+     * Record the failure of the filter logic.
+     *
+     * @param clientName the name of the client
+     */
+    public void failed(final String clientName) {
+        record(clientName, FilterMetrics.Outcome.ERROR);
+    }
+
+    private void record(final String clientName, final FilterMetrics.Outcome outcome) {
+        if (metrics == null || !recorded.compareAndSet(false, true)) {
+            return;
+        }
+        val duration = System.nanoTime() - start;
+        metrics.recordRequest(filterType, clientName, outcome, duration);
+        if (!sessionExisted && request.getSession(false) != null) {
+            metrics.recordSessionCreation(filterType);
+        }
+    }
+}
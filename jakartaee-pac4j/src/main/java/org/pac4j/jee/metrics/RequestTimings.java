@@ -0,0 +1,194 @@
+package org.pac4j.jee.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.context.WebContext;
+
+/**
+ * <p>The time spent in each phase of the pac4j logic for a request (in nanoseconds), recorded when the timings are enabled
+ * on a filter (<code>timings</code> or <code>serverTiming</code> init parameter).</p>
+ *
+ * <p>The timings are available as the {@link #ATTRIBUTE} request attribute and, optionally, as a <code>Server-Timing</code>
+ * response header (<code>pac4j-authn;dur=12.345, ..., pac4j;dur=15.678</code>, in milliseconds), added when the logic ends
+ * or before the access is granted. The phases are recorded by the views of the clients built by the filters (see {@link TimedClients}),
+ * the checkers of the security plan and the web session (see {@link TimedHttpServletRequest}): they may overlap, for example
+ * when an authenticator reads the web session. The timings of nested filters are added up.</p>
+ *
+ * <p>All the counters are allocated with the timings: recording a phase does not allocate anything. Like the request,
+ * the timings are not thread-safe.</p>
+ *
+ * @since 8.0.4
+ */
+public final class RequestTimings {
+
+    /* The request attribute of the timings */
+    public static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    /* The response header of the timings */
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    /**
+     * The phases of the pac4j logic.
+     */
+    @Getter
+    public enum Phase {
+        MATCHERS("pac4j-matchers"),
+        CREDENTIALS("pac4j-credentials"),
+        AUTHENTICATION("pac4j-authn"),
+        AUTHORIZATION("pac4j-authz"),
+        SESSION("pac4j-session"),
+        REDIRECT("pac4j-redirect");
+
+        private final String metricName;
+
+        Phase(final String metricName) {
+            this.metricName = metricName;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long start = System.nanoTime();
+
+    private final long[] durations = new long[PHASES.length];
+
+    private final int[] counts = new int[PHASES.length];
+
+    private long total = -1L;
+
+    private RequestTimings() {}
+
+    /**
+     * Start recording the timings of a request, or continue recording the timings started by an enclosing filter.
+     *
+     * @param request the request
+     * @return the timings
+     */
+    public static RequestTimings start(final HttpServletRequest request) {
+        if (request.getAttribute(ATTRIBUTE) instanceof RequestTimings timings && !timings.isFinished()) {
+            return timings;
+        }
+        val timings = new RequestTimings();
+        request.setAttribute(ATTRIBUTE, timings);
+        return timings;
+    }
+
+    /**
+     * Get the timings being recorded for a request.
+     *
+     * @param context the web context
+     * @return the timings or <code>null</code> if they are not recorded for this request
+     */
+    public static RequestTimings current(final WebContext context) {
+        val timings = context.getRequestAttribute(ATTRIBUTE);
+        return timings.isPresent() && timings.get() instanceof RequestTimings requestTimings && !requestTimings.isFinished()
+            ? requestTimings : null;
+    }
+
+    /**
+     * Record the time spent in a phase.
+     *
+     * @param phase the phase
+     * @param duration the duration (in nanoseconds)
+     */
+    public void record(final Phase phase, final long duration) {
+        durations[phase.ordinal()] += duration;
+        counts[phase.ordinal()]++;
+    }
+
+    /**
+     * Record the time spent in a phase since the given start.
+     *
+     * @param phase the phase
+     * @param startTime the start (as returned by {@link System#nanoTime()})
+     */
+    public void recordSince(final Phase phase, final long startTime) {
+        record(phase, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stop recording the timings: the total duration is computed and the <code>Server-Timing</code> header is added to the response
+     * if requested and still possible. Only the first call has an effect.
+     *
+     * @param response the response
+     * @param serverTiming whether the <code>Server-Timing</code> header must be added
+     */
+    public void finish(final HttpServletResponse response, final boolean serverTiming) {
+        if (isFinished()) {
+            return;
+        }
+        total = System.nanoTime() - start;
+        if (serverTiming && !response.isCommitted()) {
+            response.addHeader(SERVER_TIMING_HEADER, toServerTiming());
+        }
+    }
+
+    public boolean isFinished() {
+        return total >= 0L;
+    }
+
+    /**
+     * Get the total time spent in the pac4j logic, once finished.
+     *
+     * @return the total duration (in nanoseconds) or <code>-1</code> if the timings are not finished
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Get the time spent in a phase.
+     *
+     * @param phase the phase
+     * @return the duration (in nanoseconds)
+     */
+    public long getDuration(final Phase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    /**
+     * Get the number of times a phase has been recorded.
+     *
+     * @param phase the phase
+     * @return the number of times
+     */
+    public int getCount(final Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Format the recorded phases and the total duration as the value of a <code>Server-Timing</code> header.
+     *
+     * @return the header value
+     */
+    public String toServerTiming() {
+        val sb = new StringBuilder(128);
+        for (val phase : PHASES) {
+            if (counts[phase.ordinal()] > 0) {
+                appendMetric(sb, phase.getMetricName(), durations[phase.ordinal()]);
+            }
+        }
+        appendMetric(sb, "pac4j", isFinished() ? total : System.nanoTime() - start);
+        return sb.toString();
+    }
+
+    private static void appendMetric(final StringBuilder sb, final String name, final long nanos) {
+        if (!sb.isEmpty()) {
+            sb.append(", ");
+        }
+        val micros = nanos / 1_000L;
+        val fraction = micros % 1_000L;
+        sb.append(name).append(";dur=").append(micros / 1_000L).append('.');
+        if (fraction < 100L) {
+            sb.append(fraction < 10L ? "00" : "0");
+        }
+        sb.append(fraction);
+    }
+
+    @Override
+    public String toString() {
+        return toServerTiming();
+    }
+}
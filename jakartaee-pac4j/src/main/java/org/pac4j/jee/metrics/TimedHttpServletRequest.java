@@ -0,0 +1,76 @@
+package org.pac4j.jee.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpSession;
+import lombok.val;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+/**
+ * <p>A request wrapper recording the time spent in the web session (its creation, reads, writes, renewal and invalidation)
+ * as the {@link RequestTimings.Phase#SESSION} phase. With a replicated web session, the writes include the replication cost.</p>
+ *
+ * <p>It is only passed to the pac4j logic, not to the rest of the filter chain.</p>
+ *
+ * @since 8.0.4
+ */
+public class TimedHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final RequestTimings timings;
+
+    private HttpSession session;
+
+    private HttpSession timedSession;
+
+    public TimedHttpServletRequest(final HttpServletRequest request, final RequestTimings timings) {
+        super(request);
+        this.timings = timings;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public HttpSession getSession(final boolean create) {
+        val start = System.nanoTime();
+        try {
+            return timed(super.getSession(create));
+        } finally {
+            timings.recordSince(RequestTimings.Phase.SESSION, start);
+        }
+    }
+
+    @Override
+    public String changeSessionId() {
+        val start = System.nanoTime();
+        try {
+            return super.changeSessionId();
+        } finally {
+            timings.recordSince(RequestTimings.Phase.SESSION, start);
+        }
+    }
+
+    private HttpSession timed(final HttpSession nativeSession) {
+        if (nativeSession == null) {
+            return null;
+        } else if (nativeSession != session) {
+            session = nativeSession;
+            timedSession = (HttpSession) Proxy.newProxyInstance(HttpSession.class.getClassLoader(), new Class<?>[] {HttpSession.class},
+                (proxy, method, args) -> {
+                    val start = System.nanoTime();
+                    try {
+                        return method.invoke(nativeSession, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getCause();
+                    } finally {
+                        timings.recordSince(RequestTimings.Phase.SESSION, start);
+                    }
+                });
+        }
+        return timedSession;
+    }
+}
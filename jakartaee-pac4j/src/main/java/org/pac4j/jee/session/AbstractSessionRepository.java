@@ -0,0 +1,61 @@
+package org.pac4j.jee.session;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Base {@link SessionRepository}: invalidation listeners and periodic purge of the expired sessions.
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public abstract class AbstractSessionRepository implements SessionRepository {
+
+    /* Number of writes between two purges of the expired sessions */
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger writes = new AtomicInteger();
+
+    @Override
+    public void addInvalidationListener(final Consumer<String> listener) {
+        CommonHelper.assertNotNull("listener", listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Notify the listeners that a session has changed or has been removed.
+     *
+     * @param sessionId the session identifier
+     */
+    protected void invalidate(final String sessionId) {
+        for (val listener : listeners) {
+            try {
+                listener.accept(sessionId);
+            } catch (final RuntimeException e) {
+                LOGGER.warn("Cannot invalidate session: {}", sessionId, e);
+            }
+        }
+    }
+
+    /**
+     * Purge the expired sessions every {@value #PURGE_INTERVAL} writes.
+     */
+    protected void purgePeriodically() {
+        if (writes.incrementAndGet() % PURGE_INTERVAL == 0) {
+            purge();
+        }
+    }
+
+    /**
+     * Remove the expired sessions.
+     */
+    public abstract void purge();
+}
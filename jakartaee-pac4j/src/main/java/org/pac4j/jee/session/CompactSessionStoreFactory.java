@@ -0,0 +1,38 @@
+package org.pac4j.jee.session;
+
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.Serializer;
+import org.pac4j.jee.context.session.JEESessionStoreFactory;
+
+/**
+ * Factory of the {@link CompactSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new CompactSessionStoreFactory())</code>. It decorates the session stores of the
+ * {@link JEESessionStoreFactory} by default.
+ *
+ * @since 8.0.4
+ */
+public class CompactSessionStoreFactory implements SessionStoreFactory {
+
+    private final SessionStoreFactory delegate;
+
+    private final Serializer serializer;
+
+    public CompactSessionStoreFactory() {
+        this(JEESessionStoreFactory.INSTANCE, new CompactSerializer());
+    }
+
+    public CompactSessionStoreFactory(final SessionStoreFactory delegate, final Serializer serializer) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("serializer", serializer);
+        this.delegate = delegate;
+        this.serializer = serializer;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        return new CompactSessionStore(delegate.newSessionStore(parameters), serializer);
+    }
+}
@@ -0,0 +1,466 @@
+package org.pac4j.jee.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.JavaSerializer;
+import org.pac4j.core.util.serializer.Serializer;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>A stateless {@link SessionStore} which keeps the pac4j data in cookies instead of the web session, so that the nodes
+ * of a cluster need neither sticky sessions nor session replication.</p>
+ *
+ * <p>The data are serialized, compressed and encrypted with AES-GCM, which also authenticates them, then split into chunks
+ * (cookies <code>pac4j.0</code>, <code>pac4j.1</code>...) to fit the size limit of the browsers: 2 cookies of 3500 characters
+ * at most by default. Larger data are rejected with a {@link TechnicalException}. The first key encrypts
+ * the data while all the keys can decrypt them, so that keys can be rotated: add the new key first and remove the old key
+ * once the <code>maxAge</code> has elapsed. The keys are derived from secrets (which must be long random strings) or provided directly.</p>
+ *
+ * <p>The data expire <code>maxAge</code> seconds after their last change. They are decoded once per request. Within the pac4j
+ * filters, the changes are buffered and the cookies are written once, when the filters write the session changes (see
+ * {@link WriteBehindSessionStore}): before the rest of the filter chain, after the callback logic or when leaving the filters.
+ * Outside of the filters, the cookies are written on each change. In both cases, this must happen before the response is committed.
+ * As the data are not stored on the server, the session cannot be tracked for the central logout.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Getter
+@Setter
+public class CookieSessionStore implements SessionStore {
+
+    private static final byte VERSION = 1;
+
+    private static final int KEY_ID_LENGTH = 4;
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH = 128;
+
+    private static final int MAX_DATA_LENGTH = 256 * 1024;
+
+    private static final String SESSION_ID_KEY = "pac4j.sessionId";
+
+    private static final String PENDING_WRITES_ATTRIBUTE = CookieSessionStore.class.getName() + ".pendingWrites";
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private String cookieName = "pac4j";
+
+    private String cookiePath = "/";
+
+    private String cookieDomain;
+
+    /* Whether the cookies are secure; by default, only for secure requests */
+    private Boolean secure;
+
+    private String sameSitePolicy = "Lax";
+
+    /* In seconds */
+    private int maxAge = 1800;
+
+    /* The maximum number of characters of a cookie value: with its name and attributes, a cookie stays under the 4 KB of the browsers */
+    private int chunkSize = 3500;
+
+    /* The maximum number of cookies, so that the session data take less than 8 KB of request headers */
+    private int maxChunks = 2;
+
+    private Serializer serializer = new JavaSerializer();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<EncryptionKey> keys;
+
+    /**
+     * Build a cookie session store from secrets: the first one is used to encrypt, all of them to decrypt.
+     *
+     * @param secrets the secrets
+     */
+    public CookieSessionStore(final String... secrets) {
+        this(deriveKeys(secrets));
+    }
+
+    /**
+     * Build a cookie session store from AES keys (128, 192 or 256 bits): the first one is used to encrypt, all of them to decrypt.
+     *
+     * @param keys the keys
+     */
+    public CookieSessionStore(final List<SecretKey> keys) {
+        CommonHelper.assertTrue(keys != null && !keys.isEmpty(), "at least one key is required");
+        final List<EncryptionKey> encryptionKeys = new ArrayList<>();
+        for (val key : keys) {
+            encryptionKeys.add(new EncryptionKey(keyId(key), key));
+        }
+        this.keys = List.copyOf(encryptionKeys);
+    }
+
+    private static List<SecretKey> deriveKeys(final String... secrets) {
+        CommonHelper.assertTrue(secrets != null && secrets.length > 0, "at least one secret is required");
+        final List<SecretKey> keys = new ArrayList<>();
+        for (val secret : secrets) {
+            CommonHelper.assertTrue(secret != null && secret.length() >= 32, "secrets must have at least 32 characters");
+            keys.add(new SecretKeySpec(sha256(secret.getBytes(StandardCharsets.UTF_8)), "AES"));
+        }
+        return keys;
+    }
+
+    private static byte[] keyId(final SecretKey key) {
+        return Arrays.copyOf(sha256(key.getEncoded()), KEY_ID_LENGTH);
+    }
+
+    private static byte[] sha256(final byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @Override
+    public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+        val state = getState(context);
+        var id = (String) state.data.get(SESSION_ID_KEY);
+        if (id == null && createSession) {
+            id = newSessionId();
+            state.data.put(SESSION_ID_KEY, id);
+            changed(context, state);
+        }
+        return Optional.ofNullable(id);
+    }
+
+    @Override
+    public Optional<Object> get(final WebContext context, final String key) {
+        return Optional.ofNullable(getState(context).data.get(key));
+    }
+
+    @Override
+    public void set(final WebContext context, final String key, final Object value) {
+        val state = getState(context);
+        if (value == null) {
+            if (state.data.remove(key) == null) {
+                return;
+            }
+        } else {
+            state.data.put(key, value);
+        }
+        changed(context, state);
+    }
+
+    @Override
+    public boolean destroySession(final WebContext context) {
+        val state = getState(context);
+        state.data.clear();
+        changed(context, state);
+        return true;
+    }
+
+    @Override
+    public Optional<Object> getTrackableSession(final WebContext context) {
+        LOGGER.debug("A cookie session cannot be tracked");
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean renewSession(final WebContext context) {
+        val state = getState(context);
+        if (state.data.containsKey(SESSION_ID_KEY)) {
+            state.data.put(SESSION_ID_KEY, newSessionId());
+            changed(context, state);
+        }
+        return true;
+    }
+
+    private static String newSessionId() {
+        val bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // the cookies are decoded only once per request
+    private State getState(final WebContext context) {
+        val attributeName = CookieSessionStore.class.getName() + '.' + cookieName;
+        val existingState = context.getRequestAttribute(attributeName);
+        if (existingState.isPresent() && existingState.get() instanceof State state) {
+            return state;
+        }
+
+        val chunks = new String[maxChunks];
+        val prefix = cookieName + '.';
+        for (val cookie : context.getRequestCookies()) {
+            val name = cookie.getName();
+            if (name != null && name.startsWith(prefix)) {
+                try {
+                    val index = Integer.parseInt(name.substring(prefix.length()));
+                    if (index >= 0 && index < maxChunks) {
+                        chunks[index] = cookie.getValue();
+                    }
+                } catch (final NumberFormatException e) {
+                    LOGGER.debug("Ignoring cookie: {}", name);
+                }
+            }
+        }
+        var requestChunks = 0;
+        val value = new StringBuilder();
+        while (requestChunks < maxChunks && chunks[requestChunks] != null) {
+            value.append(chunks[requestChunks]);
+            requestChunks++;
+        }
+
+        val state = new State(decode(value.toString()), requestChunks);
+        context.setRequestAttribute(attributeName, state);
+        return state;
+    }
+
+    // within the scope of the pac4j filters, the cookies are only written once the scope is closed
+    private void changed(final WebContext context, final State state) {
+        if (!WriteBehindSessionStore.isOpened(context)) {
+            write(context, state);
+        } else if (!state.pending) {
+            state.pending = true;
+            pendingWrites(context).add(() -> {
+                state.pending = false;
+                write(context, state);
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Runnable> pendingWrites(final WebContext context) {
+        val existingWrites = context.getRequestAttribute(PENDING_WRITES_ATTRIBUTE);
+        if (existingWrites.isPresent()) {
+            return (List<Runnable>) existingWrites.get();
+        }
+        final List<Runnable> writes = new ArrayList<>();
+        context.setRequestAttribute(PENDING_WRITES_ATTRIBUTE, writes);
+        return writes;
+    }
+
+    /**
+     * Write the cookies of the buffered changes of the request.
+     *
+     * @param request the request
+     */
+    @SuppressWarnings("unchecked")
+    static void flush(final HttpServletRequest request) {
+        if (request.getAttribute(PENDING_WRITES_ATTRIBUTE) instanceof List<?> writes) {
+            request.removeAttribute(PENDING_WRITES_ATTRIBUTE);
+            for (val write : (List<Runnable>) writes) {
+                write.run();
+            }
+        }
+    }
+
+    private void write(final WebContext context, final State state) {
+        val value = state.data.isEmpty() ? "" : encode(state.data);
+        val chunks = (value.length() + chunkSize - 1) / chunkSize;
+        if (chunks > maxChunks) {
+            throw new TechnicalException("Session data too large for the cookies: " + value.length() + " characters, the limit is "
+                + maxChunks + " cookies of " + chunkSize + " characters (maxChunks x chunkSize = " + (long) maxChunks * chunkSize + ")");
+        }
+        for (var i = 0; i < chunks; i++) {
+            context.addResponseCookie(buildCookie(i, value.substring(i * chunkSize, Math.min(value.length(), (i + 1) * chunkSize)),
+                -1, context));
+        }
+        // expire the chunks which are not used anymore
+        for (var i = chunks; i < state.writtenChunks; i++) {
+            context.addResponseCookie(buildCookie(i, "", 0, context));
+        }
+        state.writtenChunks = chunks;
+    }
+
+    private Cookie buildCookie(final int index, final String value, final int cookieMaxAge, final WebContext context) {
+        val cookie = new Cookie(cookieName + '.' + index, value);
+        cookie.setPath(cookiePath);
+        cookie.setDomain(cookieDomain);
+        cookie.setMaxAge(cookieMaxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure != null ? secure : context.isSecure());
+        cookie.setSameSitePolicy(sameSitePolicy);
+        return cookie;
+    }
+
+    /**
+     * Encode the data: version | key id | IV | AES-GCM(issued at | deflate(serialized data)), in URL-safe Base64.
+     *
+     * @param data the data
+     * @return the encoded data
+     */
+    protected String encode(final Map<String, Object> data) {
+        val serialized = serializer.serializeToBytes(new LinkedHashMap<>(data));
+        val compressed = deflate(serialized);
+        val plain = ByteBuffer.allocate(Long.BYTES + compressed.length)
+            .putLong(System.currentTimeMillis())
+            .put(compressed)
+            .array();
+
+        val key = keys.get(0);
+        val iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        try {
+            val cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key.key(), new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(cookieName.getBytes(StandardCharsets.UTF_8));
+            val encrypted = cipher.doFinal(plain);
+            val result = ByteBuffer.allocate(1 + KEY_ID_LENGTH + IV_LENGTH + encrypted.length)
+                .put(VERSION)
+                .put(key.id())
+                .put(iv)
+                .put(encrypted)
+                .array();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(result);
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * Decode the data, ignoring invalid, tampered or expired values.
+     *
+     * @param value the encoded data
+     * @return the data
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, Object> decode(final String value) {
+        if (value.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            val buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(value));
+            if (buffer.remaining() < 1 + KEY_ID_LENGTH + IV_LENGTH || buffer.get() != VERSION) {
+                LOGGER.debug("Invalid cookie session data");
+                return new LinkedHashMap<>();
+            }
+            val keyId = new byte[KEY_ID_LENGTH];
+            buffer.get(keyId);
+            val key = findKey(keyId);
+            if (key == null) {
+                LOGGER.debug("Unknown key for the cookie session data");
+                return new LinkedHashMap<>();
+            }
+            val iv = new byte[IV_LENGTH];
+            buffer.get(iv);
+
+            val cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(cookieName.getBytes(StandardCharsets.UTF_8));
+            val plain = ByteBuffer.wrap(cipher.doFinal(buffer.array(), buffer.position(), buffer.remaining()));
+
+            val issuedAt = plain.getLong();
+            if (System.currentTimeMillis() - issuedAt > TimeUnit.SECONDS.toMillis(maxAge)) {
+                LOGGER.debug("Expired cookie session data");
+                return new LinkedHashMap<>();
+            }
+            val compressed = new byte[plain.remaining()];
+            plain.get(compressed);
+            val data = serializer.deserializeFromBytes(inflate(compressed));
+            if (data instanceof Map<?, ?> map) {
+                return new LinkedHashMap<>((Map<String, Object>) map);
+            }
+        } catch (final IllegalArgumentException | GeneralSecurityException | DataFormatException e) {
+            LOGGER.debug("Cannot decode the cookie session data", e);
+        }
+        return new LinkedHashMap<>();
+    }
+
+    private SecretKey findKey(final byte[] keyId) {
+        for (val key : keys) {
+            if (MessageDigest.isEqual(key.id(), keyId)) {
+                return key.key();
+            }
+        }
+        return null;
+    }
+
+    private static byte[] deflate(final byte[] bytes) {
+        val deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            val output = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            val buffer = new byte[1024];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] bytes) throws DataFormatException {
+        val inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+            val output = new ByteArrayOutputStream(bytes.length * 3);
+            val buffer = new byte[1024];
+            while (!inflater.finished()) {
+                val length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated data");
+                }
+                output.write(buffer, 0, length);
+                if (output.size() > MAX_DATA_LENGTH) {
+                    throw new DataFormatException("Data too large");
+                }
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private record EncryptionKey(byte[] id, SecretKey key) {}
+
+    /**
+     * The data of the current request, the number of chunks currently held by the browser and whether a write is pending.
+     */
+    private static final class State {
+
+        private final Map<String, Object> data;
+
+        private int writtenChunks;
+
+        private boolean pending;
+
+        private State(final Map<String, Object> data, final int writtenChunks) {
+            this.data = data;
+            this.writtenChunks = writtenChunks;
+        }
+    }
+}
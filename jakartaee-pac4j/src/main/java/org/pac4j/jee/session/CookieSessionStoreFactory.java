@@ -0,0 +1,27 @@
+package org.pac4j.jee.session;
+
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * Factory of the {@link CookieSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new CookieSessionStoreFactory(new CookieSessionStore(secret)))</code>.
+ *
+ * @since 8.0.4
+ */
+public class CookieSessionStoreFactory implements SessionStoreFactory {
+
+    private final CookieSessionStore sessionStore;
+
+    public CookieSessionStoreFactory(final CookieSessionStore sessionStore) {
+        CommonHelper.assertNotNull("sessionStore", sessionStore);
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        return sessionStore;
+    }
+}
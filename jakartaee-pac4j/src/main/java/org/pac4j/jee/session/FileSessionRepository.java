@@ -0,0 +1,141 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * <p>A {@link SessionRepository} keeping each session in a file of a directory, so that the sessions survive a restart
+ * and can be shared by the applications of the same host.</p>
+ *
+ * <p>The file names are derived from a hash of the session identifiers and each file holds the expiration date followed by
+ * the data. The files are written to a temporary file first, then moved atomically.</p>
+ *
+ * <p>Only the changes made through this instance notify the invalidation listeners: the changes made by other processes are
+ * seen once the near-cache entries expire.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public class FileSessionRepository extends AbstractSessionRepository {
+
+    private static final String EXTENSION = ".session";
+
+    @Getter
+    private final Path directory;
+
+    public FileSessionRepository(final Path directory) {
+        CommonHelper.assertNotNull("directory", directory);
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (final IOException e) {
+            throw new TechnicalException("Cannot create the session directory: " + directory, e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> get(final String sessionId) {
+        val file = file(sessionId);
+        try {
+            val content = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (content.remaining() < Long.BYTES || System.currentTimeMillis() >= content.getLong()) {
+                Files.deleteIfExists(file);
+                return Optional.empty();
+            }
+            val data = new byte[content.remaining()];
+            content.get(data);
+            return Optional.of(data);
+        } catch (final NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final IOException e) {
+            LOGGER.warn("Cannot read the session file: {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(final String sessionId, final byte[] data, final long timeToLive) {
+        val file = file(sessionId);
+        val content = ByteBuffer.allocate(Long.BYTES + data.length)
+            .putLong(System.currentTimeMillis() + timeToLive)
+            .put(data)
+            .array();
+        try {
+            val temporaryFile = Files.createTempFile(directory, "pac4j", ".tmp");
+            try {
+                Files.write(temporaryFile, content);
+                try {
+                    Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (final IOException e) {
+            throw new TechnicalException("Cannot write the session file: " + file, e);
+        }
+        invalidate(sessionId);
+        purgePeriodically();
+    }
+
+    @Override
+    public void remove(final String sessionId) {
+        try {
+            Files.deleteIfExists(file(sessionId));
+        } catch (final IOException e) {
+            LOGGER.warn("Cannot delete the session file of: {}", sessionId, e);
+        }
+        invalidate(sessionId);
+    }
+
+    @Override
+    public void purge() {
+        val now = System.currentTimeMillis();
+        try (val files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (val file : files) {
+                if (isExpired(file, now)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (final IOException e) {
+            LOGGER.warn("Cannot purge the session directory: {}", directory, e);
+        }
+    }
+
+    private static boolean isExpired(final Path file, final long now) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            val header = input.readNBytes(Long.BYTES);
+            return header.length < Long.BYTES || now >= ByteBuffer.wrap(header).getLong();
+        } catch (final NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    // the session identifiers come from the requests: they are hashed to build safe file names
+    private Path file(final String sessionId) {
+        try {
+            val hash = MessageDigest.getInstance("SHA-256").digest(sessionId.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + EXTENSION);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A {@link SessionRepository} keeping the sessions in memory.</p>
+ *
+ * <p>It is the reference implementation of the repository contract, to be used for tests, in development or by a single node:
+ * the sessions are lost when the application stops.</p>
+ *
+ * @since 8.0.4
+ */
+public class InMemorySessionRepository extends AbstractSessionRepository {
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<byte[]> get(final String sessionId) {
+        val entry = sessions.get(sessionId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            sessions.remove(sessionId, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.data());
+    }
+
+    @Override
+    public void put(final String sessionId, final byte[] data, final long timeToLive) {
+        sessions.put(sessionId, new Entry(data, System.currentTimeMillis() + timeToLive));
+        invalidate(sessionId);
+        purgePeriodically();
+    }
+
+    @Override
+    public void remove(final String sessionId) {
+        sessions.remove(sessionId);
+        invalidate(sessionId);
+    }
+
+    @Override
+    public void purge() {
+        val now = System.currentTimeMillis();
+        sessions.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    public int getSize() {
+        return sessions.size();
+    }
+
+    private record Entry(byte[] data, long expiresAt) {
+
+        private boolean isExpired(final long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.logout.handler.DefaultSessionLogoutHandler;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jee.context.JEEContext;
+
+/**
+ * <p>A session logout handler which also records the identity provider session keys in a {@link SessionIndex}, to be defined
+ * in the configuration: <code>config.setSessionLogoutHandler(new IndexedSessionLogoutHandler(sessionIndex))</code>.</p>
+ *
+ * <p>When a logout request is received for a key, all the web sessions recorded for it are revoked in one pass (or only their
+ * profiles if <code>destroySession</code> is <code>false</code>). The keys which are not indexed are handled as usual.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public class IndexedSessionLogoutHandler extends DefaultSessionLogoutHandler {
+
+    @Getter
+    private final SessionIndex sessionIndex;
+
+    public IndexedSessionLogoutHandler(final SessionIndex sessionIndex) {
+        CommonHelper.assertNotNull("sessionIndex", sessionIndex);
+        this.sessionIndex = sessionIndex;
+    }
+
+    @Override
+    public void recordSession(final CallContext ctx, final String key) {
+        super.recordSession(ctx, key);
+        if (key != null && ctx.webContext() instanceof JEEContext jeeContext) {
+            val session = jeeContext.getNativeRequest().getSession(false);
+            if (session != null) {
+                sessionIndex.recordIdpSession(key, session);
+            }
+        }
+    }
+
+    @Override
+    public void destroySession(final CallContext ctx, final String key) {
+        val sessionIds = sessionIndex.getIdpSessionIds(key);
+        if (sessionIds.isEmpty()) {
+            super.destroySession(ctx, key);
+            return;
+        }
+        getStore().remove(key);
+        for (val sessionId : sessionIds) {
+            getStore().remove(sessionId);
+        }
+        val revoked = sessionIndex.revokeSessions(sessionIds, isDestroySession());
+        LOGGER.debug("{} session(s) revoked for key: {}", revoked, key);
+    }
+}
@@ -0,0 +1,149 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+import org.pac4j.core.profile.BasicUserProfile;
+import org.pac4j.core.profile.UserProfile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * <p>Reduces the heap footprint of the profiles kept in the web sessions, by sharing their duplicated strings and role sets
+ * between all the sessions: with many concurrent sessions, the same attribute names, role names, issuers or client names
+ * are otherwise held millions of times.</p>
+ *
+ * <p>The profiles are copied with their client name, attribute names, roles and the values of the shared
+ * attributes (the strings and lists of strings) replaced by canonical instances, kept in a bounded weak canonical map
+ * (see {@link WeakInterner}). The roles are stored as a {@link CompactRoleSet}. The other values, unique to a user (identifier,
+ * email, tokens...), are not canonicalized: it would only cost memory. The original profiles are not modified, as they may be
+ * used concurrently.</p>
+ *
+ * <p>Only the {@link BasicUserProfile} instances with a public no-arg constructor are deduplicated.</p>
+ *
+ * @since 8.0.4
+ */
+@Getter
+@Setter
+public class ProfileDeduplicator {
+
+    /* Default maximum number of canonical strings */
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    /* Default maximum length of the canonicalized strings */
+    public static final int DEFAULT_MAX_STRING_LENGTH = 512;
+
+    /* Default attributes whose values are shared by many users */
+    public static final Set<String> DEFAULT_SHARED_ATTRIBUTES = Set.of("iss", "aud", "azp", "acr", "amr", "scope", "token_type",
+        "locale", "zoneinfo", "groups", "roles", "memberOf", "department", "organization", "tenant", "client_id", "idp",
+        "authenticationMethod", "credentialType", "successfulAuthenticationHandlers");
+
+    private final WeakInterner<String> strings;
+
+    private final WeakInterner<Set<String>> roleSets;
+
+    private Set<String> sharedAttributes = DEFAULT_SHARED_ATTRIBUTES;
+
+    private int maxStringLength = DEFAULT_MAX_STRING_LENGTH;
+
+    public ProfileDeduplicator() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Build a deduplicator.
+     *
+     * @param maxSize the maximum number of canonical strings and of canonical role sets
+     */
+    public ProfileDeduplicator(final int maxSize) {
+        assertTrue(maxSize > 0, "maxSize must be greater than 0");
+        this.strings = new WeakInterner<>(maxSize);
+        this.roleSets = new WeakInterner<>(maxSize);
+    }
+
+    /**
+     * Deduplicate a value stored in the web session: a profile or a map of profiles (as saved by pac4j).
+     *
+     * @param value the value
+     * @return the deduplicated value or the value itself if it is not a profile or a map of profiles
+     */
+    @SuppressWarnings("unchecked")
+    public Object deduplicate(final Object value) {
+        if (value instanceof UserProfile profile) {
+            return deduplicate(profile);
+        } else if (value instanceof LinkedHashMap<?, ?> map && !map.isEmpty()
+            && map.values().stream().allMatch(UserProfile.class::isInstance)) {
+            final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+            for (val entry : ((Map<String, UserProfile>) map).entrySet()) {
+                profiles.put(canonicalize(entry.getKey()), deduplicate(entry.getValue()));
+            }
+            return profiles;
+        }
+        return value;
+    }
+
+    /**
+     * Deduplicate a profile.
+     *
+     * @param profile the profile
+     * @return the deduplicated copy of the profile, or the profile itself if it cannot be (no identifier...) or is already deduplicated
+     */
+    public UserProfile deduplicate(final UserProfile profile) {
+        if (!(profile instanceof BasicUserProfile basicProfile) || profile.getId() == null
+            || basicProfile.getRoles() instanceof CompactRoleSet) {
+            return profile;
+        }
+        final BasicUserProfile copy;
+        try {
+            copy = basicProfile.getClass().getConstructor().newInstance();
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            return profile;
+        }
+        copy.build(profile.getId(), canonicalizeAttributes(basicProfile.getAttributes()),
+            canonicalizeAttributes(basicProfile.getAuthenticationAttributes()));
+        copy.setClientName(canonicalize(profile.getClientName()));
+        copy.setLinkedId(profile.getLinkedId());
+        copy.setRemembered(profile.isRemembered());
+        val roles = new ArrayList<String>(profile.getRoles().size());
+        for (val role : profile.getRoles()) {
+            roles.add(canonicalize(role));
+        }
+        copy.setRoles(new CompactRoleSet(roleSets.intern(Set.copyOf(roles))));
+        return copy;
+    }
+
+    private Map<String, Object> canonicalizeAttributes(final Map<String, Object> attributes) {
+        final Map<String, Object> canonicalAttributes = new HashMap<>();
+        for (val entry : attributes.entrySet()) {
+            val key = canonicalize(entry.getKey());
+            val value = entry.getValue();
+            canonicalAttributes.put(key, sharedAttributes.contains(key) ? canonicalizeValue(value) : value);
+        }
+        return canonicalAttributes;
+    }
+
+    private Object canonicalizeValue(final Object value) {
+        if (value instanceof String s) {
+            return canonicalize(s);
+        } else if (value instanceof List<?> list && list.stream().allMatch(String.class::isInstance)) {
+            final List<String> values = new ArrayList<>(list.size());
+            for (val element : (Collection<?>) list) {
+                values.add(canonicalize((String) element));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    private String canonicalize(final String s) {
+        return s == null || s.length() > maxStringLength ? s : strings.intern(s);
+    }
+}
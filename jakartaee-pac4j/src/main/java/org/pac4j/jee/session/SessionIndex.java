@@ -0,0 +1,394 @@
+package org.pac4j.jee.session;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionAttributeListener;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+import jakarta.servlet.http.HttpSessionEvent;
+import jakarta.servlet.http.HttpSessionIdListener;
+import jakarta.servlet.http.HttpSessionListener;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.Pac4jConstants;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * <p>A concurrent index of the web sessions by user profile identifier and by identity provider session key, to find
+ * the sessions to destroy during a back-channel or bulk logout without scanning all the sessions.</p>
+ *
+ * <p>The index is maintained by the session listeners: the profile identifiers are read when the profiles are saved in the
+ * session (the <code>pac4jUserProfiles</code> attribute, as is or encoded by the {@link CompactSessionStore}), the identity
+ * provider session keys are recorded by the {@link IndexedSessionLogoutHandler} and the sessions are removed from the index
+ * when they are destroyed.</p>
+ *
+ * <p>It must be declared as a listener of the web application (in the <code>web.xml</code> file, in which case it is published
+ * in the servlet context) or registered at startup with {@link #register(ServletContext)}. The profile identifiers are
+ * sorted, so that all the sessions of a tenant can be revoked by prefix.</p>
+ *
+ * <p>The sessions are only weakly referenced: the index does not retain the sessions dropped by the container without being
+ * destroyed (a passivated session, for example), their entries are removed once they are garbage collected.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public class SessionIndex implements ServletContextListener, HttpSessionListener, HttpSessionIdListener, HttpSessionAttributeListener {
+
+    /* The servlet context attribute holding the session index */
+    public static final String SESSION_INDEX_ATTRIBUTE = SessionIndex.class.getName();
+
+    @Getter
+    private final String profilesAttribute;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final NavigableMap<String, Set<String>> profileSessions = new ConcurrentSkipListMap<>();
+
+    private final Map<String, Set<String>> idpSessions = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<HttpSession> collectedSessions = new ReferenceQueue<>();
+
+    public SessionIndex() {
+        this(Pac4jConstants.USER_PROFILES);
+    }
+
+    /**
+     * Build a session index.
+     *
+     * @param profilesAttribute the name of the session attribute holding the profiles (depends on the prefix of the session store)
+     */
+    public SessionIndex(final String profilesAttribute) {
+        CommonHelper.assertNotBlank("profilesAttribute", profilesAttribute);
+        this.profilesAttribute = profilesAttribute;
+    }
+
+    /**
+     * Get the session index of a servlet context.
+     *
+     * @param servletContext the servlet context
+     * @return the session index or <code>null</code> if none is registered
+     */
+    public static SessionIndex fromServletContext(final ServletContext servletContext) {
+        return servletContext.getAttribute(SESSION_INDEX_ATTRIBUTE) instanceof SessionIndex index ? index : null;
+    }
+
+    /**
+     * Register a session index as listener of a servlet context being initialized, unless one is already registered.
+     *
+     * @param servletContext the servlet context
+     * @return the session index
+     */
+    public static SessionIndex register(final ServletContext servletContext) {
+        var index = fromServletContext(servletContext);
+        if (index == null) {
+            index = new SessionIndex();
+            servletContext.addListener(index);
+            servletContext.setAttribute(SESSION_INDEX_ATTRIBUTE, index);
+        }
+        return index;
+    }
+
+    @Override
+    public void contextInitialized(final ServletContextEvent event) {
+        event.getServletContext().setAttribute(SESSION_INDEX_ATTRIBUTE, this);
+    }
+
+    @Override
+    public void contextDestroyed(final ServletContextEvent event) {
+        event.getServletContext().removeAttribute(SESSION_INDEX_ATTRIBUTE);
+    }
+
+    @Override
+    public void attributeAdded(final HttpSessionBindingEvent event) {
+        if (profilesAttribute.equals(event.getName())) {
+            indexProfiles(event.getSession(), event.getSession().getAttribute(profilesAttribute));
+        }
+    }
+
+    @Override
+    public void attributeReplaced(final HttpSessionBindingEvent event) {
+        attributeAdded(event);
+    }
+
+    @Override
+    public void attributeRemoved(final HttpSessionBindingEvent event) {
+        if (profilesAttribute.equals(event.getName())) {
+            indexProfiles(event.getSession(), null);
+        }
+    }
+
+    @Override
+    public void sessionDestroyed(final HttpSessionEvent event) {
+        remove(event.getSession().getId());
+    }
+
+    @Override
+    public void sessionIdChanged(final HttpSessionEvent event, final String oldSessionId) {
+        val entry = remove(oldSessionId);
+        if (entry != null) {
+            final Set<String> profileIds;
+            final Set<String> idpSessionKeys;
+            synchronized (entry) {
+                profileIds = Set.copyOf(entry.profileIds);
+                idpSessionKeys = Set.copyOf(entry.idpSessionKeys);
+            }
+            val session = event.getSession();
+            indexProfiles(session, profileIds);
+            for (val key : idpSessionKeys) {
+                recordIdpSession(key, session);
+            }
+        }
+    }
+
+    /**
+     * Record the identity provider session key of a web session.
+     *
+     * @param key the identity provider session key
+     * @param session the web session
+     */
+    public void recordIdpSession(final String key, final HttpSession session) {
+        expungeCollectedSessions();
+        val sessionId = session.getId();
+        entries.compute(sessionId, (id, existing) -> {
+            val entry = existing != null ? existing : new Entry(sessionId, session, collectedSessions);
+            synchronized (entry) {
+                if (entry.idpSessionKeys.add(key)) {
+                    idpSessions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+                }
+            }
+            return entry;
+        });
+    }
+
+    private void indexProfiles(final HttpSession session, final Object profiles) {
+        final Set<String> profileIds = new HashSet<>();
+        if (profiles instanceof Map<?, ?> map) {
+            for (val profile : map.values()) {
+                if (profile instanceof UserProfile userProfile && userProfile.getId() != null) {
+                    profileIds.add(userProfile.getId());
+                }
+            }
+        } else if (profiles instanceof UserProfile userProfile && userProfile.getId() != null) {
+            profileIds.add(userProfile.getId());
+        } else if (profiles instanceof CompactSessionStore.Encoded encoded) {
+            profileIds.addAll(encoded.getProfileIds());
+        } else if (profiles instanceof Collection<?> ids) {
+            // the identifiers or the profiles themselves: anything else is ignored
+            for (val id : ids) {
+                if (id instanceof String profileId) {
+                    profileIds.add(profileId);
+                } else if (id instanceof UserProfile userProfile && userProfile.getId() != null) {
+                    profileIds.add(userProfile.getId());
+                }
+            }
+        }
+
+        expungeCollectedSessions();
+        val sessionId = session.getId();
+        entries.compute(sessionId, (id, existing) -> {
+            if (existing == null && profileIds.isEmpty()) {
+                return null;
+            }
+            val entry = existing != null ? existing : new Entry(sessionId, session, collectedSessions);
+            synchronized (entry) {
+                for (val profileId : entry.profileIds) {
+                    if (!profileIds.contains(profileId)) {
+                        unlink(profileSessions, profileId, sessionId);
+                    }
+                }
+                for (val profileId : profileIds) {
+                    profileSessions.computeIfAbsent(profileId, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+                }
+                entry.profileIds.clear();
+                entry.profileIds.addAll(profileIds);
+                return entry.profileIds.isEmpty() && entry.idpSessionKeys.isEmpty() ? null : entry;
+            }
+        });
+    }
+
+    private Entry remove(final String sessionId) {
+        val entry = entries.remove(sessionId);
+        unindex(sessionId, entry);
+        return entry;
+    }
+
+    private void unindex(final String sessionId, final Entry entry) {
+        if (entry != null) {
+            synchronized (entry) {
+                for (val profileId : entry.profileIds) {
+                    unlink(profileSessions, profileId, sessionId);
+                }
+                for (val key : entry.idpSessionKeys) {
+                    unlink(idpSessions, key, sessionId);
+                }
+            }
+        }
+    }
+
+    private void expungeCollectedSessions() {
+        Object collected;
+        while ((collected = collectedSessions.poll()) != null) {
+            val entry = (Entry) collected;
+            // the session identifier may have been indexed again for another session
+            if (entries.remove(entry.sessionId, entry)) {
+                LOGGER.debug("Session garbage collected without being destroyed: {}", entry.sessionId);
+                unindex(entry.sessionId, entry);
+            }
+        }
+    }
+
+    private static void unlink(final Map<String, Set<String>> index, final String key, final String sessionId) {
+        index.computeIfPresent(key, (k, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    /**
+     * Get the identifiers of the sessions of a user.
+     *
+     * @param profileId the profile identifier
+     * @return the session identifiers
+     */
+    public Set<String> getSessionIds(final String profileId) {
+        return copy(profileSessions.get(profileId));
+    }
+
+    /**
+     * Get the identifiers of the sessions of an identity provider session.
+     *
+     * @param key the identity provider session key
+     * @return the session identifiers
+     */
+    public Set<String> getIdpSessionIds(final String key) {
+        return copy(idpSessions.get(key));
+    }
+
+    /**
+     * Get the identifiers of the profiles of a session.
+     *
+     * @param sessionId the session identifier
+     * @return the profile identifiers
+     */
+    public Set<String> getProfileIds(final String sessionId) {
+        val entry = entries.get(sessionId);
+        if (entry == null) {
+            return Collections.emptySet();
+        }
+        synchronized (entry) {
+            return Set.copyOf(entry.profileIds);
+        }
+    }
+
+    /**
+     * Get the number of indexed sessions.
+     *
+     * @return the number of sessions
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Destroy all the sessions of a user.
+     *
+     * @param profileId the profile identifier
+     * @return the number of destroyed sessions
+     */
+    public int revokeUser(final String profileId) {
+        return revokeSessions(getSessionIds(profileId), true);
+    }
+
+    /**
+     * Destroy all the sessions of the users whose identifier starts with a prefix (a tenant for example).
+     *
+     * @param profileIdPrefix the prefix of the profile identifiers
+     * @return the number of destroyed sessions
+     */
+    public int revokeTenant(final String profileIdPrefix) {
+        CommonHelper.assertNotBlank("profileIdPrefix", profileIdPrefix);
+        final Set<String> sessionIds = new HashSet<>();
+        for (val tenantSessionIds : profileSessions.subMap(profileIdPrefix, true, profileIdPrefix + Character.MAX_VALUE, true).values()) {
+            sessionIds.addAll(tenantSessionIds);
+        }
+        return revokeSessions(sessionIds, true);
+    }
+
+    /**
+     * Destroy all the sessions of an identity provider session.
+     *
+     * @param key the identity provider session key
+     * @return the number of destroyed sessions
+     */
+    public int revokeIdpSession(final String key) {
+        return revokeSessions(getIdpSessionIds(key), true);
+    }
+
+    /**
+     * Revoke sessions: destroy them or only remove their profiles.
+     *
+     * @param sessionIds the session identifiers
+     * @param destroySession whether the sessions must be destroyed
+     * @return the number of revoked sessions
+     */
+    public int revokeSessions(final Collection<String> sessionIds, final boolean destroySession) {
+        var revoked = 0;
+        for (val sessionId : sessionIds) {
+            val entry = entries.get(sessionId);
+            val session = entry != null ? entry.get() : null;
+            if (session == null) {
+                continue;
+            }
+            try {
+                if (destroySession) {
+                    session.invalidate();
+                } else {
+                    session.removeAttribute(profilesAttribute);
+                }
+                revoked++;
+            } catch (final IllegalStateException e) {
+                LOGGER.debug("Session already invalidated: {}", sessionId);
+            }
+            if (destroySession) {
+                remove(sessionId);
+            }
+        }
+        LOGGER.debug("{} session(s) revoked", revoked);
+        return revoked;
+    }
+
+    private static Set<String> copy(final Set<String> sessionIds) {
+        return sessionIds == null ? Collections.emptySet() : Set.copyOf(sessionIds);
+    }
+
+    /**
+     * A weakly referenced session with its profile identifiers and identity provider session keys.
+     */
+    private static final class Entry extends WeakReference<HttpSession> {
+
+        private final String sessionId;
+
+        private final Set<String> profileIds = new HashSet<>();
+
+        private final Set<String> idpSessionKeys = new HashSet<>();
+
+        private Entry(final String sessionId, final HttpSession session, final ReferenceQueue<HttpSession> queue) {
+            super(session, queue);
+            this.sessionId = sessionId;
+        }
+    }
+}
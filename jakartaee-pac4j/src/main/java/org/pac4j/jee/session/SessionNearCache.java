@@ -0,0 +1,111 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import org.pac4j.jee.util.BoundedCache;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * <p>A bounded local cache of the session data read from a {@link SessionRepository}, to avoid a round-trip to a remote
+ * repository for the active sessions. When the cache is full, the oldest entries are evicted first (see {@link BoundedCache}).</p>
+ *
+ * <p>The entries are invalidated when this node changes or destroys a session and when the repository notifies a change.
+ * Otherwise, they live for the configured time to live at most, which is the staleness window of the data: a session changed,
+ * destroyed (by a logout) or expired on another node may still be served by this node until its entry expires, unless the
+ * repository notifies the invalidations of all the nodes. The time to live must be chosen accordingly (a few seconds).
+ * An entry never outlives the session it was saved for.</p>
+ *
+ * @since 8.0.4
+ */
+public class SessionNearCache {
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long timeToLive;
+
+    private final BoundedCache<String, byte[]> entries;
+
+    /**
+     * Build a near-cache.
+     *
+     * @param maxSize the maximum number of sessions
+     * @param timeToLive the time to live of the entries, i.e. the staleness window of the data (in milliseconds)
+     */
+    public SessionNearCache(final int maxSize, final long timeToLive) {
+        assertTrue(timeToLive > 0, "timeToLive must be greater than 0");
+        this.entries = new BoundedCache<>(maxSize);
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Get the cached data of a session.
+     *
+     * @param sessionId the session identifier
+     * @return the data or <code>null</code> if there is no valid entry
+     */
+    public byte[] get(final String sessionId) {
+        return entries.get(sessionId);
+    }
+
+    /**
+     * Cache the data of a session.
+     *
+     * @param sessionId the session identifier
+     * @param data the data
+     */
+    public void put(final String sessionId, final byte[] data) {
+        entries.put(sessionId, data, TimeUnit.MILLISECONDS.toNanos(timeToLive));
+    }
+
+    /**
+     * Cache the data of a session which expires in the repository after the given time.
+     *
+     * @param sessionId the session identifier
+     * @param data the data
+     * @param sessionTimeToLive the time to live of the session in the repository (in milliseconds)
+     */
+    public void put(final String sessionId, final byte[] data, final long sessionTimeToLive) {
+        if (sessionTimeToLive <= 0) {
+            entries.remove(sessionId);
+            return;
+        }
+        entries.put(sessionId, data, TimeUnit.MILLISECONDS.toNanos(Math.min(timeToLive, sessionTimeToLive)));
+    }
+
+    /**
+     * Invalidate the cached data of a session.
+     *
+     * @param sessionId the session identifier
+     */
+    public void invalidate(final String sessionId) {
+        entries.remove(sessionId);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int getSize() {
+        return entries.getSize();
+    }
+
+    public long getHits() {
+        return entries.getHits();
+    }
+
+    public long getMisses() {
+        return entries.getMisses();
+    }
+
+    public long getEvictions() {
+        return entries.getEvictions();
+    }
+}
@@ -0,0 +1,319 @@
+package org.pac4j.jee.session;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.context.Cookie;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.JavaSerializer;
+import org.pac4j.core.util.serializer.Serializer;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>A {@link SessionStore} which keeps the pac4j data in a {@link SessionRepository} (shared by the nodes of a cluster)
+ * instead of the web session: only a random session identifier is sent to the browser, in the <code>pac4jSessionId</code> cookie.</p>
+ *
+ * <p>The data are read from the repository once per request, through an optional {@link SessionNearCache}, and saved
+ * on each change. They expire <code>maxAge</code> seconds after their last change. Unless the repository notifies
+ * the changes of the other nodes, a session changed or destroyed on another node may be served from the near-cache
+ * for its time to live at most (10 seconds by default): use a near-cache with a shorter time to live, or none,
+ * to reduce this staleness window.</p>
+ *
+ * <p>The unknown session identifiers sent by the browsers are ignored and the sessions are tracked by their identifiers,
+ * so that they can be destroyed by the central logout.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Getter
+@Setter
+public class SharedSessionStore implements SessionStore {
+
+    /* Default size and time to live (in milliseconds) of the near-cache */
+    private static final int DEFAULT_NEAR_CACHE_SIZE = 10_000;
+
+    private static final long DEFAULT_NEAR_CACHE_TTL = 10_000L;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private String cookieName = "pac4jSessionId";
+
+    private String cookiePath = "/";
+
+    private String cookieDomain;
+
+    /* Whether the cookie is secure; by default, only for secure requests */
+    private Boolean secure;
+
+    private String sameSitePolicy = "Lax";
+
+    /* In seconds */
+    private int maxAge = 1800;
+
+    private Serializer serializer = new JavaSerializer();
+
+    @Setter(AccessLevel.NONE)
+    private final SessionRepository repository;
+
+    @Setter(AccessLevel.NONE)
+    private final SessionNearCache nearCache;
+
+    /**
+     * Build a shared session store with a default near-cache.
+     *
+     * @param repository the repository
+     */
+    public SharedSessionStore(final SessionRepository repository) {
+        this(repository, new SessionNearCache(DEFAULT_NEAR_CACHE_SIZE, DEFAULT_NEAR_CACHE_TTL));
+    }
+
+    /**
+     * Build a shared session store.
+     *
+     * @param repository the repository
+     * @param nearCache the near-cache (optional)
+     */
+    public SharedSessionStore(final SessionRepository repository, final SessionNearCache nearCache) {
+        CommonHelper.assertNotNull("repository", repository);
+        this.repository = repository;
+        this.nearCache = nearCache;
+        if (nearCache != null) {
+            repository.addInvalidationListener(nearCache::invalidate);
+        }
+    }
+
+    @Override
+    public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+        val state = getState(context);
+        if (state.id == null && createSession) {
+            create(context, state);
+        }
+        return Optional.ofNullable(state.id);
+    }
+
+    @Override
+    public Optional<Object> get(final WebContext context, final String key) {
+        return Optional.ofNullable(getState(context).data.get(key));
+    }
+
+    @Override
+    public void set(final WebContext context, final String key, final Object value) {
+        val state = getState(context);
+        if (state.id == null) {
+            if (value == null) {
+                return;
+            }
+            create(context, state);
+        }
+        update(state, key, value);
+    }
+
+    @Override
+    public boolean destroySession(final WebContext context) {
+        val state = getState(context);
+        if (state.id != null) {
+            remove(state);
+            context.addResponseCookie(buildCookie("", 0, context));
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<Object> getTrackableSession(final WebContext context) {
+        return Optional.ofNullable(getState(context).id);
+    }
+
+    @Override
+    public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+        if (trackableSession instanceof String sessionId) {
+            return Optional.of(new TrackedSessionStore(load(sessionId)));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean renewSession(final WebContext context) {
+        val state = getState(context);
+        if (state.id != null) {
+            val oldId = state.id;
+            state.id = newSessionId();
+            save(state);
+            repository.remove(oldId);
+            if (nearCache != null) {
+                nearCache.invalidate(oldId);
+            }
+            context.addResponseCookie(buildCookie(state.id, -1, context));
+        }
+        return true;
+    }
+
+    private void create(final WebContext context, final State state) {
+        state.id = newSessionId();
+        save(state);
+        context.addResponseCookie(buildCookie(state.id, -1, context));
+    }
+
+    private void update(final State state, final String key, final Object value) {
+        if (value == null) {
+            if (state.data.remove(key) == null) {
+                return;
+            }
+        } else {
+            state.data.put(key, value);
+        }
+        save(state);
+    }
+
+    private void remove(final State state) {
+        repository.remove(state.id);
+        if (nearCache != null) {
+            nearCache.invalidate(state.id);
+        }
+        state.id = null;
+        state.data.clear();
+    }
+
+    private static String newSessionId() {
+        val bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // the session is loaded only once per request
+    private State getState(final WebContext context) {
+        val attributeName = SharedSessionStore.class.getName() + '.' + cookieName;
+        val existingState = context.getRequestAttribute(attributeName);
+        if (existingState.isPresent() && existingState.get() instanceof State state) {
+            return state;
+        }
+
+        String sessionId = null;
+        for (val cookie : context.getRequestCookies()) {
+            if (cookieName.equals(cookie.getName()) && CommonHelper.isNotBlank(cookie.getValue())) {
+                sessionId = cookie.getValue();
+                break;
+            }
+        }
+        val state = sessionId != null ? load(sessionId) : new State(null, new LinkedHashMap<>());
+        context.setRequestAttribute(attributeName, state);
+        return state;
+    }
+
+    @SuppressWarnings("unchecked")
+    private State load(final String sessionId) {
+        var data = nearCache != null ? nearCache.get(sessionId) : null;
+        if (data == null) {
+            data = repository.get(sessionId).orElse(null);
+            if (data == null) {
+                LOGGER.debug("Unknown or expired session: {}", sessionId);
+                return new State(null, new LinkedHashMap<>());
+            }
+            if (nearCache != null) {
+                nearCache.put(sessionId, data);
+            }
+        }
+        val values = serializer.deserializeFromBytes(data);
+        if (values instanceof Map<?, ?> map) {
+            return new State(sessionId, new LinkedHashMap<>((Map<String, Object>) map));
+        }
+        LOGGER.warn("Cannot read the data of session: {}", sessionId);
+        return new State(null, new LinkedHashMap<>());
+    }
+
+    private void save(final State state) {
+        val data = serializer.serializeToBytes(new LinkedHashMap<>(state.data));
+        val timeToLive = TimeUnit.SECONDS.toMillis(maxAge);
+        repository.put(state.id, data, timeToLive);
+        if (nearCache != null) {
+            nearCache.put(state.id, data, timeToLive);
+        }
+    }
+
+    private Cookie buildCookie(final String value, final int cookieMaxAge, final WebContext context) {
+        val cookie = new Cookie(cookieName, value);
+        cookie.setPath(cookiePath);
+        cookie.setDomain(cookieDomain);
+        cookie.setMaxAge(cookieMaxAge);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure != null ? secure : context.isSecure());
+        cookie.setSameSitePolicy(sameSitePolicy);
+        return cookie;
+    }
+
+    /**
+     * The identifier and the data of the session of the current request.
+     */
+    private static final class State {
+
+        private String id;
+
+        private final Map<String, Object> data;
+
+        private State(final String id, final Map<String, Object> data) {
+            this.id = id;
+            this.data = data;
+        }
+    }
+
+    /**
+     * A session found by its identifier, outside of the requests of its browser (for the central logout).
+     */
+    private final class TrackedSessionStore implements SessionStore {
+
+        private final State state;
+
+        private TrackedSessionStore(final State state) {
+            this.state = state;
+        }
+
+        @Override
+        public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+            return Optional.ofNullable(state.id);
+        }
+
+        @Override
+        public Optional<Object> get(final WebContext context, final String key) {
+            return Optional.ofNullable(state.data.get(key));
+        }
+
+        @Override
+        public void set(final WebContext context, final String key, final Object value) {
+            if (state.id != null) {
+                update(state, key, value);
+            }
+        }
+
+        @Override
+        public boolean destroySession(final WebContext context) {
+            if (state.id != null) {
+                remove(state);
+            }
+            return true;
+        }
+
+        @Override
+        public Optional<Object> getTrackableSession(final WebContext context) {
+            return Optional.ofNullable(state.id);
+        }
+
+        @Override
+        public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+            return SharedSessionStore.this.buildFromTrackableSession(context, trackableSession);
+        }
+
+        @Override
+        public boolean renewSession(final WebContext context) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.pac4j.jee.session;
+
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * Factory of the {@link SharedSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new SharedSessionStoreFactory(new SharedSessionStore(new InMemorySessionRepository())))</code>.
+ *
+ * @since 8.0.4
+ */
+public class SharedSessionStoreFactory implements SessionStoreFactory {
+
+    private final SharedSessionStore sessionStore;
+
+    public SharedSessionStoreFactory(final SharedSessionStore sessionStore) {
+        CommonHelper.assertNotNull("sessionStore", sessionStore);
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        return sessionStore;
+    }
+}
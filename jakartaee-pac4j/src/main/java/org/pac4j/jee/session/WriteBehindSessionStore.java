@@ -0,0 +1,275 @@
+package org.pac4j.jee.session;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.Serializer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * <p>A request-scoped {@link SessionStore} which reads each attribute of the web session once, buffers the changes
+ * and only writes back the attributes which have really changed, once the pac4j logic is done: before the access is granted
+ * to the rest of the filter chain, after the callback logic and, otherwise, when the request leaves the pac4j filters. In a cluster,
+ * each write is a replication event, even if the same value is set again.</p>
+ *
+ * <p>A value is considered unchanged if it is equal to the value read from the web session for the immutable values
+ * (strings, numbers, booleans...) or, for the other values (profiles, maps...), if it is another instance with the same
+ * fingerprint as the value read. The fingerprints are computed by a serializer, only when the changed attributes are written:
+ * the values which are only read are never serialized. The same instance set again is always written, as it may have been
+ * modified in place.</p>
+ *
+ * <p>The web session is still created as soon as a value is set, as the session cookie must be sent before the response
+ * is committed. The pending changes are written before the session is renewed and discarded when it is destroyed.</p>
+ *
+ * <p>The scope is opened and closed by the pac4j filters (see {@link #open(HttpServletRequest, Config)}) when the configuration
+ * uses this store or the {@link CookieSessionStore}, which also buffers its changes in this scope. Outside of the filters,
+ * the {@link WriteBehindSessionStoreFactory} returns the session stores of its delegate factory. This store is not thread-safe,
+ * like the request it belongs to.</p>
+ *
+ * @since 8.0.4
+ */
+public class WriteBehindSessionStore implements SessionStore {
+
+    private static final String SCOPE_ATTRIBUTE = WriteBehindSessionStore.class.getName() + ".scope";
+
+    @Getter
+    private final SessionStore delegate;
+
+    @Getter
+    private final Serializer fingerprintSerializer;
+
+    /* The current values of the read or set attributes (null if there is no value) */
+    private final Map<String, Object> values = new HashMap<>();
+
+    /* The values read from the web session or last written in it */
+    private final Map<String, Object> sessionValues = new HashMap<>();
+
+    private final Set<String> dirtyKeys = new LinkedHashSet<>();
+
+    private WebContext context;
+
+    private boolean sessionCreated;
+
+    @Getter
+    private int writes;
+
+    @Getter
+    private int skippedWrites;
+
+    public WriteBehindSessionStore(final SessionStore delegate, final Serializer fingerprintSerializer) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("fingerprintSerializer", fingerprintSerializer);
+        this.delegate = delegate;
+        this.fingerprintSerializer = fingerprintSerializer;
+    }
+
+    /**
+     * Open the write-behind scope for the request if the session stores of the configuration buffer their changes in it
+     * (see {@link WriteBehindSessionStoreFactory} and {@link CookieSessionStoreFactory}), unless it is already opened
+     * (by an enclosing filter). With the other session stores, like the default <code>JEESessionStore</code>, there is no scope.
+     *
+     * @param request the request
+     * @param config the configuration
+     * @return whether the scope has been opened and must be closed by the caller
+     */
+    public static boolean open(final HttpServletRequest request, final Config config) {
+        val sessionStoreFactory = config != null ? config.getSessionStoreFactory() : null;
+        return (sessionStoreFactory instanceof WriteBehindSessionStoreFactory || sessionStoreFactory instanceof CookieSessionStoreFactory)
+            && open(request);
+    }
+
+    /**
+     * Open the write-behind scope for the request, unless it is already opened (by an enclosing filter).
+     *
+     * @param request the request
+     * @return whether the scope has been opened and must be closed by the caller
+     */
+    public static boolean open(final HttpServletRequest request) {
+        if (request.getAttribute(SCOPE_ATTRIBUTE) != null) {
+            return false;
+        }
+        request.setAttribute(SCOPE_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    /**
+     * Close the write-behind scope of the request: the changed attributes are written in the web session
+     * and the buffered cookies of the {@link CookieSessionStore} are written in the response.
+     *
+     * @param request the request
+     */
+    public static void close(final HttpServletRequest request) {
+        val scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        if (scope instanceof WriteBehindSessionStore store) {
+            store.flush();
+        }
+        CookieSessionStore.flush(request);
+    }
+
+    /**
+     * Whether a write-behind scope is opened for the request.
+     *
+     * @param context the web context
+     * @return whether the scope is opened
+     */
+    static boolean isOpened(final WebContext context) {
+        return context.getRequestAttribute(SCOPE_ATTRIBUTE).isPresent();
+    }
+
+    /**
+     * Get the session store of the opened write-behind scope of the request, building it if necessary.
+     *
+     * @param request the request
+     * @param builder the builder of the session store
+     * @return the session store or <code>null</code> if no scope is opened
+     */
+    static WriteBehindSessionStore current(final HttpServletRequest request, final Supplier<WriteBehindSessionStore> builder) {
+        val scope = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return null;
+        } else if (scope instanceof WriteBehindSessionStore store) {
+            return store;
+        }
+        val store = builder.get();
+        request.setAttribute(SCOPE_ATTRIBUTE, store);
+        return store;
+    }
+
+    @Override
+    public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+        return delegate.getSessionId(context, createSession);
+    }
+
+    @Override
+    public Optional<Object> get(final WebContext context, final String key) {
+        this.context = context;
+        if (!values.containsKey(key)) {
+            load(context, key);
+        }
+        return Optional.ofNullable(values.get(key));
+    }
+
+    @Override
+    public void set(final WebContext context, final String key, final Object value) {
+        this.context = context;
+        if (!values.containsKey(key)) {
+            load(context, key);
+        }
+        values.put(key, value);
+        dirtyKeys.add(key);
+        if (value != null && !sessionCreated) {
+            delegate.getSessionId(context, true);
+            sessionCreated = true;
+        }
+    }
+
+    private void load(final WebContext context, final String key) {
+        val value = delegate.get(context, key).orElse(null);
+        values.put(key, value);
+        sessionValues.put(key, value);
+    }
+
+    @Override
+    public boolean destroySession(final WebContext context) {
+        values.clear();
+        sessionValues.clear();
+        dirtyKeys.clear();
+        sessionCreated = false;
+        return delegate.destroySession(context);
+    }
+
+    @Override
+    public Optional<Object> getTrackableSession(final WebContext context) {
+        return delegate.getTrackableSession(context);
+    }
+
+    @Override
+    public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+        // the stores built from a trackable session are used out of the request: they write immediately
+        return delegate.buildFromTrackableSession(context, trackableSession);
+    }
+
+    @Override
+    public boolean renewSession(final WebContext context) {
+        this.context = context;
+        flush();
+        return delegate.renewSession(context);
+    }
+
+    /**
+     * Write the changed attributes in the web session.
+     */
+    public void flush() {
+        if (context == null || dirtyKeys.isEmpty()) {
+            return;
+        }
+        for (val key : dirtyKeys) {
+            val value = values.get(key);
+            if (isUnchanged(value, sessionValues.get(key))) {
+                skippedWrites++;
+            } else {
+                delegate.set(context, key, value);
+                sessionValues.put(key, value);
+                writes++;
+            }
+        }
+        dirtyKeys.clear();
+    }
+
+    private boolean isUnchanged(final Object value, final Object sessionValue) {
+        if (value == null || sessionValue == null) {
+            return value == sessionValue;
+        } else if (isImmutable(value)) {
+            return value.equals(sessionValue);
+        } else if (value == sessionValue) {
+            // the instance of the web session may have been modified in place
+            return false;
+        }
+        val fingerprint = fingerprint(value);
+        return fingerprint != null && fingerprint.equals(fingerprint(sessionValue));
+    }
+
+    private Fingerprint fingerprint(final Object value) {
+        try {
+            return new Fingerprint(fingerprintSerializer.serializeToBytes(value));
+        } catch (final RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isImmutable(final Object value) {
+        return value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long
+            || value instanceof Character || value instanceof Double || value instanceof Float || value instanceof Short
+            || value instanceof Byte || value instanceof Enum;
+    }
+
+    private record Fingerprint(byte[] data) {
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Fingerprint other && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(data);
+        }
+
+        @Override
+        public String toString() {
+            return "Fingerprint[" + data.length + " bytes]";
+        }
+    }
+}
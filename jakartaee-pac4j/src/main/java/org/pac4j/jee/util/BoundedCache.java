@@ -0,0 +1,140 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.val;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * <p>A bounded concurrent cache whose entries expire after their own time to live. When the cache is full, the oldest entries
+ * are evicted first. It is used by the {@link ProfileCache} and the near-cache of the shared sessions.</p>
+ *
+ * <p>The insertion order is kept in a lock-free queue which may hold references to replaced or removed entries: they are
+ * skipped by the eviction and dropped once the queue is twice as large as the cache.</p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ * @since 8.0.4
+ */
+public class BoundedCache<K, V> {
+
+    @Getter
+    private final int maxSize;
+
+    private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queuedEntries = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Build a bounded cache.
+     *
+     * @param maxSize the maximum number of entries
+     */
+    public BoundedCache(final int maxSize) {
+        assertTrue(maxSize > 0, "maxSize must be greater than 0");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the value cached for this key.
+     *
+     * @param key the key
+     * @return the value or <code>null</code> if there is no valid entry
+     */
+    public V get(final K key) {
+        val entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value();
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Cache a value for this key.
+     *
+     * @param key the key
+     * @param value the value
+     * @param timeToLive the time to live of the entry (in nanoseconds)
+     */
+    public void put(final K key, final V value, final long timeToLive) {
+        val entry = new Entry<>(key, value, System.nanoTime() + timeToLive);
+        entries.put(key, entry);
+        insertionOrder.offer(entry);
+        queuedEntries.incrementAndGet();
+        evictIfNecessary();
+    }
+
+    /**
+     * Remove the entry for this key.
+     *
+     * @param key the key
+     */
+    public void remove(final K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        queuedEntries.set(0);
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void evictIfNecessary() {
+        while (entries.size() > maxSize) {
+            val oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedEntries.decrementAndGet();
+            if (entries.remove(oldest.key(), oldest)) {
+                evictions.increment();
+            }
+        }
+        // drop the stale references to replaced or removed entries
+        if (queuedEntries.get() > 2 * maxSize) {
+            insertionOrder.removeIf(entry -> entries.get(entry.key()) != entry);
+            queuedEntries.set(insertionOrder.size());
+        }
+    }
+
+    private record Entry<K, V>(K key, V value, long expiresAt) {}
+}
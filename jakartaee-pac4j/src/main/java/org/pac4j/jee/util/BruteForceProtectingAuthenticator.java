@@ -0,0 +1,87 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.http.HttpAction;
+import org.pac4j.core.exception.http.StatusAction;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * An authenticator which applies a {@link BruteForceProtection} before delegating to the original authenticator: the throttled
+ * attempts get a 429 error and the recently failed credentials are rejected without calling the original authenticator.
+ *
+ * A failure is an empty validation, a {@link CredentialsException} or an HTTP action other than a server error: the clients
+ * of forms report the invalid credentials by redirecting back to the login page.
+ *
+ * @since 8.0.4
+ */
+@Getter
+public class BruteForceProtectingAuthenticator implements Authenticator {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private static final int SERVER_ERROR = 500;
+
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final Authenticator delegate;
+
+    private final BruteForceProtection protection;
+
+    private final String clientName;
+
+    public BruteForceProtectingAuthenticator(final Authenticator delegate, final BruteForceProtection protection,
+                                             final String clientName) {
+        assertNotNull("delegate", delegate);
+        assertNotNull("protection", protection);
+        this.delegate = delegate;
+        this.protection = protection;
+        this.clientName = clientName;
+    }
+
+    @Override
+    public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+        val address = protection.getAddress(ctx.webContext());
+        val username = credentials instanceof UsernamePasswordCredentials usernamePasswordCredentials
+            ? usernamePasswordCredentials.getUsername() : null;
+
+        val delay = protection.getThrottlingDelay(address, username);
+        if (delay > 0) {
+            ctx.webContext().setResponseHeader(RETRY_AFTER_HEADER, String.valueOf(Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(delay + 999))));
+            throw new StatusAction(TOO_MANY_REQUESTS);
+        }
+
+        val key = ProfileCache.key(clientName, credentials);
+        if (protection.isFailedCredentials(key)) {
+            protection.recordFailure(address, username, null);
+            return Optional.empty();
+        }
+
+        final Optional<Credentials> validatedCredentials;
+        try {
+            validatedCredentials = delegate.validate(ctx, credentials);
+        } catch (final CredentialsException e) {
+            protection.recordFailure(address, username, key);
+            throw e;
+        } catch (final HttpAction e) {
+            // the server errors (bulkhead rejection...) are not the fault of the credentials: nothing is cached
+            if (e.getCode() < SERVER_ERROR && e.getCode() != TOO_MANY_REQUESTS) {
+                protection.recordFailure(address, username, null);
+            }
+            throw e;
+        }
+        if (validatedCredentials.isEmpty()) {
+            protection.recordFailure(address, username, key);
+        }
+        return validatedCredentials;
+    }
+}
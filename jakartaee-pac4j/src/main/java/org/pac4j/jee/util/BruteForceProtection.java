@@ -0,0 +1,229 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.FilterConfig;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Protects the authenticators against the brute force and credential stuffing attacks, before the expensive checks
+ * (password hashing, LDAP bind...) are performed:</p>
+ * <ul>
+ *     <li>the failed attempts are counted per source address and per username from this source address in {@link TokenBuckets}:
+ *     when <code>maxFailedAttempts</code> attempts have failed within the <code>failedAttemptsPeriod</code>, the following attempts
+ *     are throttled (429 error with a <code>Retry-After</code> header) until a token is given back</li>
+ *     <li>the hashes of the recently failed credentials are kept for <code>negativeCacheTtl</code> milliseconds: the same
+ *     credentials are then rejected as invalid without calling the authenticator.</li>
+ * </ul>
+ *
+ * <p>Only the failed attempts are counted. As the usernames are throttled per source address, an attacker can't lock a user out:
+ * the user can still log in from another address. The other side of it is that an attack on a single username from many addresses
+ * is only slowed down by the limit of each address (and by the negative cache for the replayed credentials).</p>
+ *
+ * <p>The source address is the remote address of the request by default. Behind a reverse proxy, all the requests would share
+ * the address of the proxy: the <code>addressHeader</code> must then name the header in which the proxy appends the client
+ * address (<code>X-Forwarded-For</code> for example). The last address of the header is used: the previous ones are sent
+ * by the client and can't be trusted. The header must not be defined when the requests can reach the application directly.</p>
+ *
+ * @since 8.0.4
+ */
+public class BruteForceProtection {
+
+    /* The default number of failed attempts allowed per source address, or per username from a source address, within the period */
+    public static final int DEFAULT_MAX_FAILED_ATTEMPTS = 10;
+
+    /* The default period of the failed attempts (in milliseconds) */
+    public static final long DEFAULT_FAILED_ATTEMPTS_PERIOD = 60_000L;
+
+    /* The default time to live of the failed credentials (in milliseconds) */
+    public static final long DEFAULT_NEGATIVE_CACHE_TTL = 30_000L;
+
+    private static final int STRIPES = 16_384;
+
+    private static final int DEFAULT_NEGATIVE_CACHE_SIZE = 100_000;
+
+    @Getter
+    private final TokenBuckets addressBuckets;
+
+    @Getter
+    private final TokenBuckets usernameBuckets;
+
+    @Getter
+    private final long negativeCacheTtl;
+
+    @Getter
+    private final int negativeCacheSize;
+
+    /* The request header holding the client address appended by a trusted reverse proxy (if any) */
+    @Getter
+    @Setter
+    private String addressHeader;
+
+    private final Map<String, Long> failedCredentials = new ConcurrentHashMap<>();
+
+    private volatile long nextPurge;
+
+    private final LongAdder throttledAttempts = new LongAdder();
+
+    private final LongAdder rejectedCredentials = new LongAdder();
+
+    public BruteForceProtection() {
+        this(DEFAULT_MAX_FAILED_ATTEMPTS, DEFAULT_FAILED_ATTEMPTS_PERIOD, DEFAULT_NEGATIVE_CACHE_TTL);
+    }
+
+    public BruteForceProtection(final int maxFailedAttempts, final long failedAttemptsPeriod, final long negativeCacheTtl) {
+        this(new TokenBuckets(STRIPES, maxFailedAttempts, failedAttemptsPeriod),
+            new TokenBuckets(STRIPES, maxFailedAttempts, failedAttemptsPeriod), negativeCacheTtl, DEFAULT_NEGATIVE_CACHE_SIZE);
+    }
+
+    public BruteForceProtection(final TokenBuckets addressBuckets, final TokenBuckets usernameBuckets, final long negativeCacheTtl,
+                                final int negativeCacheSize) {
+        CommonHelper.assertNotNull("addressBuckets", addressBuckets);
+        CommonHelper.assertNotNull("usernameBuckets", usernameBuckets);
+        this.addressBuckets = addressBuckets;
+        this.usernameBuckets = usernameBuckets;
+        this.negativeCacheTtl = negativeCacheTtl;
+        this.negativeCacheSize = negativeCacheSize;
+    }
+
+    /**
+     * Build the brute force protection enabled by the init parameters of a filter: {@link JEEConstants#BRUTE_FORCE_PROTECTION},
+     * {@link JEEConstants#MAX_FAILED_ATTEMPTS}, {@link JEEConstants#FAILED_ATTEMPTS_PERIOD}, {@link JEEConstants#NEGATIVE_CACHE_TTL}
+     * and {@link JEEConstants#BRUTE_FORCE_ADDRESS_HEADER}.
+     *
+     * @param filterConfig the filter configuration
+     * @return the brute force protection or <code>null</code> if it is not enabled
+     */
+    public static BruteForceProtection fromFilterConfig(final FilterConfig filterConfig) {
+        if (!Boolean.parseBoolean(filterConfig.getInitParameter(JEEConstants.BRUTE_FORCE_PROTECTION))) {
+            return null;
+        }
+        val protection = new BruteForceProtection(
+            FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.MAX_FAILED_ATTEMPTS, DEFAULT_MAX_FAILED_ATTEMPTS),
+            FilterConfigHelper.getLongParam(filterConfig, JEEConstants.FAILED_ATTEMPTS_PERIOD, DEFAULT_FAILED_ATTEMPTS_PERIOD),
+            FilterConfigHelper.getLongParam(filterConfig, JEEConstants.NEGATIVE_CACHE_TTL, DEFAULT_NEGATIVE_CACHE_TTL));
+        protection.setAddressHeader(filterConfig.getInitParameter(JEEConstants.BRUTE_FORCE_ADDRESS_HEADER));
+        return protection;
+    }
+
+    /**
+     * Get the source address of a request: the last address of the <code>addressHeader</code> if defined and present,
+     * the remote address otherwise.
+     *
+     * @param context the web context
+     * @return the source address
+     */
+    public String getAddress(final WebContext context) {
+        if (addressHeader != null) {
+            val header = context.getRequestHeader(addressHeader);
+            if (header.isPresent()) {
+                val address = header.get().substring(header.get().lastIndexOf(',') + 1).trim();
+                if (!address.isEmpty()) {
+                    return address;
+                }
+            }
+        }
+        return context.getRemoteAddr();
+    }
+
+    /**
+     * Get the delay before an attempt is allowed again.
+     *
+     * @param address the source address
+     * @param username the username (may be <code>null</code>)
+     * @return the delay (in milliseconds) or <code>0</code> if the attempt is allowed
+     */
+    public long getThrottlingDelay(final String address, final String username) {
+        var delay = 0L;
+        if (addressBuckets.isEmpty(address)) {
+            delay = Math.max(1L, addressBuckets.getDelay(address));
+        }
+        val usernameKey = usernameKey(address, username);
+        if (usernameBuckets.isEmpty(usernameKey)) {
+            delay = Math.max(delay, Math.max(1L, usernameBuckets.getDelay(usernameKey)));
+        }
+        if (delay > 0) {
+            throttledAttempts.increment();
+        }
+        return delay;
+    }
+
+    /**
+     * Whether the credentials have recently failed.
+     *
+     * @param key the hash of the credentials (see {@link ProfileCache#key})
+     * @return whether the credentials have recently failed
+     */
+    public boolean isFailedCredentials(final String key) {
+        if (key == null || negativeCacheTtl <= 0) {
+            return false;
+        }
+        val expiresAt = failedCredentials.get(key);
+        if (expiresAt != null) {
+            if (expiresAt - System.nanoTime() > 0) {
+                rejectedCredentials.increment();
+                return true;
+            }
+            failedCredentials.remove(key, expiresAt);
+        }
+        return false;
+    }
+
+    /**
+     * Record a failed attempt.
+     *
+     * @param address the source address
+     * @param username the username (may be <code>null</code>)
+     * @param key the hash of the credentials (may be <code>null</code>)
+     */
+    public void recordFailure(final String address, final String username, final String key) {
+        addressBuckets.consume(address);
+        usernameBuckets.consume(usernameKey(address, username));
+        if (key == null || negativeCacheTtl <= 0) {
+            return;
+        }
+        val now = System.nanoTime();
+        if (failedCredentials.size() >= negativeCacheSize) {
+            purge(now);
+            if (failedCredentials.size() >= negativeCacheSize) {
+                return;
+            }
+        }
+        failedCredentials.put(key, now + TimeUnit.MILLISECONDS.toNanos(negativeCacheTtl));
+    }
+
+    /**
+     * Forget the failed credentials, for example after a password change.
+     */
+    public void clearFailedCredentials() {
+        failedCredentials.clear();
+    }
+
+    public long getThrottledAttempts() {
+        return throttledAttempts.sum();
+    }
+
+    public long getRejectedCredentials() {
+        return rejectedCredentials.sum();
+    }
+
+    private static String usernameKey(final String address, final String username) {
+        return username != null ? address + '\n' + username : null;
+    }
+
+    // at most once per second, as the cache is full during an attack
+    private void purge(final long now) {
+        if (now - nextPurge < 0) {
+            return;
+        }
+        nextPurge = now + TimeUnit.SECONDS.toNanos(1);
+        failedCredentials.values().removeIf(expiresAt -> expiresAt - now <= 0);
+    }
+}
@@ -0,0 +1,118 @@
+package org.pac4j.jee.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Limits the number of concurrent calls to a client, so that a slow dependency (LDAP server, identity provider...)
+ * cannot hold all the threads of the container.</p>
+ *
+ * <p>Over <code>maxConcurrentCalls</code>, at most <code>maxWaitingCalls</code> calls wait for a permit (for <code>maxWait</code>
+ * milliseconds at most): the other calls are rejected immediately.</p>
+ *
+ * @since 8.0.4
+ */
+@Getter
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrentCalls;
+
+    private final int maxWaitingCalls;
+
+    private final long maxWait;
+
+    @Getter(AccessLevel.NONE)
+    private final Semaphore permits;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger waitingCalls = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final LongAdder rejectedCalls = new LongAdder();
+
+    public Bulkhead(final String name, final int maxConcurrentCalls, final int maxWaitingCalls, final long maxWait) {
+        CommonHelper.assertNotBlank("name", name);
+        CommonHelper.assertTrue(maxConcurrentCalls > 0, "maxConcurrentCalls must be positive");
+        CommonHelper.assertTrue(maxWaitingCalls >= 0, "maxWaitingCalls cannot be negative");
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitingCalls = maxWaitingCalls;
+        this.maxWait = maxWait;
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Try to get a permit, waiting if the call can be queued. A successful call must be followed by {@link #release()}.
+     *
+     * @return whether the call is permitted
+     */
+    public boolean tryAcquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (maxWaitingCalls > 0 && maxWait > 0) {
+            if (waitingCalls.incrementAndGet() <= maxWaitingCalls) {
+                try {
+                    if (permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    waitingCalls.decrementAndGet();
+                }
+            } else {
+                waitingCalls.decrementAndGet();
+            }
+        }
+        rejectedCalls.increment();
+        return false;
+    }
+
+    /**
+     * Release the permit of a call.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Get the number of calls in progress.
+     *
+     * @return the number of calls in progress
+     */
+    public int getInFlightCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    /**
+     * Get the number of calls waiting for a permit.
+     *
+     * @return the number of waiting calls
+     */
+    public int getWaitingCalls() {
+        return waitingCalls.get();
+    }
+
+    /**
+     * Get the number of rejected calls.
+     *
+     * @return the number of rejected calls
+     */
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + ':' + maxConcurrentCalls + ':' + maxWaitingCalls;
+    }
+}
@@ -0,0 +1,207 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.context.HttpConstants;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.Pac4jConstants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * <p>Coalesce the concurrent callbacks carrying the same credentials (authorization code, state, ticket or SAML response),
+ * sent twice or more by a double click or a browser retry: only the first one is performed while the others wait for it,
+ * so that the credentials are validated (and the code exchanged) only once.</p>
+ *
+ * <p>The waiting callbacks replay the outcome of the first one: the same redirection (the profiles are already saved in the
+ * shared web session) with the same cookies (the renewed session cookie for example), or the same error status. They wait
+ * for the timeout at most, then perform the callback themselves. The callbacks are keyed by a SHA-256 hash of the requested
+ * session identifier, the client name and the credentials parameters: the outcome is only replayed to the callbacks of the same
+ * web session and no credentials are kept in memory. Once the maximum number of callbacks in flight is reached, the callbacks
+ * are performed without deduplication.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public class CallbackDeduplicator {
+
+    /* The default request parameters carrying the credentials of a callback */
+    public static final List<String> DEFAULT_PARAMETERS = List.of("code", "state", "ticket", "SAMLResponse");
+
+    private static final String SET_COOKIE_HEADER = "Set-Cookie";
+
+    private static final Outcome FAILED = new Outcome(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, null, List.of());
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long timeout;
+
+    @Getter
+    private final List<String> parameters;
+
+    private final Map<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Build a callback deduplicator for the default parameters.
+     *
+     * @param maxSize the maximum number of callbacks in flight
+     * @param timeout the maximum time to wait for a callback in flight (in milliseconds)
+     */
+    public CallbackDeduplicator(final int maxSize, final long timeout) {
+        this(maxSize, timeout, DEFAULT_PARAMETERS);
+    }
+
+    /**
+     * Build a callback deduplicator.
+     *
+     * @param maxSize the maximum number of callbacks in flight
+     * @param timeout the maximum time to wait for a callback in flight (in milliseconds)
+     * @param parameters the request parameters carrying the credentials of a callback
+     */
+    public CallbackDeduplicator(final int maxSize, final long timeout, final List<String> parameters) {
+        assertTrue(maxSize > 0, "maxSize must be greater than 0");
+        assertTrue(timeout > 0, "timeout must be greater than 0");
+        assertTrue(parameters != null && !parameters.isEmpty(), "parameters must be defined");
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.parameters = List.copyOf(parameters);
+    }
+
+    /**
+     * Perform a callback, unless the same callback is already in flight, in which case its outcome is replayed.
+     *
+     * @param request the request
+     * @param response the response
+     * @param callback the callback logic
+     * @throws IOException if the outcome cannot be replayed
+     */
+    public void perform(final HttpServletRequest request, final HttpServletResponse response, final Runnable callback)
+        throws IOException {
+        val key = key(request);
+        if (key == null || inFlight.size() >= maxSize) {
+            callback.run();
+            return;
+        }
+
+        val flight = new CompletableFuture<Outcome>();
+        val existingFlight = inFlight.putIfAbsent(key, flight);
+        if (existingFlight == null) {
+            try {
+                callback.run();
+                val cookies = response.getHeaders(SET_COOKIE_HEADER);
+                flight.complete(new Outcome(response.getStatus(), response.getHeader(HttpConstants.LOCATION_HEADER),
+                    cookies != null ? List.copyOf(cookies) : List.of()));
+            } catch (final RuntimeException | Error e) {
+                flight.complete(FAILED);
+                throw e;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+            return;
+        }
+
+        coalesced.increment();
+        final Outcome outcome;
+        try {
+            outcome = existingFlight.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            timeouts.increment();
+            LOGGER.warn("Timeout while waiting for a concurrent callback: {}", request.getRequestURI());
+            callback.run();
+            return;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(e);
+        } catch (final ExecutionException e) {
+            throw new TechnicalException(e);
+        }
+
+        LOGGER.debug("Replaying the outcome of a concurrent callback: {}", outcome);
+        for (val cookie : outcome.cookies()) {
+            response.addHeader(SET_COOKIE_HEADER, cookie);
+        }
+        val status = outcome.status();
+        if (outcome.location() != null && status >= 300 && status < 400) {
+            response.setStatus(status);
+            response.setHeader(HttpConstants.LOCATION_HEADER, outcome.location());
+        } else if (status >= 400) {
+            response.sendError(status);
+        } else {
+            response.setStatus(status);
+        }
+    }
+
+    private String key(final HttpServletRequest request) {
+        MessageDigest digest = null;
+        for (val parameter : parameters) {
+            val value = request.getParameter(parameter);
+            if (value != null) {
+                if (digest == null) {
+                    digest = newDigest();
+                    // the cookies of the outcome must only be replayed to the same web session
+                    digest.update(String.valueOf(request.getRequestedSessionId()).getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(String.valueOf(request.getParameter(Pac4jConstants.DEFAULT_CLIENT_NAME_PARAMETER))
+                        .getBytes(StandardCharsets.UTF_8));
+                }
+                digest.update((byte) 0);
+                digest.update(parameter.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '=');
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return digest != null ? Base64.getEncoder().encodeToString(digest.digest()) : null;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    public int getSize() {
+        return inFlight.size();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    // the cookies are not logged
+    private record Outcome(int status, String location, List<String> cookies) {
+
+        @Override
+        public String toString() {
+            return "Outcome[status=" + status + ", location=" + location + ", cookies=" + cookies.size() + "]";
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.exception.http.StatusAction;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.Pac4jConstants;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>The {@link Bulkhead}s of the clients, by client name.</p>
+ *
+ * <p>They are usually defined by the <code>bulkheads</code> init parameter of the filters:
+ * <code>LdapClient:20,SAML2Client:50:100</code> allows 20 concurrent calls to the <code>LdapClient</code> (and as many waiting calls)
+ * and 50 concurrent calls to the <code>SAML2Client</code> (and 100 waiting calls). The rejected requests get a 503 error with
+ * a <code>Retry-After</code> header.</p>
+ *
+ * @since 8.0.4
+ */
+public class ClientBulkheads {
+
+    /* The default maximum time to wait for a permit (in milliseconds) */
+    public static final long DEFAULT_MAX_WAIT = 1_000L;
+
+    /* The default delay suggested to the rejected clients (in seconds) */
+    public static final int DEFAULT_RETRY_AFTER = 1;
+
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final Map<String, Bulkhead> bulkheads;
+
+    private final String retryAfter;
+
+    public ClientBulkheads(final Collection<Bulkhead> bulkheads, final int retryAfter) {
+        CommonHelper.assertNotNull("bulkheads", bulkheads);
+        final Map<String, Bulkhead> map = new LinkedHashMap<>();
+        for (val bulkhead : bulkheads) {
+            map.put(bulkhead.getName(), bulkhead);
+        }
+        this.bulkheads = Collections.unmodifiableMap(map);
+        this.retryAfter = String.valueOf(Math.max(0, retryAfter));
+    }
+
+    /**
+     * Parse the definition of the bulkheads.
+     *
+     * @param definition the bulkheads: <code>clientName:maxConcurrentCalls[:maxWaitingCalls]</code>, separated by commas
+     * @param maxWait the maximum time to wait for a permit (in milliseconds)
+     * @param retryAfter the delay suggested to the rejected clients (in seconds)
+     * @return the bulkheads or <code>null</code> if the definition is blank
+     */
+    public static ClientBulkheads parse(final String definition, final long maxWait, final int retryAfter) {
+        if (CommonHelper.isBlank(definition)) {
+            return null;
+        }
+        final List<Bulkhead> bulkheads = new ArrayList<>();
+        for (val element : definition.split(Pac4jConstants.ELEMENT_SEPARATOR)) {
+            if (CommonHelper.isBlank(element)) {
+                continue;
+            }
+            val parts = element.trim().split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new TechnicalException("Invalid bulkhead (clientName:maxConcurrentCalls[:maxWaitingCalls]): " + element);
+            }
+            try {
+                val maxConcurrentCalls = Integer.parseInt(parts[1].trim());
+                val maxWaitingCalls = parts.length == 3 ? Integer.parseInt(parts[2].trim()) : maxConcurrentCalls;
+                bulkheads.add(new Bulkhead(parts[0].trim(), maxConcurrentCalls, maxWaitingCalls, maxWait));
+            } catch (final NumberFormatException e) {
+                throw new TechnicalException("Invalid bulkhead (clientName:maxConcurrentCalls[:maxWaitingCalls]): " + element, e);
+            }
+        }
+        return new ClientBulkheads(bulkheads, retryAfter);
+    }
+
+    /**
+     * Build the bulkheads defined by the init parameters of a filter: {@link JEEConstants#BULKHEADS},
+     * {@link JEEConstants#BULKHEAD_TIMEOUT} and {@link JEEConstants#RETRY_AFTER}.
+     *
+     * @param filterConfig the filter configuration
+     * @return the bulkheads or <code>null</code> if none is defined
+     */
+    public static ClientBulkheads fromFilterConfig(final FilterConfig filterConfig) {
+        return parse(filterConfig.getInitParameter(JEEConstants.BULKHEADS),
+            FilterConfigHelper.getLongParam(filterConfig, JEEConstants.BULKHEAD_TIMEOUT, DEFAULT_MAX_WAIT),
+            FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.RETRY_AFTER, DEFAULT_RETRY_AFTER));
+    }
+
+    /**
+     * Get the bulkhead of a client.
+     *
+     * @param clientName the client name
+     * @return the bulkhead or <code>null</code> if the client has none
+     */
+    public Bulkhead get(final String clientName) {
+        return clientName == null ? null : bulkheads.get(clientName);
+    }
+
+    /**
+     * Get all the bulkheads, by client name.
+     *
+     * @return the bulkheads
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Reject a request: 503 error with a <code>Retry-After</code> header.
+     *
+     * @param response the response
+     */
+    public void reject(final HttpServletResponse response) {
+        response.setHeader(RETRY_AFTER_HEADER, retryAfter);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Build the HTTP action rejecting a request, for the security logic.
+     *
+     * @param context the web context
+     * @return the HTTP action
+     */
+    public StatusAction reject(final WebContext context) {
+        context.setResponseHeader(RETRY_AFTER_HEADER, retryAfter);
+        return new StatusAction(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,128 @@
+package org.pac4j.jee.util;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.util.InitializableObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Initialize clients eagerly and in parallel, so that the first requests do not pay for their lazy initialization
+ * (discovery of the OpenID Connect provider, parsing of the SAML metadata, loading of the keystores...).</p>
+ *
+ * <p>The clients are initialized on a bounded pool of daemon threads, until a global timeout. The clients which fail or
+ * are not initialized in time are reported and will be initialized by the first requests, as usual.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public final class ClientWarmUp {
+
+    /* The default timeout of the warm-up (in milliseconds) */
+    public static final long DEFAULT_TIMEOUT = 30_000L;
+
+    /* The default number of threads initializing the clients */
+    public static final int DEFAULT_THREADS = 4;
+
+    private ClientWarmUp() {}
+
+    /**
+     * Initialize the clients in parallel.
+     *
+     * @param clients the clients
+     * @param threads the maximum number of threads initializing the clients
+     * @param timeout the timeout of the warm-up (in milliseconds)
+     * @return the report of the warm-up
+     */
+    public static Report warmUp(final Collection<? extends Client> clients, final int threads, final long timeout) {
+        if (clients == null || clients.isEmpty()) {
+            return new Report(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList());
+        }
+
+        val start = System.nanoTime();
+        val counter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            val thread = new Thread(runnable, "pac4j-warmup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        val executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, clients.size())), threadFactory);
+        final Map<String, Future<Long>> initializations = new LinkedHashMap<>();
+        try {
+            for (val client : clients) {
+                initializations.put(client.getName(), executor.submit(() -> initialize(client)));
+            }
+        } finally {
+            // the pending initializations go on, but the threads stop once they are done
+            executor.shutdown();
+        }
+
+        final Map<String, Long> initTimes = new LinkedHashMap<>();
+        final List<String> failedClients = new ArrayList<>();
+        final List<String> pendingClients = new ArrayList<>();
+        val deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+        for (val initialization : initializations.entrySet()) {
+            val name = initialization.getKey();
+            try {
+                val initTime = initialization.getValue().get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                LOGGER.info("Client {} initialized in {} ms", name, initTime);
+                initTimes.put(name, initTime);
+            } catch (final ExecutionException e) {
+                LOGGER.warn("Cannot initialize client: {}", name, e.getCause());
+                failedClients.add(name);
+            } catch (final TimeoutException e) {
+                LOGGER.warn("Client {} not initialized after {} ms: it will be initialized by the first request", name, timeout);
+                pendingClients.add(name);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendingClients.add(name);
+            }
+        }
+
+        val report = new Report(Collections.unmodifiableMap(initTimes), Collections.unmodifiableList(failedClients),
+            Collections.unmodifiableList(pendingClients));
+        LOGGER.info("{} client(s) warmed up in {} ms ({} failed, {} pending)", initTimes.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failedClients.size(), pendingClients.size());
+        return report;
+    }
+
+    private static long initialize(final Client client) {
+        val start = System.nanoTime();
+        if (client instanceof InitializableObject initializableClient) {
+            initializableClient.init();
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * The report of a warm-up.
+     *
+     * @param initTimes the initialization times of the initialized clients (in milliseconds), by client name
+     * @param failedClients the clients whose initialization failed
+     * @param pendingClients the clients not initialized before the timeout
+     */
+    public record Report(Map<String, Long> initTimes, List<String> failedClients, List<String> pendingClients) {
+
+        /**
+         * Whether all the clients are initialized.
+         *
+         * @return whether the warm-up is complete
+         */
+        public boolean isComplete() {
+            return failedClients.isEmpty() && pendingClients.isEmpty();
+        }
+    }
+}
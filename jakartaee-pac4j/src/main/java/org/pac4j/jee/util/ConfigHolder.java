@@ -0,0 +1,143 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.ServletContext;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.InitializableObject;
+
+import java.util.function.Supplier;
+
+/**
+ * <p>Holds the current snapshot of a configuration which can be replaced at runtime (to rotate the secrets or the keys of the clients
+ * without restarting).</p>
+ *
+ * <p>A new configuration is never modified in place: it is built and fully initialized (defaults and clients) by the reloading thread,
+ * off the request path, then published with a single volatile write. The readers take no lock and each request keeps the snapshot it
+ * started with until it completes. If the new configuration cannot be initialized, the current one is kept. The publications are
+ * serialized, initialization included, so that a configuration is never replaced by an older one whose initialization took longer.</p>
+ *
+ * <p>The holder is used by the filters when it is set on them or when it is registered in the servlet context
+ * (see {@link #register(ServletContext, Config)}) and the filters have no configuration of their own. It is also used by
+ * the {@link Pac4jProducer} when it is available as a CDI bean.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+public class ConfigHolder {
+
+    /* The servlet context attribute holding the configuration holder */
+    public static final String CONFIG_HOLDER_ATTRIBUTE = ConfigHolder.class.getName();
+
+    private final Object reloadLock = new Object();
+
+    private volatile Snapshot snapshot;
+
+    public ConfigHolder(final Config config) {
+        CommonHelper.assertNotNull("config", config);
+        this.snapshot = new Snapshot(prepare(config), 1L);
+    }
+
+    /**
+     * Get the current configuration.
+     *
+     * @return the current configuration
+     */
+    public Config get() {
+        return snapshot.config();
+    }
+
+    /**
+     * Get the version of the current configuration, incremented by each publication.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+     * Initialize a new configuration and make it the current one. The concurrent publications are performed one after the other.
+     *
+     * @param config the new configuration
+     * @return the previous configuration
+     */
+    public Config publish(final Config config) {
+        CommonHelper.assertNotNull("config", config);
+        synchronized (reloadLock) {
+            val prepared = prepare(config);
+            val previous = this.snapshot;
+            this.snapshot = new Snapshot(prepared, previous.version() + 1);
+            LOGGER.info("Configuration version {} published", previous.version() + 1);
+            return previous.config();
+        }
+    }
+
+    /**
+     * Build, initialize and publish a new configuration. The concurrent reloads are performed one after the other.
+     *
+     * @param configFactory the factory of the new configuration
+     * @return the previous configuration
+     */
+    public Config reload(final Supplier<Config> configFactory) {
+        CommonHelper.assertNotNull("configFactory", configFactory);
+        synchronized (reloadLock) {
+            return publish(configFactory.get());
+        }
+    }
+
+    /**
+     * Get the configuration to use: the current one of the holder if any, the given one otherwise.
+     *
+     * @param holder the configuration holder, possibly <code>null</code>
+     * @param config the default configuration
+     * @return the configuration, initialized
+     */
+    public static Config resolve(final ConfigHolder holder, final Config config) {
+        return holder != null ? holder.get() : ConfigInitializer.initialize(config);
+    }
+
+    /**
+     * Get the configuration holder registered in a servlet context.
+     *
+     * @param servletContext the servlet context
+     * @return the configuration holder or <code>null</code> if none is registered
+     */
+    public static ConfigHolder fromServletContext(final ServletContext servletContext) {
+        return servletContext.getAttribute(CONFIG_HOLDER_ATTRIBUTE) instanceof ConfigHolder holder ? holder : null;
+    }
+
+    /**
+     * Register a configuration holder in a servlet context, unless one is already registered.
+     *
+     * @param servletContext the servlet context
+     * @param config the initial configuration
+     * @return the configuration holder
+     */
+    public static ConfigHolder register(final ServletContext servletContext, final Config config) {
+        synchronized (servletContext) {
+            var holder = fromServletContext(servletContext);
+            if (holder == null) {
+                holder = new ConfigHolder(config);
+                servletContext.setAttribute(CONFIG_HOLDER_ATTRIBUTE, holder);
+            }
+            return holder;
+        }
+    }
+
+    private static Config prepare(final Config config) {
+        ConfigInitializer.initialize(config);
+        val clients = config.getClients();
+        if (clients != null) {
+            for (val client : clients.findAllClients()) {
+                if (client instanceof InitializableObject initializableClient) {
+                    initializableClient.init();
+                }
+            }
+        }
+        return config;
+    }
+
+    private record Snapshot(Config config, long version) {}
+}
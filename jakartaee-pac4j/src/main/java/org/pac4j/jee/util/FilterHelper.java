@@ -4,7 +4,9 @@ import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterRegistration;
 import jakarta.servlet.ServletContext;
+import org.pac4j.core.config.Config;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.jee.filter.RoutingSecurityFilter;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -15,6 +17,8 @@ import static org.pac4j.core.util.CommonHelper.*;
 /**
  * Helper to define filter mappings.
  *
+ * Several URL areas with different security requirements can be protected by a single filter: see {@link #securityRoutes(Config)}.
+ *
  * @author Jerome Leleu
  * @since 3.0.0
  */
@@ -31,7 +35,8 @@ public class FilterHelper {
      *
      * @param name the name fo the filter
      * @param filter the filter
-     * @param parameters the URLs on which it applies and the supported dispatcher types
+     * @param parameters the URLs on which it applies and the supported dispatcher types (asynchronous requests are supported
+     *                   by the filter if the <code>ASYNC</code> type is defined)
      */
     public void addFilterMapping(final String name, final Filter filter, final Object... parameters) {
         assertNotBlank("name", name);
@@ -57,6 +62,20 @@ public class FilterHelper {
         }
 
         final FilterRegistration.Dynamic registration = servletContext.addFilter(name, filter);
+        if (types.contains(DispatcherType.ASYNC)) {
+            registration.setAsyncSupported(true);
+        }
         registration.addMappingForUrlPatterns(EnumSet.copyOf(types), true, urls.toArray(new String[urls.size()]));
     }
+
+    /**
+     * Start the definition of security routes, compiled into a single {@link RoutingSecurityFilter} when registered:
+     * <code>helper.securityRoutes(config).route("/admin/*", "FormClient", "admin").route("/api/*", "HeaderClient").register("security", "/*")</code>.
+     *
+     * @param config the configuration
+     * @return the builder of the routes
+     */
+    public RoutingSecurityFilter.Builder securityRoutes(final Config config) {
+        return new RoutingSecurityFilter.Builder(config, this);
+    }
 }
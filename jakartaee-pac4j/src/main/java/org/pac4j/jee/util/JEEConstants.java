@@ -0,0 +1,87 @@
+package org.pac4j.jee.util;
+
+/**
+ * Names of the init parameters specific to the JEE filters (in addition to the {@link org.pac4j.core.util.Pac4jConstants}).
+ *
+ * @since 8.0.4
+ */
+public interface JEEConstants {
+
+    /* Whether the filter performs its logic asynchronously */
+    String ASYNC = "async";
+
+    /* The timeout of the asynchronous execution (in milliseconds) */
+    String ASYNC_TIMEOUT = "asyncTimeout";
+
+    /* The number of threads of the asynchronous executor (0 for virtual threads) */
+    String ASYNC_THREADS = "asyncThreads";
+
+    /* The URL to redirect to when the asynchronous execution is rejected or times out */
+    String ASYNC_ERROR_URL = "asyncErrorUrl";
+
+    /* The maximum number of profiles cached for the direct clients (0 to disable the cache) */
+    String PROFILE_CACHE_SIZE = "profileCacheSize";
+
+    /* The time to live of the profiles cached for the direct clients (in milliseconds) */
+    String PROFILE_CACHE_TTL = "profileCacheTtl";
+
+    /* Whether the filter records Micrometer metrics (in the registry of the servlet context or the global registry) */
+    String METRICS = "metrics";
+
+    /* The path patterns for which the security filter is bypassed (exact paths, prefixes like /static/* or extensions like *.css) */
+    String BYPASS_PATHS = "bypassPaths";
+
+    /* Whether the security filter forbids the web sessions (for the REST APIs only using direct clients) */
+    String STATELESS = "stateless";
+
+    /* Whether the attempts to create a web session fail in stateless mode (instead of getting a detached session) */
+    String STATELESS_FAIL_FAST = "statelessFailFast";
+
+    /* Whether the local logout also revokes the other sessions of the users (requires a session index) */
+    String LOGOUT_ALL_SESSIONS = "logoutAllSessions";
+
+    /* Whether the callback filter coalesces the concurrent callbacks carrying the same credentials */
+    String DEDUPLICATE_CALLBACKS = "deduplicateCallbacks";
+
+    /* The maximum time to wait for a concurrent callback (in milliseconds) */
+    String DEDUPLICATION_TIMEOUT = "deduplicationTimeout";
+
+    /* Whether the filter initializes its clients eagerly and in parallel at startup */
+    String WARM_UP = "warmUp";
+
+    /* The maximum time to wait for the initialization of the clients at startup (in milliseconds) */
+    String WARM_UP_TIMEOUT = "warmUpTimeout";
+
+    /* The number of threads initializing the clients at startup */
+    String WARM_UP_THREADS = "warmUpThreads";
+
+    /* The bulkheads of the clients: clientName:maxConcurrentCalls[:maxWaitingCalls], separated by commas */
+    String BULKHEADS = "bulkheads";
+
+    /* The maximum time to wait for a permit of a bulkhead (in milliseconds) */
+    String BULKHEAD_TIMEOUT = "bulkheadTimeout";
+
+    /* The delay suggested to the requests rejected by a bulkhead (in seconds) */
+    String RETRY_AFTER = "retryAfter";
+
+    /* Whether the security or callback filter throttles the failed attempts and rejects the recently failed credentials */
+    String BRUTE_FORCE_PROTECTION = "bruteForceProtection";
+
+    /* The number of failed attempts allowed per source address, or per username from a source address, within the period */
+    String MAX_FAILED_ATTEMPTS = "maxFailedAttempts";
+
+    /* The period of the failed attempts (in milliseconds) */
+    String FAILED_ATTEMPTS_PERIOD = "failedAttemptsPeriod";
+
+    /* The time during which the failed credentials are rejected without calling the authenticator (in milliseconds) */
+    String NEGATIVE_CACHE_TTL = "negativeCacheTtl";
+
+    /* The request header in which a trusted reverse proxy appends the client address (instead of the remote address) */
+    String BRUTE_FORCE_ADDRESS_HEADER = "bruteForceAddressHeader";
+
+    /* Whether the filter records the time spent in each phase of its logic in a request attribute */
+    String TIMINGS = "timings";
+
+    /* Whether the filter sends the time spent in each phase of its logic in a Server-Timing response header */
+    String SERVER_TIMING = "serverTiming";
+}
@@ -7,18 +7,26 @@ import org.pac4j.core.profile.UserProfile;
 
 import java.security.Principal;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * This wraps the {@link HttpServletRequest} to make it pac4j-aware by with respect to user-related methods.
- * 
+ *
+ * The principal and the roles are computed on first use and reused for the rest of the request.
+ *
  * @author Victor Noel
  * @since 4.0.0
  *
  */
 public class Pac4JHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
-    private Collection<UserProfile> profiles;
+    private final Collection<UserProfile> profiles;
+
+    private Optional<Principal> principal;
+
+    private Set<String> roles;
 
     public Pac4JHttpServletRequestWrapper(final HttpServletRequest request, final Collection<UserProfile> profiles) {
         super(request);
@@ -27,15 +35,32 @@ public class Pac4JHttpServletRequestWrapper extends HttpServletRequestWrapper {
 
     @Override
     public String getRemoteUser() {
-        return getPrincipal().map(p -> p.getName()).orElse(null);
+        return getPrincipal().map(Principal::getName).orElse(null);
     }
 
-    private Optional<UserProfile> getProfile() {
-        return ProfileHelper.flatIntoOneProfile(profiles);
+    private Optional<Principal> getPrincipal() {
+        var currentPrincipal = this.principal;
+        if (currentPrincipal == null) {
+            currentPrincipal = ProfileHelper.flatIntoOneProfile(profiles).map(UserProfile::asPrincipal);
+            this.principal = currentPrincipal;
+        }
+        return currentPrincipal;
     }
 
-    private Optional<Principal> getPrincipal() {
-        return getProfile().map(UserProfile::asPrincipal);
+    private Set<String> getRoles() {
+        var currentRoles = this.roles;
+        if (currentRoles == null) {
+            if (profiles.size() == 1) {
+                currentRoles = profiles.iterator().next().getRoles();
+            } else {
+                currentRoles = new HashSet<>();
+                for (final UserProfile profile : profiles) {
+                    currentRoles.addAll(profile.getRoles());
+                }
+            }
+            this.roles = currentRoles;
+        }
+        return currentRoles;
     }
 
     @Override
@@ -44,7 +69,7 @@ public class Pac4JHttpServletRequestWrapper extends HttpServletRequestWrapper {
     }
 
     @Override
-    public boolean isUserInRole(String role) {
-        return this.profiles.stream().anyMatch(p -> p.getRoles().contains(role));
+    public boolean isUserInRole(final String role) {
+        return getRoles().contains(role);
     }
 }
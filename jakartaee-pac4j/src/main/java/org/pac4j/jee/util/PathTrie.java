@@ -0,0 +1,260 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.val;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.Pac4jConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Path patterns compiled into a character trie, to find the value associated to the path of a request without any allocation.</p>
+ *
+ * <p>The patterns follow the servlet mapping syntax:</p>
+ * <ul>
+ *     <li>an exact path: <code>/health</code></li>
+ *     <li>a path prefix: <code>/static/*</code> (or <code>/static/**</code>), matching <code>/static</code> and all its sub-paths</li>
+ *     <li>an extension: <code>*.css</code></li>
+ * </ul>
+ *
+ * <p>Like for the servlet mappings, an exact path wins over the longest path prefix, which wins over an extension.
+ * The lookup cost only depends on the length of the path, not on the number of patterns (except for the extensions).</p>
+ *
+ * <p>The patterns are checked against the servlet path followed by the path info: these parts are decoded and normalized
+ * by the container, unlike the request URI.</p>
+ *
+ * @param <T> the type of the values associated to the patterns
+ * @since 8.0.4
+ */
+public final class PathTrie<T> {
+
+    private final Node root;
+
+    private final String[] suffixes;
+
+    private final Object[] suffixValues;
+
+    private PathTrie(final Node root, final List<String> suffixes, final List<Object> suffixValues) {
+        this.root = root;
+        this.suffixes = suffixes.toArray(new String[0]);
+        this.suffixValues = suffixValues.toArray();
+    }
+
+    /**
+     * Compile path patterns.
+     *
+     * @param patterns the patterns, separated by commas
+     * @return the compiled patterns or <code>null</code> if there are no patterns
+     */
+    public static PathTrie<Boolean> compile(final String patterns) {
+        if (CommonHelper.isBlank(patterns)) {
+            return null;
+        }
+
+        final Builder<Boolean> builder = builder();
+        for (val pattern : patterns.split(Pac4jConstants.ELEMENT_SEPARATOR)) {
+            if (CommonHelper.isNotBlank(pattern)) {
+                builder.add(pattern, Boolean.TRUE);
+            }
+        }
+        return builder.build();
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Whether the path of the request matches one of the patterns.
+     *
+     * @param request the request
+     * @return whether the path matches
+     */
+    public boolean matches(final HttpServletRequest request) {
+        return find(request.getServletPath(), request.getPathInfo()) != null;
+    }
+
+    /**
+     * Whether the path made of the servlet path and the path info matches one of the patterns.
+     *
+     * @param servletPath the servlet path
+     * @param pathInfo the path info (may be <code>null</code>)
+     * @return whether the path matches
+     */
+    public boolean matches(final String servletPath, final String pathInfo) {
+        return find(servletPath, pathInfo) != null;
+    }
+
+    /**
+     * Find the value of the most specific pattern matching the path of the request.
+     *
+     * @param request the request
+     * @return the value or <code>null</code> if no pattern matches
+     */
+    public T find(final HttpServletRequest request) {
+        return find(request.getServletPath(), request.getPathInfo());
+    }
+
+    /**
+     * Find the value of the most specific pattern matching the path made of the servlet path and the path info.
+     *
+     * @param servletPath the servlet path
+     * @param pathInfo the path info (may be <code>null</code>)
+     * @return the value or <code>null</code> if no pattern matches
+     */
+    @SuppressWarnings("unchecked")
+    public T find(final String servletPath, final String pathInfo) {
+        val path1 = servletPath != null ? servletPath : "";
+        val path2 = pathInfo != null ? pathInfo : "";
+        val length = path1.length() + path2.length();
+
+        var node = root;
+        var prefixValue = root.prefixValue;
+        for (var i = 0; i < length && node != null; i++) {
+            node = node.next(charAt(path1, path2, i));
+            if (node != null && node.prefixValue != null && (i + 1 == length || charAt(path1, path2, i + 1) == '/')) {
+                prefixValue = node.prefixValue;
+            }
+        }
+        if (node != null && node.exactValue != null) {
+            return (T) node.exactValue;
+        }
+        if (prefixValue != null) {
+            return (T) prefixValue;
+        }
+
+        for (var i = 0; i < suffixes.length; i++) {
+            if (endsWith(path1, path2, suffixes[i])) {
+                return (T) suffixValues[i];
+            }
+        }
+        return null;
+    }
+
+    private static char charAt(final String path1, final String path2, final int index) {
+        val length1 = path1.length();
+        return index < length1 ? path1.charAt(index) : path2.charAt(index - length1);
+    }
+
+    private static boolean endsWith(final String path1, final String path2, final String suffix) {
+        val suffixLength = suffix.length();
+        val length = path1.length() + path2.length();
+        if (length < suffixLength) {
+            return false;
+        }
+        val offset = length - suffixLength;
+        for (var i = 0; i < suffixLength; i++) {
+            if (charAt(path1, path2, offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Builder of a {@link PathTrie}.
+     *
+     * @param <T> the type of the values associated to the patterns
+     */
+    public static final class Builder<T> {
+
+        private final Node root = new Node();
+
+        private final List<String> suffixes = new ArrayList<>();
+
+        private final List<Object> suffixValues = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * Add a pattern.
+         *
+         * @param pattern the pattern
+         * @param value the value associated to the pattern
+         * @return this builder
+         */
+        public Builder<T> add(final String pattern, final T value) {
+            CommonHelper.assertNotBlank("pattern", pattern);
+            CommonHelper.assertNotNull("value", value);
+
+            val trimmedPattern = pattern.trim();
+            if (trimmedPattern.startsWith("*.") && trimmedPattern.length() > 2 && trimmedPattern.indexOf('/') < 0) {
+                val suffix = trimmedPattern.substring(1);
+                if (suffixes.contains(suffix)) {
+                    throw duplicate(trimmedPattern);
+                }
+                suffixes.add(suffix);
+                suffixValues.add(value);
+            } else if (trimmedPattern.endsWith("/**") || trimmedPattern.endsWith("/*")) {
+                val node = root.add(checkPath(trimmedPattern, trimmedPattern.substring(0, trimmedPattern.lastIndexOf('/'))));
+                if (node.prefixValue != null) {
+                    throw duplicate(trimmedPattern);
+                }
+                node.prefixValue = value;
+            } else {
+                val node = root.add(checkPath(trimmedPattern, trimmedPattern));
+                if (node.exactValue != null) {
+                    throw duplicate(trimmedPattern);
+                }
+                node.exactValue = value;
+            }
+            return this;
+        }
+
+        public PathTrie<T> build() {
+            return new PathTrie<>(root, suffixes, suffixValues);
+        }
+
+        private static String checkPath(final String pattern, final String path) {
+            if (!path.isEmpty() && (path.charAt(0) != '/' || path.indexOf('*') >= 0)) {
+                throw new TechnicalException("Invalid path pattern: " + pattern);
+            }
+            return path;
+        }
+
+        private static TechnicalException duplicate(final String pattern) {
+            return new TechnicalException("Duplicate path pattern: " + pattern);
+        }
+    }
+
+    private static final class Node {
+
+        private char[] labels = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private Object exactValue;
+
+        private Object prefixValue;
+
+        private Node next(final char label) {
+            val currentLabels = labels;
+            for (var i = 0; i < currentLabels.length; i++) {
+                if (currentLabels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node add(final String path) {
+            var node = this;
+            for (var i = 0; i < path.length(); i++) {
+                val label = path.charAt(i);
+                var child = node.next(label);
+                if (child == null) {
+                    child = new Node();
+                    node.labels = Arrays.copyOf(node.labels, node.labels.length + 1);
+                    node.labels[node.labels.length - 1] = label;
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.children[node.children.length - 1] = child;
+                }
+                node = child;
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+
+import java.util.Optional;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * An authenticator which reuses the profiles of the {@link ProfileCache} for already validated credentials
+ * and delegates to the original authenticator otherwise.
+ *
+ * @since 8.0.4
+ */
+@Getter
+public class ProfileCachingAuthenticator implements Authenticator {
+
+    private final Authenticator delegate;
+
+    private final ProfileCache profileCache;
+
+    private final String clientName;
+
+    public ProfileCachingAuthenticator(final Authenticator delegate, final ProfileCache profileCache, final String clientName) {
+        assertNotNull("delegate", delegate);
+        assertNotNull("profileCache", profileCache);
+        this.delegate = delegate;
+        this.profileCache = profileCache;
+        this.clientName = clientName;
+    }
+
+    @Override
+    public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+        val key = ProfileCache.key(clientName, credentials);
+        if (key == null) {
+            return delegate.validate(ctx, credentials);
+        }
+
+        val cachedProfile = profileCache.get(key);
+        if (cachedProfile != null) {
+            credentials.setUserProfile(cachedProfile);
+            return Optional.of(credentials);
+        }
+
+        val validatedCredentials = delegate.validate(ctx, credentials);
+        validatedCredentials.ifPresent(c -> profileCache.put(key, c.getUserProfile()));
+        return validatedCredentials;
+    }
+}
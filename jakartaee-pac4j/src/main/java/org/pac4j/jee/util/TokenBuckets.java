@@ -0,0 +1,144 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.util.CommonHelper;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Striped, lock-free token buckets: each key is hashed to one of a fixed number of buckets, so that the memory is bounded
+ * whatever the number of keys (source IP addresses, usernames...). The colliding keys share the same bucket.</p>
+ *
+ * <p>Each bucket holds at most <code>capacity</code> tokens and gets a token back every <code>period / capacity</code>. A bucket is
+ * a single <code>long</code> (the theoretical arrival time of the generic cell rate algorithm) updated by compare-and-set.
+ * The keys are hashed with a random seed, so that the collisions cannot be predicted.</p>
+ *
+ * @since 8.0.4
+ */
+public class TokenBuckets {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Getter
+    private final int capacity;
+
+    @Getter
+    private final long period;
+
+    private final AtomicLongArray buckets;
+
+    private final int mask;
+
+    private final long interval;
+
+    private final long tolerance;
+
+    private final long origin;
+
+    private final long seed = RANDOM.nextLong();
+
+    /**
+     * Build token buckets.
+     *
+     * @param stripes the number of buckets (rounded up to a power of two)
+     * @param capacity the maximum number of tokens of a bucket
+     * @param period the time to refill an empty bucket (in milliseconds)
+     */
+    public TokenBuckets(final int stripes, final int capacity, final long period) {
+        CommonHelper.assertTrue(stripes > 0, "stripes must be greater than 0");
+        CommonHelper.assertTrue(capacity > 0, "capacity must be greater than 0");
+        CommonHelper.assertTrue(period > 0, "period must be greater than 0");
+        this.capacity = capacity;
+        this.period = period;
+        val size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.buckets = new AtomicLongArray(size);
+        this.mask = size - 1;
+        val periodNanos = TimeUnit.MILLISECONDS.toNanos(period);
+        this.interval = Math.max(1L, periodNanos / capacity);
+        this.tolerance = periodNanos - interval;
+        // the buckets start full
+        this.origin = System.nanoTime() - periodNanos;
+    }
+
+    /**
+     * Whether the bucket of a key has no token left.
+     *
+     * @param key the key
+     * @return whether the bucket is empty
+     */
+    public boolean isEmpty(final String key) {
+        return key != null && buckets.get(index(key)) - now() > tolerance;
+    }
+
+    /**
+     * Take a token from the bucket of a key, even if it is empty (in which case, the delay before the next token increases).
+     *
+     * @param key the key
+     */
+    public void consume(final String key) {
+        if (key == null) {
+            return;
+        }
+        val index = index(key);
+        val now = now();
+        long current;
+        do {
+            current = buckets.get(index);
+        } while (!buckets.compareAndSet(index, current, Math.min(Math.max(current, now) + interval, now + tolerance + interval)));
+    }
+
+    /**
+     * Take a token from the bucket of a key if it is not empty.
+     *
+     * @param key the key
+     * @return whether a token was available
+     */
+    public boolean tryConsume(final String key) {
+        if (key == null) {
+            return true;
+        }
+        val index = index(key);
+        val now = now();
+        long current;
+        long next;
+        do {
+            current = buckets.get(index);
+            next = Math.max(current, now) + interval;
+            if (next - now > tolerance + interval) {
+                return false;
+            }
+        } while (!buckets.compareAndSet(index, current, next));
+        return true;
+    }
+
+    /**
+     * Get the delay before the bucket of a key gets a token back.
+     *
+     * @param key the key
+     * @return the delay (in milliseconds)
+     */
+    public long getDelay(final String key) {
+        if (key == null) {
+            return 0L;
+        }
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(buckets.get(index(key)) - now() - tolerance));
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private int index(final String key) {
+        // seeded FNV-1a
+        var hash = 0xcbf29ce484222325L ^ seed;
+        for (var i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 32;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,145 @@
+package org.pac4j.jee.filter;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.DirectClient;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.util.ConfigInitializer;
+import org.pac4j.jee.util.ProfileCache;
+import org.pac4j.jee.util.ServletMocks;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests the decorations of the clients by the plans (see {@link PlannedClients}).
+ *
+ * @since 8.0.4
+ */
+final class PlannedClientsTests {
+
+    private static final String CLIENT_NAME = "TokenClient";
+
+    private static final String TOKEN_PARAMETER = "token";
+
+    private CountingAuthenticator authenticator;
+
+    private TokenClient client;
+
+    private Config config;
+
+    @BeforeEach
+    void setUp() {
+        authenticator = new CountingAuthenticator();
+        client = new TokenClient(authenticator);
+        config = ConfigInitializer.initialize(new Config(new Clients(client)));
+    }
+
+    @Test
+    void testDecorationsOnlyApplyToTheRequestsOfThePlan() {
+        val profileCache = new ProfileCache(10, 60_000);
+        val cachedPlan = plan(profileCache);
+        val plainPlan = plan(null);
+
+        assertEquals(3, perform(cachedPlan, 3));
+        assertEquals(1, authenticator.validations.get());
+        assertEquals(2L, profileCache.getHits());
+
+        assertEquals(2, perform(plainPlan, 2));
+        assertEquals(3, authenticator.validations.get());
+        assertEquals(2L, profileCache.getHits());
+
+        // the client of the configuration is used as is
+        assertSame(client, config.getClients().findClient(CLIENT_NAME).orElseThrow());
+    }
+
+    @Test
+    void testDecorationsReleasedBeforeTheRestOfTheChain() {
+        val plan = plan(new ProfileCache(10, 60_000));
+        perform(plan, 1);
+
+        val request = ServletMocks.request("/protected", null, Map.of(TOKEN_PARAMETER, "alice"));
+        plan.perform((ctx, session, profiles) -> {
+            // a validation by the rest of the chain is not served by the cache of the plan
+            client.validateCredentials(new CallContext(ctx, session), new TokenCredentials("alice"));
+            return null;
+        }, new JEEFrameworkParameters(request, ServletMocks.response()));
+        assertEquals(2, authenticator.validations.get());
+    }
+
+    @Test
+    void testReplacedAuthenticatorDecoratedAgain() {
+        val profileCache = new ProfileCache(10, 60_000);
+        val plan = plan(profileCache);
+        perform(plan, 1);
+
+        val replacement = new CountingAuthenticator();
+        client.setAuthenticator(replacement);
+        profileCache.clear();
+        assertEquals(2, perform(plan, 2));
+        assertEquals(1, replacement.validations.get());
+        assertEquals(1L, profileCache.getHits());
+    }
+
+    private SecurityPlan plan(final ProfileCache profileCache) {
+        return SecurityPlan.builder(config).clients(CLIENT_NAME).matchers("none").profileCache(profileCache).build();
+    }
+
+    private static int perform(final SecurityPlan plan, final int requests) {
+        val granted = new AtomicInteger();
+        for (var i = 0; i < requests; i++) {
+            val request = ServletMocks.request("/protected", null, Map.of(TOKEN_PARAMETER, "alice"));
+            plan.perform((ctx, session, profiles) -> {
+                assertEquals(1, profiles.size());
+                granted.incrementAndGet();
+                return null;
+            }, new JEEFrameworkParameters(request, ServletMocks.response()));
+        }
+        return granted.get();
+    }
+
+    /**
+     * A direct client reading a token from a request parameter.
+     */
+    private static final class TokenClient extends DirectClient {
+
+        private TokenClient(final Authenticator authenticator) {
+            setName(CLIENT_NAME);
+            setAuthenticator(authenticator);
+        }
+
+        @Override
+        protected void internalInit(final boolean forceReinit) {
+            setCredentialsExtractorIfUndefined(ctx -> ctx.webContext().getRequestParameter(TOKEN_PARAMETER).map(TokenCredentials::new));
+        }
+    }
+
+    /**
+     * An authenticator counting its validations.
+     */
+    private static final class CountingAuthenticator implements Authenticator {
+
+        private final AtomicInteger validations = new AtomicInteger();
+
+        @Override
+        public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+            validations.incrementAndGet();
+            val profile = new CommonProfile();
+            profile.setId(((TokenCredentials) credentials).getToken());
+            credentials.setUserProfile(profile);
+            return Optional.of(credentials);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.pac4j.jee.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.config.Config;
+import org.pac4j.jee.metrics.MicrometerFilterMetrics;
+import org.pac4j.jee.util.Bulkhead;
+import org.pac4j.jee.util.JEEConstants;
+import org.pac4j.jee.util.ServletMocks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link RoutingSecurityFilter}.
+ *
+ * @since 8.0.4
+ */
+final class RoutingSecurityFilterTests {
+
+    @Test
+    void testSharedComponentsBuiltAndBoundOnce() throws Exception {
+        val config = new Config();
+        val apiFilter = new SecurityFilter(config, "ApiClient");
+        val adminFilter = new SecurityFilter(config, "AdminClient");
+        val routingFilter = RoutingSecurityFilter.builder(config)
+            .route("/api/*", apiFilter)
+            .route("/admin/*", adminFilter)
+            .build();
+
+        val metrics = new BindingsRecorder();
+        routingFilter.init(ServletMocks.filterConfig(Map.of(JEEConstants.BULKHEADS, "ApiClient:10,AdminClient:2", JEEConstants.METRICS, "true"),
+            Map.of(MicrometerFilterMetrics.class.getName(), metrics)));
+
+        assertNotNull(apiFilter.getClientBulkheads());
+        assertSame(apiFilter.getClientBulkheads(), adminFilter.getClientBulkheads());
+        assertSame(metrics, apiFilter.getMetrics());
+        assertEquals(List.of("ApiClient", "AdminClient"), metrics.boundBulkheads);
+        routingFilter.destroy();
+    }
+
+    /**
+     * Metrics recording the bulkheads bound to them.
+     */
+    private static final class BindingsRecorder extends MicrometerFilterMetrics {
+
+        private final List<String> boundBulkheads = new ArrayList<>();
+
+        private BindingsRecorder() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        public void bindBulkhead(final FilterType filterType, final Bulkhead bulkhead) {
+            boundBulkheads.add(bulkhead.getName());
+            super.bindBulkhead(filterType, bulkhead);
+        }
+    }
+}
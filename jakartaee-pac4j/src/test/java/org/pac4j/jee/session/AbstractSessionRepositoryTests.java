@@ -0,0 +1,109 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the contract of the {@link AbstractSessionRepository} implementations: expiration, purge and invalidations.
+ *
+ * @param <R> the type of the repository
+ * @since 8.0.4
+ */
+abstract class AbstractSessionRepositoryTests<R extends AbstractSessionRepository> {
+
+    /* Long enough for the tests to never see the data expire */
+    protected static final long TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+
+    protected static final byte[] DATA = "data".getBytes(StandardCharsets.UTF_8);
+
+    protected R repository;
+
+    /**
+     * Build an empty repository.
+     *
+     * @return the repository
+     */
+    protected abstract R newRepository();
+
+    /**
+     * The number of sessions held by the repository, expired or not.
+     *
+     * @param repository the repository
+     * @return the number of sessions
+     */
+    protected abstract int size(R repository);
+
+    @BeforeEach
+    void setUpRepository() {
+        repository = newRepository();
+    }
+
+    @Test
+    void testPutGetRemove() {
+        repository.put("id", DATA, TIME_TO_LIVE);
+        assertArrayEquals(DATA, repository.get("id").orElseThrow());
+        assertTrue(repository.get("other").isEmpty());
+
+        val newData = "new data".getBytes(StandardCharsets.UTF_8);
+        repository.put("id", newData, TIME_TO_LIVE);
+        assertArrayEquals(newData, repository.get("id").orElseThrow());
+
+        repository.remove("id");
+        assertTrue(repository.get("id").isEmpty());
+        assertEquals(0, size(repository));
+    }
+
+    @Test
+    void testExpiredSessionRemovedWhenRead() {
+        repository.put("expired", DATA, 0);
+        assertEquals(1, size(repository));
+        assertTrue(repository.get("expired").isEmpty());
+        assertEquals(0, size(repository));
+    }
+
+    @Test
+    void testPurgeRemovesTheExpiredSessionsOnly() {
+        repository.put("expired1", DATA, 0);
+        repository.put("expired2", DATA, 0);
+        repository.put("valid", DATA, TIME_TO_LIVE);
+
+        repository.purge();
+        assertEquals(1, size(repository));
+        assertArrayEquals(DATA, repository.get("valid").orElseThrow());
+    }
+
+    @Test
+    void testExpiredSessionsPurgedPeriodically() {
+        repository.put("expired", DATA, 0);
+        // the purge happens every 1024 writes
+        for (var i = 1; i < 1023; i++) {
+            repository.put("valid", DATA, TIME_TO_LIVE);
+        }
+        assertEquals(2, size(repository));
+        repository.put("valid", DATA, TIME_TO_LIVE);
+        assertEquals(1, size(repository));
+    }
+
+    @Test
+    void testListenersNotifiedOfTheChanges() {
+        final List<String> invalidations = new ArrayList<>();
+        repository.addInvalidationListener(id -> {
+            throw new IllegalStateException("failing listener");
+        });
+        repository.addInvalidationListener(invalidations::add);
+
+        repository.put("id1", DATA, TIME_TO_LIVE);
+        repository.put("id2", DATA, TIME_TO_LIVE);
+        repository.remove("id1");
+        repository.get("id2");
+        assertEquals(List.of("id1", "id2", "id1"), invalidations);
+    }
+}
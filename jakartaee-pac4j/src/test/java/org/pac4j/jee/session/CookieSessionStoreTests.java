@@ -0,0 +1,128 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.jee.context.JEEContext;
+import org.pac4j.jee.util.ServletMocks;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link CookieSessionStore}.
+ *
+ * @since 8.0.4
+ */
+final class CookieSessionStoreTests {
+
+    private static final String SECRET = "a-first-secret-of-at-least-32-characters";
+
+    private static final String NEW_SECRET = "a-second-secret-of-at-least-32-characters";
+
+    private static final String KEY = "profiles";
+
+    private static final Random RANDOM = new Random(42);
+
+    @Test
+    void testRoundTrip() {
+        val store = new CookieSessionStore(SECRET);
+        val cookies = write(store, Map.of(), KEY, "jle");
+        assertEquals(Map.of("pac4j.0", cookies.get("pac4j.0")), cookies);
+        assertFalse(cookies.get("pac4j.0").contains("jle"));
+
+        assertEquals(Optional.of("jle"), read(store, cookies, KEY));
+        assertEquals(Optional.empty(), read(store, Map.of(), KEY));
+    }
+
+    @Test
+    void testTamperedCookieRejected() {
+        val store = new CookieSessionStore(SECRET);
+        val value = write(store, Map.of(), KEY, "jle").get("pac4j.0");
+
+        val chars = value.toCharArray();
+        val last = chars.length - 1;
+        chars[last] = chars[last] == 'A' ? 'B' : 'A';
+        assertEquals(Optional.empty(), read(store, Map.of("pac4j.0", new String(chars)), KEY));
+        // the data are also bound to the name of the cookies
+        val renamedStore = new CookieSessionStore(SECRET);
+        renamedStore.setCookieName("other");
+        assertEquals(Optional.empty(), read(renamedStore, Map.of("other.0", value), KEY));
+    }
+
+    @Test
+    void testKeyRotation() {
+        val oldStore = new CookieSessionStore(SECRET);
+        val rotatedStore = new CookieSessionStore(NEW_SECRET, SECRET);
+        val newStore = new CookieSessionStore(NEW_SECRET);
+
+        val oldCookies = write(oldStore, Map.of(), KEY, "jle");
+        assertEquals(Optional.of("jle"), read(rotatedStore, oldCookies, KEY));
+        assertEquals(Optional.empty(), read(newStore, oldCookies, KEY));
+
+        // the data are encrypted again with the first key on their next change
+        val rotatedCookies = write(rotatedStore, oldCookies, KEY, "leleuj");
+        assertEquals(Optional.of("leleuj"), read(newStore, rotatedCookies, KEY));
+        assertEquals(Optional.empty(), read(oldStore, rotatedCookies, KEY));
+    }
+
+    @Test
+    void testChunksReassembled() {
+        val store = new CookieSessionStore(SECRET);
+        store.setChunkSize(100);
+        store.setMaxChunks(20);
+        val data = randomData(1000);
+
+        val cookies = write(store, Map.of(), KEY, data);
+        assertTrue(cookies.size() > 5);
+        assertEquals(Optional.of(data), read(store, cookies, KEY));
+        // a missing chunk invalidates the data
+        val missingChunk = new LinkedHashMap<>(cookies);
+        missingChunk.remove("pac4j.1");
+        assertEquals(Optional.empty(), read(store, missingChunk, KEY));
+
+        // the chunks which are no longer used are expired
+        val smallerCookies = write(store, cookies, KEY, "jle");
+        assertEquals(cookies.keySet(), smallerCookies.keySet());
+        smallerCookies.values().removeIf(String::isEmpty);
+        assertTrue(smallerCookies.size() < cookies.size());
+        assertEquals(Optional.of("jle"), read(store, smallerCookies, KEY));
+    }
+
+    @Test
+    void testDataOverTheLimitRejected() {
+        val store = new CookieSessionStore(SECRET);
+        val context = context(Map.of());
+
+        val e = assertThrows(TechnicalException.class, () -> store.set(context, KEY, randomData(8000)));
+        assertTrue(e.getMessage().contains("the limit is 2 cookies of 3500 characters"), e.getMessage());
+        store.set(context, KEY, randomData(4000));
+    }
+
+    private static Map<String, String> write(final CookieSessionStore store, final Map<String, String> cookies,
+                                             final String key, final Object value) {
+        val context = context(cookies);
+        store.set(context, key, value);
+        return ServletMocks.setCookies(context.getNativeResponse());
+    }
+
+    private static Optional<Object> read(final CookieSessionStore store, final Map<String, String> cookies, final String key) {
+        return store.get(context(cookies), key);
+    }
+
+    private static JEEContext context(final Map<String, String> cookies) {
+        return new JEEContext(ServletMocks.request("/", null, Map.of(), cookies), ServletMocks.response());
+    }
+
+    // random data can't be compressed
+    private static String randomData(final int length) {
+        val bytes = new byte[length * 3 / 4];
+        RANDOM.nextBytes(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
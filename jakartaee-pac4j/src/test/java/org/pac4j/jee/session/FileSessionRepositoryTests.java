@@ -0,0 +1,69 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link FileSessionRepository}.
+ *
+ * @since 8.0.4
+ */
+final class FileSessionRepositoryTests extends AbstractSessionRepositoryTests<FileSessionRepository> {
+
+    @TempDir
+    Path directory;
+
+    @Override
+    protected FileSessionRepository newRepository() {
+        return new FileSessionRepository(directory);
+    }
+
+    @Override
+    protected int size(final FileSessionRepository repository) {
+        try (val files = Files.list(repository.getDirectory())) {
+            return (int) files.count();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    void testSessionsSurviveANewRepository() {
+        repository.put("id", DATA, TIME_TO_LIVE);
+        assertArrayEquals(DATA, new FileSessionRepository(directory).get("id").orElseThrow());
+    }
+
+    @Test
+    void testSessionIdentifiersCannotEscapeTheDirectory() throws IOException {
+        repository.put("../../escaped", DATA, TIME_TO_LIVE);
+        try (val files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.toString().endsWith(".session")).count());
+        }
+        assertArrayEquals(DATA, repository.get("../../escaped").orElseThrow());
+    }
+
+    @Test
+    void testTruncatedFileIgnored() throws IOException {
+        repository.put("id", DATA, TIME_TO_LIVE);
+        try (val files = Files.list(directory)) {
+            Files.write(files.findFirst().orElseThrow(), new byte[3]);
+        }
+        assertTrue(repository.get("id").isEmpty());
+        assertEquals(0, size(repository));
+    }
+
+    @Test
+    void testUnwritableDirectoryRejected() throws IOException {
+        val file = Files.createFile(directory.resolve("file"));
+        assertThrows(TechnicalException.class, () -> new FileSessionRepository(file));
+    }
+}
@@ -0,0 +1,19 @@
+package org.pac4j.jee.session;
+
+/**
+ * Tests {@link InMemorySessionRepository}.
+ *
+ * @since 8.0.4
+ */
+final class InMemorySessionRepositoryTests extends AbstractSessionRepositoryTests<InMemorySessionRepository> {
+
+    @Override
+    protected InMemorySessionRepository newRepository() {
+        return new InMemorySessionRepository();
+    }
+
+    @Override
+    protected int size(final InMemorySessionRepository repository) {
+        return repository.getSize();
+    }
+}
@@ -0,0 +1,85 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.config.Config;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests {@link ConfigHolder}.
+ *
+ * @since 8.0.4
+ */
+final class ConfigHolderTests {
+
+    private static final long WAIT = 10;
+
+    @Test
+    void testPublishAndVersion() {
+        val initial = new Config();
+        val holder = new ConfigHolder(initial);
+        assertSame(initial, holder.get());
+        assertEquals(1L, holder.getVersion());
+
+        val next = new Config();
+        assertSame(initial, holder.publish(next));
+        assertSame(next, holder.get());
+        assertEquals(2L, holder.getVersion());
+        assertTrue(ConfigInitializer.isInitialized(next));
+    }
+
+    @Test
+    void testOlderConfigNeverOverwritesNewerOne() throws Exception {
+        val holder = new ConfigHolder(new Config());
+        val slow = new SlowConfig();
+        val newer = new Config();
+        val executor = Executors.newFixedThreadPool(2);
+        try {
+            val slowPublication = executor.submit(() -> holder.publish(slow));
+            assertTrue(slow.preparing.await(WAIT, TimeUnit.SECONDS));
+            // published after the slow configuration has started its initialization
+            val newerPublication = executor.submit(() -> holder.publish(newer));
+            Thread.sleep(100);
+            assertFalse(newerPublication.isDone());
+
+            slow.release.countDown();
+            slowPublication.get(WAIT, TimeUnit.SECONDS);
+            newerPublication.get(WAIT, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertSame(newer, holder.get());
+        assertEquals(3L, holder.getVersion());
+    }
+
+    /**
+     * A configuration whose initialization waits until it is released.
+     */
+    private static final class SlowConfig extends Config {
+
+        private final CountDownLatch preparing = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Clients getClients() {
+            preparing.countDown();
+            try {
+                release.await(WAIT, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.getClients();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.context.WebContextFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link ConfigInitializer}.
+ *
+ * @since 8.0.4
+ */
+final class ConfigInitializerTests {
+
+    private static final int CONFIGS = 8;
+
+    private static final int THREADS = 16;
+
+    private static final int CALLS = 100_000;
+
+    @Test
+    void testNullConfig() {
+        assertNull(ConfigInitializer.initialize(null));
+        assertFalse(ConfigInitializer.isInitialized(null));
+    }
+
+    @Test
+    void testDefaultsApplied() {
+        val config = new Config();
+        assertFalse(ConfigInitializer.isInitialized(config));
+        assertSame(config, ConfigInitializer.initialize(config));
+        assertTrue(ConfigInitializer.isInitialized(config));
+        assertNotNull(config.getWebContextFactory());
+        assertNotNull(config.getSessionStoreFactory());
+        assertNotNull(config.getSecurityLogic());
+    }
+
+    @Test
+    void testAlternatingConfigsInitializedOnceConcurrently() throws Exception {
+        final List<CountingConfig> configs = new ArrayList<>();
+        for (var i = 0; i < CONFIGS; i++) {
+            configs.add(new CountingConfig());
+        }
+
+        val start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (var t = 0; t < THREADS; t++) {
+                val offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (var i = 0; i < CALLS; i++) {
+                        val config = configs.get((i + offset) % CONFIGS);
+                        assertSame(config, ConfigInitializer.initialize(config));
+                        assertNotNull(config.getWebContextFactory());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (val future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (val config : configs) {
+            assertTrue(ConfigInitializer.isInitialized(config));
+            assertEquals(1, config.initializations.get());
+        }
+    }
+
+    /**
+     * A configuration counting the applications of the default settings.
+     */
+    private static final class CountingConfig extends Config {
+
+        private final AtomicInteger initializations = new AtomicInteger();
+
+        @Override
+        public void setWebContextFactoryIfUndefined(final WebContextFactory webContextFactory) {
+            initializations.incrementAndGet();
+            super.setWebContextFactoryIfUndefined(webContextFactory);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.pac4j.jee.util;
+
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.val;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal in-memory requests and responses for the tests, built as dynamic proxies: the methods which are not simulated
+ * return the default value of their type.
+ *
+ * @since 8.0.4
+ */
+public final class ServletMocks {
+
+    /* The remote address of the requests */
+    public static final String REMOTE_ADDRESS = "localhost";
+
+    private ServletMocks() {}
+
+    /**
+     * Build a request.
+     *
+     * @param uri the request URI
+     * @param requestedSessionId the session identifier sent by the browser (may be <code>null</code>)
+     * @param parameters the request parameters
+     * @return the request
+     */
+    public static HttpServletRequest request(final String uri, final String requestedSessionId, final Map<String, String> parameters) {
+        return request(uri, requestedSessionId, parameters, Map.of());
+    }
+
+    /**
+     * Build a request with cookies.
+     *
+     * @param uri the request URI
+     * @param requestedSessionId the session identifier sent by the browser (may be <code>null</code>)
+     * @param parameters the request parameters
+     * @param cookies the values of the cookies by name
+     * @return the request
+     */
+    public static HttpServletRequest request(final String uri, final String requestedSessionId, final Map<String, String> parameters,
+                                             final Map<String, String> cookies) {
+        final Map<String, Object> attributes = new HashMap<>();
+        return proxy(HttpServletRequest.class, (method, args) -> switch (method.getName()) {
+            case "getMethod" -> "GET";
+            case "getRemoteAddr" -> REMOTE_ADDRESS;
+            case "getRequestURI" -> uri;
+            case "getRequestURL" -> new StringBuffer("http://localhost").append(uri);
+            case "getRequestedSessionId" -> requestedSessionId;
+            case "getParameter" -> parameters.get((String) args[0]);
+            case "getCookies" -> cookies.isEmpty() ? null
+                : cookies.entrySet().stream().map(e -> new Cookie(e.getKey(), e.getValue())).toArray(Cookie[]::new);
+            case "getAttribute" -> attributes.get((String) args[0]);
+            case "setAttribute" -> attributes.put((String) args[0], args[1]);
+            case "removeAttribute" -> attributes.remove((String) args[0]);
+            default -> null;
+        });
+    }
+
+    /**
+     * Build a filter configuration, with a servlet context holding attributes.
+     *
+     * @param parameters the init parameters
+     * @param contextAttributes the initial attributes of the servlet context
+     * @return the filter configuration
+     */
+    public static FilterConfig filterConfig(final Map<String, String> parameters, final Map<String, Object> contextAttributes) {
+        final Map<String, Object> attributes = new HashMap<>(contextAttributes);
+        val servletContext = proxy(ServletContext.class, (method, args) -> switch (method.getName()) {
+            case "getAttribute" -> attributes.get((String) args[0]);
+            case "setAttribute" -> attributes.put((String) args[0], args[1]);
+            case "removeAttribute" -> attributes.remove((String) args[0]);
+            default -> null;
+        });
+        return proxy(FilterConfig.class, (method, args) -> switch (method.getName()) {
+            case "getFilterName" -> "filter";
+            case "getServletContext" -> servletContext;
+            case "getInitParameter" -> parameters.get((String) args[0]);
+            case "getInitParameterNames" -> Collections.enumeration(parameters.keySet());
+            default -> null;
+        });
+    }
+
+    /**
+     * Build a session: once invalidated, its methods throw an {@link IllegalStateException}, as in a container.
+     *
+     * @param id the session identifier
+     * @return the session
+     */
+    public static HttpSession session(final String id) {
+        final Map<String, Object> attributes = new HashMap<>();
+        val invalidated = new boolean[1];
+        return proxy(HttpSession.class, (method, args) -> {
+            if (invalidated[0] && !"getId".equals(method.getName())) {
+                throw new IllegalStateException("Session already invalidated: " + id);
+            }
+            return switch (method.getName()) {
+                case "getId" -> id;
+                case "getAttribute" -> attributes.get((String) args[0]);
+                case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                case "removeAttribute" -> attributes.remove((String) args[0]);
+                case "invalidate" -> invalidated[0] = true;
+                default -> null;
+            };
+        });
+    }
+
+    /**
+     * Build a response recording its status and headers.
+     *
+     * @return the response
+     */
+    public static HttpServletResponse response() {
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        val status = new int[] {HttpServletResponse.SC_OK};
+        return proxy(HttpServletResponse.class, (method, args) -> {
+            synchronized (headers) {
+                switch (method.getName()) {
+                    case "getStatus":
+                        return status[0];
+                    case "setStatus":
+                    case "sendError":
+                        status[0] = (Integer) args[0];
+                        return null;
+                    case "setHeader":
+                        headers.put((String) args[0], new ArrayList<>(List.of((String) args[1])));
+                        return null;
+                    case "addHeader":
+                        headers.computeIfAbsent((String) args[0], k -> new ArrayList<>()).add((String) args[1]);
+                        return null;
+                    case "getHeader":
+                        val values = headers.get((String) args[0]);
+                        return values != null ? values.get(0) : null;
+                    case "getHeaders":
+                        return List.copyOf(headers.getOrDefault((String) args[0], List.of()));
+                    case "isCommitted":
+                        return false;
+                    default:
+                        return null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the cookies set by a response, in their order: the expired cookies have an empty value.
+     *
+     * @param response the response
+     * @return the values of the cookies by name
+     */
+    public static Map<String, String> setCookies(final HttpServletResponse response) {
+        final Map<String, String> cookies = new LinkedHashMap<>();
+        for (val header : response.getHeaders("Set-Cookie")) {
+            val nameValue = header.split(";", 2)[0].split("=", 2);
+            cookies.put(nameValue[0].trim(), nameValue.length > 1 ? nameValue[1].trim() : "");
+        }
+        return cookies;
+    }
+
+    private static <T> T proxy(final Class<T> type, final Handler handler) {
+        final InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                };
+            }
+            val result = handler.handle(method, args);
+            return result != null || !method.getReturnType().isPrimitive() ? result : defaultValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(ServletMocks.class.getClassLoader(), new Class<?>[] {type}, invocationHandler));
+    }
+
+    private static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == void.class) {
+            return null;
+        }
+        return 0;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args);
+    }
+}
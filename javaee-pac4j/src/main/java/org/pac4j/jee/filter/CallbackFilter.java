@@ -1,26 +1,64 @@
 package org.pac4j.jee.filter;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.val;
-import org.pac4j.core.adapter.FrameworkAdapter;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.client.IndirectClient;
 import org.pac4j.core.config.Config;
+import org.pac4j.core.util.CommonHelper;
 import org.pac4j.core.util.Pac4jConstants;
 import org.pac4j.jee.config.AbstractConfigFilter;
-import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.metrics.FilterMetrics;
+import org.pac4j.jee.metrics.MeteredRequest;
+import org.pac4j.jee.metrics.MicrometerFilterMetrics;
+import org.pac4j.jee.util.AsyncExecution;
+import org.pac4j.jee.util.BruteForceProtection;
+import org.pac4j.jee.util.CallbackDeduplicator;
+import org.pac4j.jee.util.ClientBulkheads;
+import org.pac4j.jee.util.ClientWarmUp;
+import org.pac4j.jee.util.ConfigHolder;
+import org.pac4j.jee.util.FilterConfigHelper;
+import org.pac4j.jee.util.JEEConstants;
 
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * You should upgrade to the new <code>jakartaee-pac4j</code> library.
  *
  * <p>This filter finishes the login process for an indirect client.</p>
  *
+ * <p>Its parameters, defined by init parameters of the same name (see {@link JEEConstants}) or setters, are:</p>
+ * <ul>
+ *     <li><code>defaultUrl</code>, <code>renewSession</code> and <code>defaultClient</code>: the callback parameters</li>
+ *     <li><code>async</code>, <code>asyncTimeout</code>, <code>asyncThreads</code> and <code>asyncErrorUrl</code>: perform
+ *     the callback logic in an asynchronous execution (or an <code>asyncExecutor</code>)</li>
+ *     <li><code>metrics</code>: record Micrometer metrics (or some <code>metrics</code>)</li>
+ *     <li><code>deduplicateCallbacks</code> and <code>deduplicationTimeout</code>: coalesce the concurrent callbacks carrying
+ *     the same credentials (or a <code>callbackDeduplicator</code>)</li>
+ *     <li><code>bulkheads</code>, <code>bulkheadTimeout</code> and <code>retryAfter</code>: limit the concurrent callbacks
+ *     of each client (or some <code>clientBulkheads</code>)</li>
+ *     <li><code>bruteForceProtection</code>, <code>maxFailedAttempts</code>, <code>failedAttemptsPeriod</code>,
+ *     <code>negativeCacheTtl</code> and <code>bruteForceAddressHeader</code>: throttle the failed attempts of the clients
+ *     of forms (or a <code>bruteForceProtection</code>)</li>
+ *     <li><code>timings</code> and <code>serverTiming</code>: record the time spent in each phase of the callback logic</li>
+ *     <li><code>warmUp</code>, <code>warmUpTimeout</code> and <code>warmUpThreads</code>: initialize the clients at startup</li>
+ *     <li><code>configHolder</code>: the holder of a reloadable configuration</li>
+ * </ul>
+ *
+ * <p>The callback logic and its optional features are performed by the {@link CallbackPlan} of the filter.</p>
+ *
  * @author Jerome Leleu
  * @since 1.0.0
  */
@@ -29,12 +67,61 @@ import java.io.IOException;
 @Deprecated
 public class CallbackFilter extends AbstractConfigFilter {
 
+    private static final int DEFAULT_DEDUPLICATION_SIZE = 10_000;
+
+    private static final long DEFAULT_DEDUPLICATION_TIMEOUT = 10_000L;
+
     private String defaultUrl;
 
     private Boolean renewSession;
 
     private String defaultClient;
 
+    private Boolean async;
+
+    private Long asyncTimeout;
+
+    private Integer asyncThreads;
+
+    private String asyncErrorUrl;
+
+    private Executor asyncExecutor;
+
+    private FilterMetrics metrics;
+
+    private Boolean deduplicateCallbacks;
+
+    private Long deduplicationTimeout;
+
+    private CallbackDeduplicator callbackDeduplicator;
+
+    private ClientBulkheads clientBulkheads;
+
+    private BruteForceProtection bruteForceProtection;
+
+    private Boolean warmUp;
+
+    private Long warmUpTimeout;
+
+    private Integer warmUpThreads;
+
+    @Setter(AccessLevel.NONE)
+    private ClientWarmUp.Report warmUpReport;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private ExecutorService ownedAsyncExecutor;
+
+    private ConfigHolder configHolder;
+
+    private Boolean timings;
+
+    private Boolean serverTiming;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile CallbackPlan callbackPlan;
+
     public CallbackFilter() {}
 
     public CallbackFilter(final Config config) {
@@ -50,19 +137,144 @@ public class CallbackFilter extends AbstractConfigFilter {
     public void init(final FilterConfig filterConfig) throws ServletException {
         super.init(filterConfig);
 
+        if (this.configHolder == null && getConfig() == null) {
+            this.configHolder = ConfigHolder.fromServletContext(filterConfig.getServletContext());
+        }
+
         this.defaultUrl = getStringParam(filterConfig, Pac4jConstants.DEFAULT_URL, this.defaultUrl);
         this.renewSession = getBooleanParam(filterConfig, Pac4jConstants.RENEW_SESSION, this.renewSession);
         this.defaultClient = getStringParam(filterConfig, Pac4jConstants.DEFAULT_CLIENT, this.defaultClient);
+        this.async = getBooleanParam(filterConfig, JEEConstants.ASYNC, this.async);
+        this.asyncTimeout = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.ASYNC_TIMEOUT, this.asyncTimeout);
+        this.asyncThreads = FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.ASYNC_THREADS, this.asyncThreads);
+        this.asyncErrorUrl = getStringParam(filterConfig, JEEConstants.ASYNC_ERROR_URL, this.asyncErrorUrl);
+
+        if (Boolean.TRUE.equals(this.async) && this.asyncExecutor == null) {
+            this.ownedAsyncExecutor = AsyncExecution.newExecutor("pac4j-callback-",
+                this.asyncThreads != null ? this.asyncThreads : 0, AsyncExecution.DEFAULT_POOL_THREADS);
+            this.asyncExecutor = this.ownedAsyncExecutor;
+        }
+
+        if (this.metrics == null && Boolean.TRUE.equals(getBooleanParam(filterConfig, JEEConstants.METRICS, false))) {
+            this.metrics = MicrometerFilterMetrics.fromServletContext(filterConfig.getServletContext());
+        }
+
+        this.deduplicateCallbacks = getBooleanParam(filterConfig, JEEConstants.DEDUPLICATE_CALLBACKS, this.deduplicateCallbacks);
+        this.deduplicationTimeout = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.DEDUPLICATION_TIMEOUT, this.deduplicationTimeout);
+        if (Boolean.TRUE.equals(this.deduplicateCallbacks) && this.callbackDeduplicator == null) {
+            this.callbackDeduplicator = new CallbackDeduplicator(DEFAULT_DEDUPLICATION_SIZE,
+                this.deduplicationTimeout != null ? this.deduplicationTimeout : DEFAULT_DEDUPLICATION_TIMEOUT);
+        }
+
+        if (this.clientBulkheads == null) {
+            this.clientBulkheads = ClientBulkheads.fromFilterConfig(filterConfig);
+        }
+        if (this.clientBulkheads != null && this.metrics != null) {
+            for (val bulkhead : this.clientBulkheads.getBulkheads().values()) {
+                this.metrics.bindBulkhead(FilterMetrics.FilterType.CALLBACK, bulkhead);
+            }
+        }
+
+        // the clients of forms validate the credentials on the callback
+        if (this.bruteForceProtection == null) {
+            this.bruteForceProtection = BruteForceProtection.fromFilterConfig(filterConfig);
+        }
+
+        this.timings = getBooleanParam(filterConfig, JEEConstants.TIMINGS, this.timings);
+        this.serverTiming = getBooleanParam(filterConfig, JEEConstants.SERVER_TIMING, this.serverTiming);
+
+        this.warmUp = getBooleanParam(filterConfig, JEEConstants.WARM_UP, this.warmUp);
+        this.warmUpTimeout = FilterConfigHelper.getLongParam(filterConfig, JEEConstants.WARM_UP_TIMEOUT, this.warmUpTimeout);
+        this.warmUpThreads = FilterConfigHelper.getIntegerParam(filterConfig, JEEConstants.WARM_UP_THREADS, this.warmUpThreads);
+        if (Boolean.TRUE.equals(this.warmUp)) {
+            warmUpClients();
+        }
+    }
+
+    private void warmUpClients() {
+        val config = ConfigHolder.resolve(configHolder, getSharedConfig());
+        if (config == null || config.getClients() == null) {
+            return;
+        }
+        final List<Client> callbackClients = new ArrayList<>();
+        if (CommonHelper.isNotBlank(defaultClient)) {
+            config.getClients().findClient(defaultClient).ifPresent(callbackClients::add);
+        } else {
+            for (val client : config.getClients().findAllClients()) {
+                if (client instanceof IndirectClient) {
+                    callbackClients.add(client);
+                }
+            }
+        }
+        this.warmUpReport = ClientWarmUp.warmUp(callbackClients,
+            warmUpThreads != null ? warmUpThreads : ClientWarmUp.DEFAULT_THREADS,
+            warmUpTimeout != null ? warmUpTimeout : ClientWarmUp.DEFAULT_TIMEOUT);
+    }
+
+    @Override
+    public void destroy() {
+        if (ownedAsyncExecutor != null) {
+            ownedAsyncExecutor.shutdown();
+            ownedAsyncExecutor = null;
+        }
+        super.destroy();
     }
 
     @Override
     protected void internalFilter(final HttpServletRequest request, final HttpServletResponse response,
-                                           final FilterChain chain) throws IOException, ServletException {
+                                  final FilterChain chain) throws IOException, ServletException {
+
+        val config = ConfigHolder.resolve(configHolder, getSharedConfig());
+        val plan = getCallbackPlan(config);
+        val metered = MeteredRequest.start(metrics, FilterMetrics.FilterType.CALLBACK, request, response);
+        val clientName = metered.isEnabled() || clientBulkheads != null ? findClientName(config, request) : null;
 
-        val config = getSharedConfig();
+        if (isAsync(request)) {
+            val timeout = asyncTimeout != null ? asyncTimeout : AsyncExecution.DEFAULT_TIMEOUT;
+            AsyncExecution.execute(asyncExecutor, timeout, request, response, execution -> {
+                // the response can't be written anymore once the execution has timed out
+                plan.perform(metered, clientName, execution.getRequest(), execution.getResponse());
+                execution.complete();
+            }, (req, resp) -> {
+                if (asyncErrorUrl != null) {
+                    resp.sendRedirect(asyncErrorUrl);
+                } else {
+                    resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                }
+                metered.failed(clientName);
+            });
+            return;
+        }
 
-        FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
+        plan.perform(metered, clientName, request, response);
+    }
+
+    /**
+     * Find the name of the client of the callback, only among the defined clients to bound the values of the metrics tags.
+     */
+    private String findClientName(final Config config, final HttpServletRequest request) {
+        var name = request.getParameter(Pac4jConstants.DEFAULT_CLIENT_NAME_PARAMETER);
+        if (CommonHelper.isBlank(name)) {
+            name = defaultClient;
+        }
+        val clients = config.getClients();
+        if (name == null || clients == null) {
+            return null;
+        }
+        return clients.findClient(name).map(Client::getName).orElse(null);
+    }
+
+    private CallbackPlan getCallbackPlan(final Config config) {
+        var plan = this.callbackPlan;
+        if (plan == null || !plan.isValidFor(config, this)) {
+            plan = CallbackPlan.build(config, this);
+            this.callbackPlan = plan;
+        }
+        return plan;
+    }
 
-        config.getCallbackLogic().perform(config, defaultUrl, renewSession, defaultClient, new JEEFrameworkParameters(request, response));
+    private boolean isAsync(final HttpServletRequest request) {
+        return Boolean.TRUE.equals(async) && asyncExecutor != null && request.getDispatcherType() != DispatcherType.ASYNC
+            && request.isAsyncSupported() && !request.isAsyncStarted();
     }
 }
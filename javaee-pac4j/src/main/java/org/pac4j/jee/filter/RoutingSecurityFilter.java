@@ -0,0 +1,246 @@
+package org.pac4j.jee.filter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.jee.config.AbstractConfigFilter;
+import org.pac4j.jee.util.ConfigHolder;
+import org.pac4j.jee.util.FilterHelper;
+import org.pac4j.jee.util.JEEConstants;
+import org.pac4j.jee.util.PathTrie;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>This filter protects several URL areas with a single filter mapping: each path pattern is associated to a {@link SecurityFilter}
+ * (with its own clients, authorizers and matchers) and each request is dispatched to the filter of the most specific pattern
+ * matching its path (see {@link PathTrie}), in a time which does not depend on the number of routes.
+ * The requests matching no pattern go directly to the next filter.</p>
+ *
+ * <p>The route filters share the configuration of this filter and its init parameters (asynchronous mode, profile cache, metrics...),
+ * except the clients, authorizers, matchers, bypass paths and config factory which are specific to each route. The components
+ * built from these parameters (asynchronous executor, profile cache, metrics, bulkheads and brute force protection) are built
+ * once and shared by the routes, unless a route filter defines its own.</p>
+ *
+ * <p>The route filters also share the {@link ConfigHolder} of this filter, if any.</p>
+ *
+ * <p>The routes are usually defined with {@link FilterHelper#securityRoutes(Config)}.</p>
+ *
+ * @since 8.0.4
+ */
+@Getter
+@Deprecated
+public class RoutingSecurityFilter extends AbstractConfigFilter {
+
+    private static final Set<String> ROUTE_PARAMETERS = Set.of(Pac4jConstants.CLIENTS, Pac4jConstants.AUTHORIZERS,
+        Pac4jConstants.MATCHERS, JEEConstants.BYPASS_PATHS, Pac4jConstants.CONFIG_FACTORY);
+
+    private final Map<String, SecurityFilter> routes;
+
+    @Getter(AccessLevel.NONE)
+    private final PathTrie<SecurityFilter> routeTrie;
+
+    @Setter
+    private ConfigHolder configHolder;
+
+    /* Holder of the components shared by the route filters */
+    @Getter(AccessLevel.NONE)
+    private SecurityFilter sharedComponents;
+
+    public RoutingSecurityFilter(final Map<String, SecurityFilter> routes) {
+        CommonHelper.assertNotNull("routes", routes);
+        final PathTrie.Builder<SecurityFilter> builder = PathTrie.builder();
+        routes.forEach(builder::add);
+        this.routes = Collections.unmodifiableMap(new LinkedHashMap<>(routes));
+        this.routeTrie = builder.build();
+    }
+
+    public RoutingSecurityFilter(final Config config, final Map<String, SecurityFilter> routes) {
+        this(routes);
+        setConfig(config);
+    }
+
+    /**
+     * Start the definition of the routes.
+     *
+     * @param config the configuration
+     * @return the builder of the routes
+     */
+    public static Builder builder(final Config config) {
+        return new Builder(config, null);
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        super.init(filterConfig);
+
+        if (this.configHolder == null && getConfig() == null) {
+            this.configHolder = ConfigHolder.fromServletContext(filterConfig.getServletContext());
+        }
+
+        val config = getSharedConfig();
+        val routeFilterConfig = new RouteFilterConfig(filterConfig);
+        val components = new SecurityFilter();
+        components.initComponents(routeFilterConfig);
+        this.sharedComponents = components;
+        for (val filter : getFilters()) {
+            filter.shareComponents(components);
+            if (filter.getConfigHolder() == null && this.configHolder != null) {
+                filter.setConfigHolder(this.configHolder);
+            }
+            if (filter.getConfig() == null && config != null) {
+                filter.setConfig(config);
+            }
+            filter.init(routeFilterConfig);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (val filter : getFilters()) {
+            filter.destroy();
+        }
+        if (sharedComponents != null) {
+            sharedComponents.destroyComponents();
+            sharedComponents = null;
+        }
+        super.destroy();
+    }
+
+    @Override
+    protected void internalFilter(final HttpServletRequest request, final HttpServletResponse response,
+                                  final FilterChain filterChain) throws IOException, ServletException {
+
+        val filter = routeTrie.find(request);
+        if (filter == null) {
+            filterChain.doFilter(request, response);
+        } else {
+            filter.internalFilter(request, response, filterChain);
+        }
+    }
+
+    private Set<SecurityFilter> getFilters() {
+        // a filter may be used by several routes
+        final Set<SecurityFilter> filters = Collections.newSetFromMap(new IdentityHashMap<>());
+        filters.addAll(routes.values());
+        return filters;
+    }
+
+    /**
+     * The init parameters of the routing filter, without the parameters specific to each route.
+     */
+    private record RouteFilterConfig(FilterConfig filterConfig) implements FilterConfig {
+
+        @Override
+        public String getFilterName() {
+            return filterConfig.getFilterName();
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return filterConfig.getServletContext();
+        }
+
+        @Override
+        public String getInitParameter(final String name) {
+            return ROUTE_PARAMETERS.contains(name) ? null : filterConfig.getInitParameter(name);
+        }
+
+        @Override
+        public Enumeration<String> getInitParameterNames() {
+            val names = Collections.list(filterConfig.getInitParameterNames());
+            names.removeAll(ROUTE_PARAMETERS);
+            return Collections.enumeration(names);
+        }
+    }
+
+    /**
+     * Builder of the routes of a {@link RoutingSecurityFilter}.
+     */
+    public static final class Builder {
+
+        private final Config config;
+
+        private final FilterHelper filterHelper;
+
+        private final Map<String, SecurityFilter> routes = new LinkedHashMap<>();
+
+        /**
+         * Build the routes.
+         *
+         * @param config the configuration
+         * @param filterHelper the helper to register the filter (optional)
+         */
+        public Builder(final Config config, final FilterHelper filterHelper) {
+            this.config = config;
+            this.filterHelper = filterHelper;
+        }
+
+        public Builder route(final String pattern, final String clients) {
+            return route(pattern, clients, null, null);
+        }
+
+        public Builder route(final String pattern, final String clients, final String authorizers) {
+            return route(pattern, clients, authorizers, null);
+        }
+
+        public Builder route(final String pattern, final String clients, final String authorizers, final String matchers) {
+            return route(pattern, new SecurityFilter(config, clients, authorizers, matchers));
+        }
+
+        /**
+         * Protect the paths matching the pattern with a specific security filter.
+         *
+         * @param pattern the path pattern
+         * @param filter the security filter
+         * @return this builder
+         */
+        public Builder route(final String pattern, final SecurityFilter filter) {
+            CommonHelper.assertNotBlank("pattern", pattern);
+            CommonHelper.assertNotNull("filter", filter);
+            if (routes.putIfAbsent(pattern.trim(), filter) != null) {
+                throw new TechnicalException("Duplicate route: " + pattern);
+            }
+            return this;
+        }
+
+        public RoutingSecurityFilter build() {
+            return config != null ? new RoutingSecurityFilter(config, routes) : new RoutingSecurityFilter(routes);
+        }
+
+        /**
+         * Build the routing filter and register it with the filter helper.
+         *
+         * @param name the name of the filter
+         * @param parameters the URLs on which it applies and the supported dispatcher types
+         * @return the routing filter
+         */
+        public RoutingSecurityFilter register(final String name, final Object... parameters) {
+            if (filterHelper == null) {
+                throw new TechnicalException("No FilterHelper to register the routing filter");
+            }
+            val filter = build();
+            filterHelper.addFilterMapping(name, filter, parameters);
+            return filter;
+        }
+    }
+}
@@ -0,0 +1,576 @@
+package org.pac4j.jee.filter;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.authorization.authorizer.Authorizer;
+import org.pac4j.core.authorization.checker.DefaultAuthorizationChecker;
+import org.pac4j.core.client.Client;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.client.finder.DefaultSecurityClientFinder;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.engine.DefaultSecurityLogic;
+import org.pac4j.core.engine.SecurityGrantedAccessAdapter;
+import org.pac4j.core.engine.SecurityLogic;
+import org.pac4j.core.exception.http.HttpAction;
+import org.pac4j.core.matching.checker.DefaultMatchingChecker;
+import org.pac4j.core.matching.matcher.Matcher;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.metrics.MeteredRequest;
+import org.pac4j.jee.metrics.RequestTimings;
+import org.pac4j.jee.metrics.TimedClients;
+import org.pac4j.jee.metrics.TimedHttpServletRequest;
+import org.pac4j.jee.session.WriteBehindSessionStore;
+import org.pac4j.jee.util.BruteForceProtectingAuthenticator;
+import org.pac4j.jee.util.BruteForceProtection;
+import org.pac4j.jee.util.BulkheadAuthenticator;
+import org.pac4j.jee.util.ClientBulkheads;
+import org.pac4j.jee.util.ProfileCache;
+import org.pac4j.jee.util.ProfileCachingAuthenticator;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The immutable security plan of a {@link SecurityFilter}: its clients, authorizers and matchers resolved against a given
+ * {@link Config}.</p>
+ *
+ * <p>When the configuration uses the {@link DefaultSecurityLogic} and its default components, the plan runs a dedicated copy
+ * of this logic whose client finder and checkers resolve the names once and reuse the resolved clients, authorizers
+ * and matchers for the following requests. Otherwise, the shared security logic of the configuration is used as is.</p>
+ *
+ * <p>With a {@link ProfileCache}, some {@link ClientBulkheads}, a {@link BruteForceProtection} or the timings, the planned client
+ * finder decorates the authenticators of the direct clients (see {@link PlannedClients}), from the outside in,
+ * by the timings, a {@link ProfileCachingAuthenticator}, a {@link BruteForceProtectingAuthenticator} and a {@link BulkheadAuthenticator}:
+ * the cached profiles are neither throttled nor limited and the throttled attempts do not take any permit of the bulkhead.
+ * The decorations only apply to the requests of the filter, so the other filters and the callbacks are not affected.</p>
+ *
+ * <p>When the plan is timed, the planned checkers also record the time spent in the matchers and the authorizers,
+ * and the planned logic the redirections to the identity provider, in the {@link RequestTimings} of the requests
+ * (sent in a <code>Server-Timing</code> header if required).</p>
+ *
+ * <p>For the servlet requests, the plan also meters the security checks and writes the session changes buffered by
+ * a {@link WriteBehindSessionStore} before the rest of the filter chain.</p>
+ *
+ * <p>The plans are defined with a {@link Builder} (see {@link #builder(Config)}).
+ * The resolution happens during the first request, so that errors are still handled by the security logic.
+ * The plan must be rebuilt when the configuration or the security parameters change (see {@link #isValidFor}).</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Getter
+@Deprecated
+public final class SecurityPlan {
+
+    private final Config config;
+
+    private final String clients;
+
+    private final String authorizers;
+
+    private final String matchers;
+
+    private final Clients configClients;
+
+    private final Map<String, Authorizer> configAuthorizers;
+
+    private final Map<String, Matcher> configMatchers;
+
+    private final SecurityLogic configSecurityLogic;
+
+    private final SecurityLogic securityLogic;
+
+    private final ProfileCache profileCache;
+
+    private final ClientBulkheads bulkheads;
+
+    private final BruteForceProtection bruteForceProtection;
+
+    private final boolean timed;
+
+    private final boolean serverTiming;
+
+    private SecurityPlan(final Builder builder) {
+        this.config = builder.config;
+        this.clients = builder.clients;
+        this.authorizers = builder.authorizers;
+        this.matchers = builder.matchers;
+        this.configClients = config.getClients();
+        this.configAuthorizers = config.getAuthorizers();
+        this.configMatchers = config.getMatchers();
+        this.configSecurityLogic = config.getSecurityLogic();
+        this.profileCache = builder.profileCache;
+        this.bulkheads = builder.bulkheads;
+        this.bruteForceProtection = builder.bruteForceProtection;
+        this.timed = builder.timed || builder.serverTiming;
+        this.serverTiming = builder.serverTiming;
+        this.securityLogic = buildSecurityLogic(configSecurityLogic, clients,
+            timed || profileCache != null || bulkheads != null || bruteForceProtection != null ? this::decorate : null, timed);
+    }
+
+    /**
+     * Start the definition of the security plan for the given configuration.
+     *
+     * @param config the configuration (with its default settings applied)
+     * @return the builder of the plan
+     */
+    public static Builder builder(final Config config) {
+        return new Builder(config);
+    }
+
+    /**
+     * Whether this plan still applies to the given configuration and security parameters.
+     * The configuration components are compared by reference, so this check is cheap enough to be performed on each request.
+     *
+     * @param config the configuration
+     * @param clients the clients
+     * @param authorizers the authorizers
+     * @param matchers the matchers
+     * @return whether the plan is still valid
+     */
+    public boolean isValidFor(final Config config, final String clients, final String authorizers, final String matchers) {
+        return this.config == config && Objects.equals(this.clients, clients) && Objects.equals(this.authorizers, authorizers)
+            && Objects.equals(this.matchers, matchers) && configClients == config.getClients() && configAuthorizers == config.getAuthorizers()
+            && configMatchers == config.getMatchers() && configSecurityLogic == config.getSecurityLogic();
+    }
+
+    /**
+     * Perform the security logic according to this plan.
+     *
+     * @param securityGrantedAccessAdapter the adapter called when the access is granted
+     * @param parameters the framework parameters
+     * @return the result of the security logic
+     */
+    public Object perform(final SecurityGrantedAccessAdapter securityGrantedAccessAdapter, final FrameworkParameters parameters) {
+        // the decorations of the clients no longer apply to the rest of the filter chain
+        return securityLogic.perform(config, (ctx, session, profiles) -> {
+            PlannedClients.release(ctx);
+            return securityGrantedAccessAdapter.adapt(ctx, session, profiles);
+        }, clients, authorizers, matchers, parameters);
+    }
+
+    /**
+     * Perform the security logic for a servlet request according to this plan: timed, metered and within the write-behind
+     * scope of the session changes.
+     *
+     * @param metered the metering of the request
+     * @param request the request
+     * @param response the response
+     * @param securityGrantedAccessAdapter the adapter called when the access is granted
+     */
+    public void perform(final MeteredRequest metered, final HttpServletRequest request, final HttpServletResponse response,
+                        final SecurityGrantedAccessAdapter securityGrantedAccessAdapter) {
+        val requestTimings = timed ? RequestTimings.start(request) : null;
+        // the scope is closed once: after the grant, the request may have been dispatched and must no longer be used
+        val openedScope = new AtomicBoolean(WriteBehindSessionStore.open(request, config));
+        // the session changes are written before the rest of the filter chain, which may commit the response
+        final SecurityGrantedAccessAdapter grantedAccessAdapter = openedScope.get() ? (ctx, session, profiles) -> {
+            if (openedScope.getAndSet(false)) {
+                WriteBehindSessionStore.close(request);
+            }
+            return securityGrantedAccessAdapter.adapt(ctx, session, profiles);
+        } : securityGrantedAccessAdapter;
+        try {
+            if (requestTimings == null) {
+                performMetered(metered, request, response, grantedAccessAdapter);
+            } else {
+                // the timings are sent before the rest of the filter chain
+                performMetered(metered, new TimedHttpServletRequest(request, requestTimings), response, (ctx, session, profiles) -> {
+                    requestTimings.finish(response, serverTiming);
+                    return grantedAccessAdapter.adapt(ctx, session, profiles);
+                });
+            }
+        } finally {
+            if (openedScope.getAndSet(false)) {
+                WriteBehindSessionStore.close(request);
+            }
+            if (requestTimings != null) {
+                requestTimings.finish(response, serverTiming);
+            }
+        }
+    }
+
+    private void performMetered(final MeteredRequest metered, final HttpServletRequest request, final HttpServletResponse response,
+                                final SecurityGrantedAccessAdapter securityGrantedAccessAdapter) {
+        val parameters = new JEEFrameworkParameters(request, response);
+        if (!metered.isEnabled()) {
+            perform(securityGrantedAccessAdapter, parameters);
+            return;
+        }
+
+        try {
+            perform((ctx, session, profiles) -> {
+                // the time spent in the rest of the filter chain is not measured
+                if (profiles.isEmpty()) {
+                    metered.completed(null);
+                } else {
+                    metered.granted(profiles.iterator().next().getClientName());
+                }
+                return securityGrantedAccessAdapter.adapt(ctx, session, profiles);
+            }, parameters);
+        } catch (final RuntimeException e) {
+            metered.failed(clients);
+            throw e;
+        }
+        metered.completed(clients);
+    }
+
+    /*
+     * The decorators of the authenticator of a direct client, in this order: timings, profile cache, brute force protection,
+     * bulkhead and the authenticator of the client itself.
+     */
+    private Authenticator decorate(final Authenticator validation, final String clientName) {
+        var decorated = validation;
+        val bulkhead = bulkheads != null ? bulkheads.get(clientName) : null;
+        if (bulkhead != null) {
+            decorated = new BulkheadAuthenticator(decorated, bulkhead, bulkheads);
+        }
+        if (bruteForceProtection != null) {
+            decorated = new BruteForceProtectingAuthenticator(decorated, bruteForceProtection, clientName);
+        }
+        if (profileCache != null) {
+            decorated = new ProfileCachingAuthenticator(decorated, profileCache, clientName);
+        }
+        if (timed) {
+            decorated = new TimedClients.TimedAuthenticator(decorated);
+        }
+        return decorated;
+    }
+
+    /**
+     * Resolve the clients of a security filter: the given ones, the default security clients or the single defined client.
+     *
+     * @param clients the clients of the configuration
+     * @param clientNames the client names (separated by commas), possibly blank
+     * @return the resolved clients
+     */
+    public static List<Client> resolveClients(final Clients clients, final String clientNames) {
+        var securityClientNames = clientNames;
+        if (CommonHelper.isBlank(securityClientNames)) {
+            securityClientNames = clients.getDefaultSecurityClients();
+            if (CommonHelper.isBlank(securityClientNames)) {
+                val clientList = clients.findAllClients();
+                if (clientList != null && clientList.size() == 1) {
+                    securityClientNames = clientList.get(0).getName();
+                }
+            }
+        }
+
+        final List<Client> result = new ArrayList<>();
+        if (CommonHelper.isNotBlank(securityClientNames)) {
+            for (val name : securityClientNames.split(Pac4jConstants.ELEMENT_SEPARATOR)) {
+                clients.findClient(name).ifPresent(result::add);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static SecurityLogic buildSecurityLogic(final SecurityLogic configSecurityLogic, final String clients,
+                                                    final PlannedClients.AuthenticatorDecorator decorator, final boolean timed) {
+        if (configSecurityLogic == null || configSecurityLogic.getClass() != DefaultSecurityLogic.class) {
+            if (decorator != null) {
+                LOGGER.warn("Custom security logic: the profile cache, bulkheads, brute force protection and timings are not applied");
+            }
+            return configSecurityLogic;
+        }
+
+        val defaultLogic = (DefaultSecurityLogic) configSecurityLogic;
+        val plannedLogic = new PlannedSecurityLogic(timed);
+        plannedLogic.setSavedRequestHandler(defaultLogic.getSavedRequestHandler());
+        plannedLogic.setLoadProfilesFromSession(defaultLogic.isLoadProfilesFromSession());
+        plannedLogic.setErrorUrl(defaultLogic.getErrorUrl());
+
+        val clientFinder = defaultLogic.getClientFinder();
+        if (clientFinder != null && clientFinder.getClass() == DefaultSecurityClientFinder.class) {
+            val plannedClientFinder = new PlannedClientFinder(clients, decorator != null ? new PlannedClients(decorator, timed) : null);
+            plannedClientFinder.setClientNameParameter(((DefaultSecurityClientFinder) clientFinder).getClientNameParameter());
+            plannedLogic.setClientFinder(plannedClientFinder);
+        } else {
+            if (decorator != null) {
+                LOGGER.warn("Custom client finder: the profile cache, bulkheads, brute force protection and timings are not applied");
+            }
+            plannedLogic.setClientFinder(clientFinder);
+        }
+
+        val authorizationChecker = defaultLogic.getAuthorizationChecker();
+        if (authorizationChecker != null && authorizationChecker.getClass() == DefaultAuthorizationChecker.class) {
+            plannedLogic.setAuthorizationChecker(new PlannedAuthorizationChecker(timed));
+        } else {
+            plannedLogic.setAuthorizationChecker(authorizationChecker);
+        }
+
+        val matchingChecker = defaultLogic.getMatchingChecker();
+        if (matchingChecker != null && matchingChecker.getClass() == DefaultMatchingChecker.class) {
+            plannedLogic.setMatchingChecker(new PlannedMatchingChecker(timed));
+        } else {
+            plannedLogic.setMatchingChecker(matchingChecker);
+        }
+
+        return plannedLogic;
+    }
+
+    /**
+     * Security logic recording the duration of the redirections to the identity provider (if timed).
+     */
+    private static final class PlannedSecurityLogic extends DefaultSecurityLogic {
+
+        private final boolean timed;
+
+        private PlannedSecurityLogic(final boolean timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        protected HttpAction redirectToIdentityProvider(final CallContext ctx, final List<Client> currentClients) {
+            val timings = timed ? RequestTimings.current(ctx.webContext()) : null;
+            if (timings == null) {
+                return super.redirectToIdentityProvider(ctx, currentClients);
+            }
+            val start = System.nanoTime();
+            try {
+                return super.redirectToIdentityProvider(ctx, currentClients);
+            } finally {
+                timings.recordSince(RequestTimings.Phase.REDIRECT, start);
+            }
+        }
+    }
+
+    /**
+     * Client finder reusing the clients resolved from the names, unless a specific client is requested,
+     * and applying the decorations of the plan to the clients found.
+     */
+    private static final class PlannedClientFinder extends DefaultSecurityClientFinder {
+
+        private final String clientNames;
+
+        private final PlannedClients plannedClients;
+
+        private volatile ResolvedClients resolvedClients;
+
+        private PlannedClientFinder(final String clientNames, final PlannedClients plannedClients) {
+            this.clientNames = clientNames;
+            this.plannedClients = plannedClients;
+        }
+
+        @Override
+        public List<Client> find(final Clients clients, final WebContext context, final String clientNames) {
+            // initialize the clients if necessary and detect their changes
+            clients.findAllClients();
+            val clientsMap = clients.getClientsMap();
+            var resolved = this.resolvedClients;
+            if (resolved == null || resolved.clientsMap != clientsMap) {
+                resolved = new ResolvedClients(clientsMap, resolveClients(clients, this.clientNames));
+                this.resolvedClients = resolved;
+            }
+
+            final List<Client> found;
+            if (!Objects.equals(clientNames, this.clientNames) || context.getRequestParameter(getClientNameParameter()).isPresent()) {
+                found = super.find(clients, context, clientNames);
+            } else {
+                found = resolved.clients;
+            }
+            return plannedClients != null ? plannedClients.apply(found, context) : found;
+        }
+    }
+
+    private record ResolvedClients(Map<String, Client> clientsMap, List<Client> clients) {}
+
+    /**
+     * Builder of a {@link SecurityPlan}: the security parameters and the optional components decorating the clients.
+     */
+    public static final class Builder {
+
+        private final Config config;
+
+        private String clients;
+
+        private String authorizers;
+
+        private String matchers;
+
+        private ProfileCache profileCache;
+
+        private ClientBulkheads bulkheads;
+
+        private BruteForceProtection bruteForceProtection;
+
+        private boolean timed;
+
+        private boolean serverTiming;
+
+        private Builder(final Config config) {
+            CommonHelper.assertNotNull("config", config);
+            this.config = config;
+        }
+
+        public Builder clients(final String clients) {
+            this.clients = clients;
+            return this;
+        }
+
+        public Builder authorizers(final String authorizers) {
+            this.authorizers = authorizers;
+            return this;
+        }
+
+        public Builder matchers(final String matchers) {
+            this.matchers = matchers;
+            return this;
+        }
+
+        /**
+         * Cache the profiles of the direct clients.
+         *
+         * @param profileCache the profile cache (optional)
+         * @return this builder
+         */
+        public Builder profileCache(final ProfileCache profileCache) {
+            this.profileCache = profileCache;
+            return this;
+        }
+
+        /**
+         * Limit the concurrent validations of the credentials of the direct clients.
+         *
+         * @param bulkheads the bulkheads of the clients (optional)
+         * @return this builder
+         */
+        public Builder bulkheads(final ClientBulkheads bulkheads) {
+            this.bulkheads = bulkheads;
+            return this;
+        }
+
+        /**
+         * Protect all the clients against the brute force attacks.
+         *
+         * @param bruteForceProtection the brute force protection (optional)
+         * @return this builder
+         */
+        public Builder bruteForceProtection(final BruteForceProtection bruteForceProtection) {
+            this.bruteForceProtection = bruteForceProtection;
+            return this;
+        }
+
+        /**
+         * Record the timings of the requests.
+         *
+         * @param timed whether the timings of the requests are recorded
+         * @return this builder
+         */
+        public Builder timed(final boolean timed) {
+            this.timed = timed;
+            return this;
+        }
+
+        /**
+         * Send the timings of the requests in a <code>Server-Timing</code> header (which implies recording them).
+         *
+         * @param serverTiming whether the timings are sent in a response header
+         * @return this builder
+         */
+        public Builder serverTiming(final boolean serverTiming) {
+            this.serverTiming = serverTiming;
+            return this;
+        }
+
+        public SecurityPlan build() {
+            return new SecurityPlan(this);
+        }
+    }
+
+    /**
+     * Authorization checker resolving each authorizer names only once (and recording its duration if timed).
+     */
+    private static final class PlannedAuthorizationChecker extends DefaultAuthorizationChecker {
+
+        private final Map<String, List<Authorizer>> resolvedAuthorizers = new ConcurrentHashMap<>();
+
+        private final boolean timed;
+
+        private PlannedAuthorizationChecker(final boolean timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        public boolean isAuthorized(final WebContext context, final SessionStore sessionStore, final List<UserProfile> profiles,
+                                    final String authorizersValue, final Map<String, Authorizer> authorizersMap, final List<Client> clients) {
+            val timings = timed ? RequestTimings.current(context) : null;
+            if (timings == null) {
+                return super.isAuthorized(context, sessionStore, profiles, authorizersValue, authorizersMap, clients);
+            }
+            val start = System.nanoTime();
+            try {
+                return super.isAuthorized(context, sessionStore, profiles, authorizersValue, authorizersMap, clients);
+            } finally {
+                timings.recordSince(RequestTimings.Phase.AUTHORIZATION, start);
+            }
+        }
+
+        @Override
+        protected List<Authorizer> computeAuthorizersFromNames(final String authorizerNames, final Map<String, Authorizer> authorizersMap) {
+            val authorizers = resolvedAuthorizers.get(authorizerNames);
+            if (authorizers != null) {
+                return authorizers;
+            }
+            return resolvedAuthorizers.computeIfAbsent(authorizerNames,
+                names -> Collections.unmodifiableList(super.computeAuthorizersFromNames(names, authorizersMap)));
+        }
+    }
+
+    /**
+     * Matching checker resolving each matcher names only once (and recording its duration if timed).
+     */
+    private static final class PlannedMatchingChecker extends DefaultMatchingChecker {
+
+        private final Map<String, List<Matcher>> resolvedMatchers = new ConcurrentHashMap<>();
+
+        private final boolean timed;
+
+        private PlannedMatchingChecker(final boolean timed) {
+            this.timed = timed;
+        }
+
+        @Override
+        public boolean matches(final CallContext ctx, final String matchersValue, final Map<String, Matcher> matchersMap,
+                               final List<Client> clients) {
+            val timings = timed ? RequestTimings.current(ctx.webContext()) : null;
+            if (timings == null) {
+                return super.matches(ctx, matchersValue, matchersMap, clients);
+            }
+            val start = System.nanoTime();
+            try {
+                return super.matches(ctx, matchersValue, matchersMap, clients);
+            } finally {
+                timings.recordSince(RequestTimings.Phase.MATCHERS, start);
+            }
+        }
+
+        @Override
+        protected List<Matcher> computeMatchersFromNames(final String matcherNames, final Map<String, Matcher> matchersMap) {
+            val matchers = resolvedMatchers.get(matcherNames);
+            if (matchers != null) {
+                return matchers;
+            }
+            return resolvedMatchers.computeIfAbsent(matcherNames,
+                names -> Collections.unmodifiableList(super.computeMatchersFromNames(names, matchersMap)));
+        }
+    }
+}
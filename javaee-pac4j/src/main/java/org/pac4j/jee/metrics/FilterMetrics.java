@@ -0,0 +1,117 @@
+package org.pac4j.jee.metrics;
+
+import org.pac4j.jee.util.Bulkhead;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The metrics recorded by the pac4j filters.</p>
+ *
+ * <p>This abstraction does not depend on any metrics library, so that the filters can be loaded without it:
+ * see {@link MicrometerFilterMetrics} for the Micrometer implementation. When no metrics are defined on a filter,
+ * nothing is measured.</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public interface FilterMetrics {
+
+    /**
+     * Record the time spent by a filter to handle a request.
+     *
+     * @param filterType the type of filter
+     * @param clientName the name of the client (may be <code>null</code>)
+     * @param outcome the outcome
+     * @param durationNanos the duration (in nanoseconds)
+     */
+    void recordRequest(FilterType filterType, String clientName, Outcome outcome, long durationNanos);
+
+    /**
+     * Record the creation of a web session by a filter.
+     *
+     * @param filterType the type of filter
+     */
+    void recordSessionCreation(FilterType filterType);
+
+    /**
+     * Record an attempt to create a web session blocked by a filter in stateless mode.
+     *
+     * @param filterType the type of filter
+     */
+    void recordBlockedSession(FilterType filterType);
+
+    /**
+     * Record the duration of a successful validation, on a callback, of the credentials returned by the identity provider,
+     * including the exchange of the authorization code for tokens: the rest of the callback (session, redirection...)
+     * is not included.
+     *
+     * @param clientName the name of the client (may be <code>null</code>)
+     * @param durationNanos the duration (in nanoseconds)
+     */
+    void recordCallbackExchange(String clientName, long durationNanos);
+
+    /**
+     * Monitor the bulkhead of a client used by a filter: its calls in progress, waiting and rejected.
+     *
+     * @param filterType the type of filter
+     * @param bulkhead the bulkhead
+     */
+    void bindBulkhead(FilterType filterType, Bulkhead bulkhead);
+
+    /**
+     * The types of filter.
+     */
+    enum FilterType {
+        SECURITY, CALLBACK, LOGOUT;
+
+        private final String tag = name().toLowerCase();
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    /**
+     * The outcomes of a request handled by a filter.
+     */
+    enum Outcome {
+        /* The access is granted */
+        AUTHENTICATED,
+        /* The user is redirected (to the identity provider, the original URL...) */
+        REDIRECTED,
+        FORBIDDEN,
+        UNAUTHORIZED,
+        /* The filter has written a successful response itself */
+        COMPLETED,
+        /* The request is rejected because a client is overloaded */
+        UNAVAILABLE,
+        ERROR;
+
+        private final String tag = name().toLowerCase();
+
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * The outcome of a request not granted by a filter, given the status of its response.
+         *
+         * @param status the HTTP status code
+         * @return the outcome
+         */
+        public static Outcome fromStatus(final int status) {
+            if (status == 401) {
+                return UNAUTHORIZED;
+            } else if (status == 403) {
+                return FORBIDDEN;
+            } else if (status >= 300 && status < 400) {
+                return REDIRECTED;
+            } else if (status >= 200 && status < 300) {
+                return COMPLETED;
+            } else if (status == 503) {
+                return UNAVAILABLE;
+            }
+            return ERROR;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package org.pac4j.jee.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jee.util.Bulkhead;
+
+import javax.servlet.ServletContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The {@link FilterMetrics} backed by a Micrometer {@link MeterRegistry}:</p>
+ * <ul>
+ *     <li><code>pac4j.filter.requests</code>: the time spent in the filters, tagged by <code>filter</code>, <code>client</code>
+ *     and <code>outcome</code></li>
+ *     <li><code>pac4j.sessions.created</code>: the number of web sessions created by the filters, tagged by <code>filter</code></li>
+ *     <li><code>pac4j.sessions.blocked</code>: the number of attempts to create a web session blocked in stateless mode,
+ *     tagged by <code>filter</code></li>
+ *     <li><code>pac4j.callback.exchange</code>: the duration of the successful validations of the credentials on the callbacks
+ *     (the exchange of the authorization code for tokens for example), tagged by <code>client</code></li>
+ *     <li><code>pac4j.bulkhead.inflight</code>, <code>pac4j.bulkhead.waiting</code> and <code>pac4j.bulkhead.rejected</code>:
+ *     the calls in progress, waiting and rejected by the bulkheads of the clients, tagged by <code>filter</code> and
+ *     <code>client</code></li>
+ * </ul>
+ *
+ * <p>The meters are registered once per filter type, client and outcome, so that no tag is allocated when a request is recorded.
+ * The number of client tags is bounded: once reached, the other clients are tagged as <code>other</code>.</p>
+ *
+ * <p>An instance can be shared by all the filters of an application: set it programmatically on the filters or use the
+ * <code>metrics</code> init parameter, in which case the registry is read from the {@link #REGISTRY_ATTRIBUTE} attribute
+ * of the servlet context (or the global registry if it is not defined).</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public class MicrometerFilterMetrics implements FilterMetrics {
+
+    /* The servlet context attribute holding the registry to use for the filters configured with the metrics init parameter */
+    public static final String REGISTRY_ATTRIBUTE = MeterRegistry.class.getName();
+
+    private static final String METRICS_ATTRIBUTE = MicrometerFilterMetrics.class.getName();
+
+    private static final String NO_CLIENT = "none";
+
+    private static final String OTHER_CLIENTS = "other";
+
+    private static final int DEFAULT_MAX_CLIENTS = 64;
+
+    @Getter
+    private final MeterRegistry registry;
+
+    private final int maxClients;
+
+    private final Map<String, Timer[]>[] requestTimers;
+
+    private final Counter[] sessionCounters;
+
+    private final Counter[] blockedSessionCounters;
+
+    private final Map<String, Timer> exchangeTimers = new ConcurrentHashMap<>();
+
+    public MicrometerFilterMetrics(final MeterRegistry registry) {
+        this(registry, DEFAULT_MAX_CLIENTS);
+    }
+
+    @SuppressWarnings("unchecked")
+    public MicrometerFilterMetrics(final MeterRegistry registry, final int maxClients) {
+        CommonHelper.assertNotNull("registry", registry);
+        this.registry = registry;
+        this.maxClients = maxClients;
+        val filterTypes = FilterType.values();
+        this.requestTimers = new Map[filterTypes.length];
+        this.sessionCounters = new Counter[filterTypes.length];
+        this.blockedSessionCounters = new Counter[filterTypes.length];
+        for (val filterType : filterTypes) {
+            requestTimers[filterType.ordinal()] = new ConcurrentHashMap<>();
+            sessionCounters[filterType.ordinal()] = Counter.builder("pac4j.sessions.created")
+                .description("Web sessions created by the pac4j filters")
+                .tag("filter", filterType.getTag())
+                .register(registry);
+            blockedSessionCounters[filterType.ordinal()] = Counter.builder("pac4j.sessions.blocked")
+                .description("Attempts to create a web session blocked by the pac4j filters in stateless mode")
+                .tag("filter", filterType.getTag())
+                .register(registry);
+        }
+    }
+
+    /**
+     * Get the metrics shared by the filters of a servlet context.
+     *
+     * @param servletContext the servlet context
+     * @return the metrics
+     */
+    public static MicrometerFilterMetrics fromServletContext(final ServletContext servletContext) {
+        synchronized (servletContext) {
+            if (servletContext.getAttribute(METRICS_ATTRIBUTE) instanceof MicrometerFilterMetrics metrics) {
+                return metrics;
+            }
+            final MeterRegistry registry;
+            if (servletContext.getAttribute(REGISTRY_ATTRIBUTE) instanceof MeterRegistry meterRegistry) {
+                registry = meterRegistry;
+            } else {
+                registry = Metrics.globalRegistry;
+            }
+            val metrics = new MicrometerFilterMetrics(registry);
+            servletContext.setAttribute(METRICS_ATTRIBUTE, metrics);
+            return metrics;
+        }
+    }
+
+    @Override
+    public void recordRequest(final FilterType filterType, final String clientName, final Outcome outcome, final long durationNanos) {
+        val timersByClient = requestTimers[filterType.ordinal()];
+        var timers = timersByClient.get(clientName == null ? NO_CLIENT : clientName);
+        if (timers == null) {
+            timers = registerRequestTimers(timersByClient, filterType, clientName);
+        }
+        timers[outcome.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSessionCreation(final FilterType filterType) {
+        sessionCounters[filterType.ordinal()].increment();
+    }
+
+    @Override
+    public void recordBlockedSession(final FilterType filterType) {
+        blockedSessionCounters[filterType.ordinal()].increment();
+    }
+
+    @Override
+    public void recordCallbackExchange(final String clientName, final long durationNanos) {
+        var timer = exchangeTimers.get(clientName == null ? NO_CLIENT : clientName);
+        if (timer == null) {
+            val tag = clientTag(exchangeTimers, clientName);
+            timer = exchangeTimers.computeIfAbsent(tag, t -> Timer.builder("pac4j.callback.exchange")
+                .description("Duration of the successful validations of the credentials on the callbacks")
+                .tag("client", t)
+                .register(registry));
+        }
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void bindBulkhead(final FilterType filterType, final Bulkhead bulkhead) {
+        val tags = Tags.of("filter", filterType.getTag(), "client", bulkhead.getName());
+        Gauge.builder("pac4j.bulkhead.inflight", bulkhead, Bulkhead::getInFlightCalls)
+            .description("Calls in progress in the bulkheads of the pac4j clients")
+            .tags(tags)
+            .register(registry);
+        Gauge.builder("pac4j.bulkhead.waiting", bulkhead, Bulkhead::getWaitingCalls)
+            .description("Calls waiting for a permit of the bulkheads of the pac4j clients")
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder("pac4j.bulkhead.rejected", bulkhead, Bulkhead::getRejectedCalls)
+            .description("Calls rejected by the bulkheads of the pac4j clients")
+            .tags(tags)
+            .register(registry);
+    }
+
+    private Timer[] registerRequestTimers(final Map<String, Timer[]> timersByClient, final FilterType filterType,
+                                          final String clientName) {
+        val tag = clientTag(timersByClient, clientName);
+        return timersByClient.computeIfAbsent(tag, t -> {
+            val outcomes = Outcome.values();
+            val timers = new Timer[outcomes.length];
+            for (val outcome : outcomes) {
+                timers[outcome.ordinal()] = Timer.builder("pac4j.filter.requests")
+                    .description("Time spent in the pac4j filters")
+                    .tag("filter", filterType.getTag())
+                    .tag("client", t)
+                    .tag("outcome", outcome.getTag())
+                    .register(registry);
+            }
+            return timers;
+        });
+    }
+
+    private String clientTag(final Map<String, ?> meters, final String clientName) {
+        if (clientName == null) {
+            return NO_CLIENT;
+        }
+        return meters.size() < maxClients || meters.containsKey(clientName) ? clientName : OTHER_CLIENTS;
+    }
+}
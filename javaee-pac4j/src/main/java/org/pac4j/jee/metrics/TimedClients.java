@@ -0,0 +1,88 @@
+package org.pac4j.jee.metrics;
+
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Optional;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The decorators of the components of the clients recording their durations in the {@link RequestTimings} of the requests,
+ * like the authenticator ({@link RequestTimings.Phase#AUTHENTICATION}), or in the {@link FilterMetrics}, like the validation
+ * of the credentials on the callbacks.</p>
+ *
+ * <p>The timing decorators only read the clock when the timings are recorded for the current request. They are used by the views
+ * of the clients built by the filters: the clients of the configuration are not modified.</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public final class TimedClients {
+
+    private TimedClients() {}
+
+    /**
+     * An authenticator recording its duration (including the decorators it wraps, like the profile cache or the bulkhead).
+     */
+    public static final class TimedAuthenticator implements Authenticator {
+
+        @Getter
+        private final Authenticator delegate;
+
+        public TimedAuthenticator(final Authenticator delegate) {
+            CommonHelper.assertNotNull("delegate", delegate);
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+            val timings = RequestTimings.current(ctx.webContext());
+            if (timings == null) {
+                return delegate.validate(ctx, credentials);
+            }
+            val start = System.nanoTime();
+            try {
+                return delegate.validate(ctx, credentials);
+            } finally {
+                timings.recordSince(RequestTimings.Phase.AUTHENTICATION, start);
+            }
+        }
+    }
+
+    /**
+     * An authenticator recording the duration of the successful validations of the credentials returned by the identity
+     * provider (including the exchange of the authorization code for tokens) in the <code>pac4j.callback.exchange</code> metric.
+     */
+    public static final class ExchangeMeteredAuthenticator implements Authenticator {
+
+        @Getter
+        private final Authenticator delegate;
+
+        private final FilterMetrics metrics;
+
+        private final String clientName;
+
+        public ExchangeMeteredAuthenticator(final Authenticator delegate, final FilterMetrics metrics, final String clientName) {
+            CommonHelper.assertNotNull("delegate", delegate);
+            CommonHelper.assertNotNull("metrics", metrics);
+            this.delegate = delegate;
+            this.metrics = metrics;
+            this.clientName = clientName;
+        }
+
+        @Override
+        public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+            val start = System.nanoTime();
+            val validatedCredentials = delegate.validate(ctx, credentials);
+            if (validatedCredentials.isPresent()) {
+                metrics.recordCallbackExchange(clientName, System.nanoTime() - start);
+            }
+            return validatedCredentials;
+        }
+    }
+}
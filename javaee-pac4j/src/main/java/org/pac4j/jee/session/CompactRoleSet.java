@@ -0,0 +1,122 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The roles of a profile, backed by an immutable set shared by all the profiles with the same roles (see {@link ProfileDeduplicator}).</p>
+ *
+ * <p>The set remains modifiable: it is copied the first time it is modified (copy-on-write). It is serialized as a regular
+ * {@link HashSet}. Like the roles of a profile, it is not thread-safe.</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public final class CompactRoleSet extends AbstractSet<String> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private Set<String> roles;
+
+    private boolean shared;
+
+    /**
+     * Build the set of roles from a shared immutable set.
+     *
+     * @param sharedRoles the shared immutable set
+     */
+    public CompactRoleSet(final Set<String> sharedRoles) {
+        this.roles = sharedRoles;
+        this.shared = true;
+    }
+
+    /**
+     * Whether the roles are still backed by the shared set.
+     *
+     * @return whether the roles are shared
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    private Set<String> ownRoles() {
+        if (shared) {
+            roles = new HashSet<>(roles);
+            shared = false;
+        }
+        return roles;
+    }
+
+    @Override
+    public int size() {
+        return roles.size();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return roles.contains(o);
+    }
+
+    @Override
+    public boolean add(final String role) {
+        return !roles.contains(role) && ownRoles().add(role);
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        return roles.contains(o) && ownRoles().remove(o);
+    }
+
+    @Override
+    public void clear() {
+        roles = new HashSet<>();
+        shared = false;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        if (!shared) {
+            return roles.iterator();
+        }
+        // iterate over the shared set, the removals copy it
+        val iterator = roles.iterator();
+        return new Iterator<>() {
+
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ownRoles().remove(last);
+                last = null;
+            }
+        };
+    }
+
+    @Serial
+    private Object writeReplace() {
+        return new HashSet<>(roles);
+    }
+}
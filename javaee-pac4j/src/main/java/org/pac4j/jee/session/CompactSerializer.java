@@ -0,0 +1,528 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.val;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.BasicUserProfile;
+import org.pac4j.core.profile.ProfileHelper;
+import org.pac4j.core.util.serializer.AbstractSerializer;
+import org.pac4j.core.util.serializer.JavaSerializer;
+import org.pac4j.core.util.serializer.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>A compact and versioned binary {@link Serializer} for the user profiles and the pac4j session data, much smaller
+ * than the Java serialization: no class descriptors, variable-length integers, and the attribute names, the profile classes
+ * and the roles are encoded as references to a built-in dictionary (the usual claims of OpenID Connect, JWT, SAML...)
+ * or to their first occurrence in the data.</p>
+ *
+ * <p>The strings, numbers, booleans, dates, byte arrays, lists, sets, maps and {@link BasicUserProfile}s are encoded natively:
+ * the other values are serialized by the <code>fallbackSerializer</code> (a {@link JavaSerializer} restricted to its trusted
+ * packages by default). The data larger than <code>compressionThreshold</code> bytes are compressed if it is enabled.</p>
+ *
+ * <p>The first byte is the version of the format, which includes the dictionary: the data of an unknown version are rejected,
+ * so that the sessions created by another version are dropped rather than misread.</p>
+ *
+ * @since 8.0.4
+ */
+@Getter
+@Setter
+@Deprecated
+public class CompactSerializer extends AbstractSerializer {
+
+    private static final byte VERSION = 1;
+
+    private static final int COMPRESSED = 1;
+
+    private static final int MAX_DEPTH = 32;
+
+    private static final int MAX_DATA_LENGTH = 16 * 1024 * 1024;
+
+    private static final int MAX_REFERENCED_LENGTH = 64;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte STRING = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte DATE = 7;
+    private static final byte LIST = 8;
+    private static final byte SET = 9;
+    private static final byte MAP = 10;
+    private static final byte PROFILE = 11;
+    private static final byte BYTES = 12;
+    private static final byte SERIALIZED = 13;
+
+    /* The built-in dictionary of the version 1: it must never change, a new version must be defined instead */
+    private static final List<String> DICTIONARY = List.of(
+        "org.pac4j.core.profile.CommonProfile", "org.pac4j.core.profile.BasicUserProfile", "org.pac4j.core.profile.AnonymousProfile",
+        "org.pac4j.oidc.profile.OidcProfile", "org.pac4j.oidc.profile.keycloak.KeycloakOidcProfile",
+        "org.pac4j.oidc.profile.azuread.AzureAdProfile", "org.pac4j.oidc.profile.google.GoogleOidcProfile",
+        "org.pac4j.jwt.profile.JwtProfile", "org.pac4j.saml.profile.SAML2Profile", "org.pac4j.cas.profile.CasProfile",
+        "org.pac4j.oauth.profile.OAuth20Profile", "org.pac4j.http.profile.IpProfile", "org.pac4j.ldap.profile.LdapProfile",
+        "sub", "iss", "aud", "exp", "iat", "nbf", "jti", "azp", "nonce", "auth_time", "at_hash", "c_hash", "acr", "amr", "sid",
+        "name", "given_name", "family_name", "middle_name", "nickname", "preferred_username", "profile", "picture", "website",
+        "email", "email_verified", "gender", "birthdate", "zoneinfo", "locale", "phone_number", "phone_number_verified",
+        "address", "updated_at", "id_token", "access_token", "refresh_token", "token_expiration_advance", "expiration",
+        "scope", "token_type", "roles", "groups", "realm_access", "resource_access", "tid", "oid", "upn", "username",
+        "display_name", "first_name", "location", "permissions", "clientName", "sessionindex", "samlNameIdFormat",
+        "samlNameIdNameQualifier", "samlNameIdSpNameQualifier", "samlNameIdSpProviderId", "samlAuthnContext",
+        "samlAuthnContextAuthorities", "samlIssuerId", "samlInResponseTo", "notBefore", "notOnOrAfter",
+        "isFromNewLogin", "authenticationDate", "successfulAuthenticationHandlers", "credentialType",
+        "authenticationMethod", "longTermAuthenticationRequestTokenUsed", "pac4jUserProfiles");
+
+    private static final Map<String, Integer> DICTIONARY_INDEXES = new HashMap<>();
+
+    private static final ClassValue<Boolean> DEFAULT_CONSTRUCTIBLE = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getConstructor() != null;
+            } catch (final NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    static {
+        for (var i = 0; i < DICTIONARY.size(); i++) {
+            DICTIONARY_INDEXES.put(DICTIONARY.get(i), i);
+        }
+    }
+
+    private boolean compression = true;
+
+    private int compressionThreshold = 512;
+
+    private Serializer fallbackSerializer = new JavaSerializer();
+
+    @Override
+    protected byte[] internalSerializeToBytes(final Object o) {
+        val writer = new Writer();
+        writer.writeValue(o, 0);
+        var body = writer.toByteArray();
+        var flags = 0;
+        if (compression && body.length > compressionThreshold) {
+            val compressed = deflate(body);
+            if (compressed.length < body.length) {
+                body = compressed;
+                flags |= COMPRESSED;
+            }
+        }
+        val data = new byte[body.length + 2];
+        data[0] = VERSION;
+        data[1] = (byte) flags;
+        System.arraycopy(body, 0, data, 2, body.length);
+        return data;
+    }
+
+    @Override
+    protected Object internalDeserializeFromBytes(final byte[] bytes) {
+        if (bytes == null || bytes.length < 2) {
+            throw new TechnicalException("Invalid compact data");
+        }
+        if (bytes[0] != VERSION) {
+            throw new TechnicalException("Unsupported compact data version: " + bytes[0]);
+        }
+        var body = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 2, body, 0, body.length);
+        if ((bytes[1] & COMPRESSED) != 0) {
+            body = inflate(body);
+        }
+        val reader = new Reader(body);
+        val value = reader.readValue(0);
+        if (reader.position != body.length) {
+            throw new TechnicalException("Trailing compact data");
+        }
+        return value;
+    }
+
+    private static byte[] deflate(final byte[] data) {
+        val deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            val out = new ByteArrayOutputStream(data.length / 2 + 16);
+            val buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] data) {
+        val inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            val out = new ByteArrayOutputStream(data.length * 3);
+            val buffer = new byte[1024];
+            while (!inflater.finished()) {
+                val length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new TechnicalException("Truncated compact data");
+                }
+                out.write(buffer, 0, length);
+                if (out.size() > MAX_DATA_LENGTH) {
+                    throw new TechnicalException("Compact data too large");
+                }
+            }
+            return out.toByteArray();
+        } catch (final DataFormatException e) {
+            throw new TechnicalException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Encodes the values of one serialization, with its table of the strings already written.
+     */
+    private final class Writer extends ByteArrayOutputStream {
+
+        private final Map<String, Integer> references = new HashMap<>();
+
+        private Writer() {
+            super(256);
+        }
+
+        private void writeValue(final Object value, final int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new TechnicalException("Compact data too deep");
+            }
+            if (value == null) {
+                write(NULL);
+            } else if (value instanceof Boolean b) {
+                write(b ? TRUE : FALSE);
+            } else if (value instanceof String s) {
+                write(STRING);
+                writeString(s);
+            } else if (value instanceof Integer i) {
+                write(INTEGER);
+                writeVarLong(zigzag(i));
+            } else if (value instanceof Long l) {
+                write(LONG);
+                writeVarLong(zigzag(l));
+            } else if (value instanceof Double d) {
+                write(DOUBLE);
+                writeFixedLong(Double.doubleToLongBits(d));
+            } else if (value.getClass() == Date.class) {
+                write(DATE);
+                writeVarLong(zigzag(((Date) value).getTime()));
+            } else if (value instanceof byte[] bytes) {
+                write(BYTES);
+                writeVarLong(bytes.length);
+                write(bytes, 0, bytes.length);
+            } else if (value instanceof BasicUserProfile profile && DEFAULT_CONSTRUCTIBLE.get(profile.getClass())) {
+                write(PROFILE);
+                writeProfile(profile, depth);
+            } else if (value instanceof List<?> list && isStandard(list)) {
+                write(LIST);
+                writeCollection(list, depth);
+            } else if (value instanceof Set<?> set && isStandard(set)) {
+                write(SET);
+                writeCollection(set, depth);
+            } else if (value instanceof Map<?, ?> map && isStandard(map)) {
+                write(MAP);
+                writeVarLong(map.size());
+                for (val entry : map.entrySet()) {
+                    writeValue(entry.getKey(), depth + 1);
+                    writeValue(entry.getValue(), depth + 1);
+                }
+            } else if (value instanceof Serializable) {
+                val bytes = fallbackSerializer.serializeToBytes(value);
+                if (bytes == null) {
+                    throw new TechnicalException("Cannot serialize: " + value.getClass().getName());
+                }
+                write(SERIALIZED);
+                writeVarLong(bytes.length);
+                write(bytes, 0, bytes.length);
+            } else {
+                throw new TechnicalException("Cannot serialize: " + value.getClass().getName());
+            }
+        }
+
+        private void writeProfile(final BasicUserProfile profile, final int depth) {
+            writeString(profile.getClass().getName());
+            writeString(profile.getId());
+            writeString(profile.getClientName());
+            writeString(profile.getLinkedId());
+            write(profile.isRemembered() ? TRUE : FALSE);
+            writeAttributes(profile.getAttributes(), depth);
+            writeAttributes(profile.getAuthenticationAttributes(), depth);
+            val roles = profile.getRoles();
+            writeVarLong(roles.size());
+            for (val role : roles) {
+                writeString(role);
+            }
+        }
+
+        private void writeAttributes(final Map<String, Object> attributes, final int depth) {
+            writeVarLong(attributes.size());
+            for (val entry : attributes.entrySet()) {
+                writeString(entry.getKey());
+                writeValue(entry.getValue(), depth + 1);
+            }
+        }
+
+        private void writeCollection(final Collection<?> collection, final int depth) {
+            writeVarLong(collection.size());
+            for (val element : collection) {
+                writeValue(element, depth + 1);
+            }
+        }
+
+        /*
+         * 0: null, 1: inline string, n >= 2: reference to the entry n - 2 of the dictionary followed by the strings already written
+         */
+        private void writeString(final String s) {
+            if (s == null) {
+                writeVarLong(0);
+                return;
+            }
+            var index = DICTIONARY_INDEXES.get(s);
+            if (index == null) {
+                index = references.get(s);
+            }
+            if (index != null) {
+                writeVarLong(index + 2L);
+                return;
+            }
+            writeVarLong(1);
+            val bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            write(bytes, 0, bytes.length);
+            if (bytes.length <= MAX_REFERENCED_LENGTH) {
+                references.put(s, DICTIONARY.size() + references.size());
+            }
+        }
+
+        private void writeVarLong(final long value) {
+            var v = value;
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        private void writeFixedLong(final long value) {
+            for (var shift = 56; shift >= 0; shift -= 8) {
+                write((int) (value >>> shift));
+            }
+        }
+    }
+
+    /**
+     * Decodes the values of one serialization, with its table of the strings already read.
+     */
+    private final class Reader {
+
+        private final byte[] data;
+
+        private int position;
+
+        private final List<String> references = new ArrayList<>();
+
+        private Reader(final byte[] data) {
+            this.data = data;
+        }
+
+        private Object readValue(final int depth) {
+            if (depth > MAX_DEPTH) {
+                throw new TechnicalException("Compact data too deep");
+            }
+            val tag = readByte();
+            return switch (tag) {
+                case NULL -> null;
+                case TRUE -> Boolean.TRUE;
+                case FALSE -> Boolean.FALSE;
+                case STRING -> readString();
+                case INTEGER -> (int) unzigzag(readVarLong());
+                case LONG -> unzigzag(readVarLong());
+                case DOUBLE -> Double.longBitsToDouble(readFixedLong());
+                case DATE -> new Date(unzigzag(readVarLong()));
+                case BYTES -> readBytes();
+                case PROFILE -> readProfile(depth);
+                case LIST -> {
+                    val size = readSize();
+                    final List<Object> list = new ArrayList<>(size);
+                    for (var i = 0; i < size; i++) {
+                        list.add(readValue(depth + 1));
+                    }
+                    yield list;
+                }
+                case SET -> {
+                    val size = readSize();
+                    final Set<Object> set = new LinkedHashSet<>();
+                    for (var i = 0; i < size; i++) {
+                        set.add(readValue(depth + 1));
+                    }
+                    yield set;
+                }
+                case MAP -> {
+                    val size = readSize();
+                    final Map<Object, Object> map = new LinkedHashMap<>();
+                    for (var i = 0; i < size; i++) {
+                        map.put(readValue(depth + 1), readValue(depth + 1));
+                    }
+                    yield map;
+                }
+                case SERIALIZED -> fallbackSerializer.deserializeFromBytes(readBytes());
+                default -> throw new TechnicalException("Invalid compact data tag: " + tag);
+            };
+        }
+
+        private BasicUserProfile readProfile(final int depth) {
+            val className = readString();
+            val profileClass = loadProfileClass(className);
+            // never instantiate a class which is not a profile
+            if (!BasicUserProfile.class.isAssignableFrom(profileClass)) {
+                throw new TechnicalException("Not a profile class: " + className);
+            }
+            val profile = (BasicUserProfile) ProfileHelper.buildUserProfileByClassCompleteName(className);
+            val id = readString();
+            profile.setClientName(readString());
+            profile.setLinkedId(readString());
+            profile.setRemembered(readByte() == TRUE);
+            val attributes = readAttributes(depth);
+            val authenticationAttributes = readAttributes(depth);
+            profile.build(id, attributes, authenticationAttributes);
+            val roles = readSize();
+            for (var i = 0; i < roles; i++) {
+                profile.addRole(readString());
+            }
+            return profile;
+        }
+
+        // like the ProfileHelper: the class loader of pac4j first, then the one of the thread (for the profiles of the application)
+        private static Class<?> loadProfileClass(final String className) {
+            try {
+                return Class.forName(className, false, BasicUserProfile.class.getClassLoader());
+            } catch (final ClassNotFoundException | RuntimeException e) {
+                val contextClassLoader = Thread.currentThread().getContextClassLoader();
+                if (contextClassLoader != null) {
+                    try {
+                        return Class.forName(className, false, contextClassLoader);
+                    } catch (final ClassNotFoundException | RuntimeException e2) {
+                        e.addSuppressed(e2);
+                    }
+                }
+                throw new TechnicalException("Unknown profile class: " + className, e);
+            }
+        }
+
+        private Map<String, Object> readAttributes(final int depth) {
+            val size = readSize();
+            final Map<String, Object> attributes = new LinkedHashMap<>();
+            for (var i = 0; i < size; i++) {
+                attributes.put(readString(), readValue(depth + 1));
+            }
+            return attributes;
+        }
+
+        private String readString() {
+            val code = readVarLong();
+            if (code == 0) {
+                return null;
+            } else if (code == 1) {
+                val length = readSize();
+                val s = new String(data, position, length, StandardCharsets.UTF_8);
+                position += length;
+                if (length <= MAX_REFERENCED_LENGTH) {
+                    references.add(s);
+                }
+                return s;
+            }
+            val index = code - 2;
+            if (index < DICTIONARY.size()) {
+                return DICTIONARY.get((int) index);
+            } else if (index - DICTIONARY.size() < references.size()) {
+                return references.get((int) (index - DICTIONARY.size()));
+            }
+            throw new TechnicalException("Invalid compact string reference: " + code);
+        }
+
+        private byte[] readBytes() {
+            val length = readSize();
+            val bytes = new byte[length];
+            System.arraycopy(data, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        // a size can never exceed the remaining data, so that corrupted data cannot allocate huge collections
+        private int readSize() {
+            val size = readVarLong();
+            if (size < 0 || size > data.length - position) {
+                throw new TechnicalException("Invalid compact data size: " + size);
+            }
+            return (int) size;
+        }
+
+        private byte readByte() {
+            if (position >= data.length) {
+                throw new TechnicalException("Truncated compact data");
+            }
+            return data[position++];
+        }
+
+        private long readVarLong() {
+            var value = 0L;
+            for (var shift = 0; shift < 64; shift += 7) {
+                val b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new TechnicalException("Invalid compact varint");
+        }
+
+        private long readFixedLong() {
+            var value = 0L;
+            for (var i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+    }
+
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static boolean isStandard(final Object collection) {
+        val type = collection.getClass();
+        return type == ArrayList.class || type == LinkedHashSet.class || type == LinkedHashMap.class || type == HashMap.class
+            || type == HashSet.class || type.getName().startsWith("java.util.ImmutableCollections$")
+            || type.getName().startsWith("java.util.Collections$Unmodifiable");
+    }
+}
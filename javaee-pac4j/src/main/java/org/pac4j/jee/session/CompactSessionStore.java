@@ -0,0 +1,201 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.Serializer;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>A {@link SessionStore} which keeps the profiles in the web session in a compact binary form (see {@link CompactSerializer}),
+ * so that the replication of the sessions is much cheaper than with the Java serialization of the profiles.</p>
+ *
+ * <p>The profiles, maps and collections are encoded when they are set in the session: the other values (strings, HTTP actions...)
+ * are stored as is. The encoded values are decoded lazily, the first time they are read during a request, and the decoded
+ * values are reused until the end of the request.</p>
+ *
+ * <p>The identifiers of the encoded profiles are stored in clear next to them, so that the {@link SessionIndex} can index the
+ * sessions (and revoke them) without decoding the profiles.</p>
+ *
+ * <p>It decorates the session store of the framework: see {@link CompactSessionStoreFactory}.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Deprecated
+public class CompactSessionStore implements SessionStore {
+
+    private static final String DECODED_VALUES_ATTRIBUTE = CompactSessionStore.class.getName() + ".decodedValues";
+
+    @Getter
+    private final SessionStore delegate;
+
+    @Getter
+    private final Serializer serializer;
+
+    /* Whether the decoded values are reused during the request: not for the sessions built from a trackable session */
+    private final boolean requestScoped;
+
+    private Map<String, Object> ownDecodedValues;
+
+    public CompactSessionStore(final SessionStore delegate, final Serializer serializer) {
+        this(delegate, serializer, true);
+    }
+
+    private CompactSessionStore(final SessionStore delegate, final Serializer serializer, final boolean requestScoped) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("serializer", serializer);
+        this.delegate = delegate;
+        this.serializer = serializer;
+        this.requestScoped = requestScoped;
+    }
+
+    @Override
+    public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+        return delegate.getSessionId(context, createSession);
+    }
+
+    @Override
+    public Optional<Object> get(final WebContext context, final String key) {
+        val decodedValues = decodedValues(context);
+        if (decodedValues.containsKey(key)) {
+            return Optional.ofNullable(decodedValues.get(key));
+        }
+
+        val value = delegate.get(context, key);
+        if (value.isPresent() && value.get() instanceof Encoded encoded) {
+            Object decoded;
+            try {
+                decoded = serializer.deserializeFromBytes(encoded.getData());
+            } catch (final TechnicalException e) {
+                LOGGER.warn("Cannot decode session value: {}, it is ignored", key, e);
+                decoded = null;
+            }
+            decodedValues.put(key, decoded);
+            return Optional.ofNullable(decoded);
+        }
+        return value;
+    }
+
+    @Override
+    public void set(final WebContext context, final String key, final Object value) {
+        val decodedValues = decodedValues(context);
+        if (value instanceof UserProfile || value instanceof Map || value instanceof Collection) {
+            delegate.set(context, key, new Encoded(serializer.serializeToBytes(value), profileIds(value)));
+            decodedValues.put(key, value);
+        } else {
+            delegate.set(context, key, value);
+            decodedValues.remove(key);
+        }
+    }
+
+    @Override
+    public boolean destroySession(final WebContext context) {
+        decodedValues(context).clear();
+        return delegate.destroySession(context);
+    }
+
+    @Override
+    public Optional<Object> getTrackableSession(final WebContext context) {
+        return delegate.getTrackableSession(context);
+    }
+
+    @Override
+    public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+        return delegate.buildFromTrackableSession(context, trackableSession)
+            .map(sessionStore -> new CompactSessionStore(sessionStore, serializer, false));
+    }
+
+    @Override
+    public boolean renewSession(final WebContext context) {
+        return delegate.renewSession(context);
+    }
+
+    // the identifiers of the profiles are kept in clear for the session listeners, like the SessionIndex
+    private static String[] profileIds(final Object value) {
+        final Collection<?> candidates;
+        if (value instanceof UserProfile) {
+            candidates = List.of(value);
+        } else if (value instanceof Map<?, ?> map) {
+            candidates = map.values();
+        } else {
+            return null;
+        }
+        final List<String> ids = new ArrayList<>(candidates.size());
+        for (val candidate : candidates) {
+            if (candidate instanceof UserProfile profile && profile.getId() != null) {
+                ids.add(profile.getId());
+            }
+        }
+        return ids.isEmpty() ? null : ids.toArray(new String[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> decodedValues(final WebContext context) {
+        if (!requestScoped) {
+            if (ownDecodedValues == null) {
+                ownDecodedValues = new HashMap<>();
+            }
+            return ownDecodedValues;
+        }
+        val attribute = context.getRequestAttribute(DECODED_VALUES_ATTRIBUTE);
+        if (attribute.isPresent()) {
+            return (Map<String, Object>) attribute.get();
+        }
+        final Map<String, Object> decodedValues = new HashMap<>();
+        context.setRequestAttribute(DECODED_VALUES_ATTRIBUTE, decodedValues);
+        return decodedValues;
+    }
+
+    /**
+     * A value encoded by the serializer, as stored in the web session, with the identifiers of its profiles if any.
+     */
+    public static final class Encoded implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] data;
+
+        private final String[] profileIds;
+
+        public Encoded(final byte[] data) {
+            this(data, null);
+        }
+
+        public Encoded(final byte[] data, final String[] profileIds) {
+            this.data = data;
+            this.profileIds = profileIds != null ? profileIds.clone() : null;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Get the identifiers of the profiles of the encoded value, without decoding it.
+         *
+         * @return the profile identifiers
+         */
+        public Set<String> getProfileIds() {
+            return profileIds == null ? Collections.emptySet() : Set.of(profileIds);
+        }
+    }
+}
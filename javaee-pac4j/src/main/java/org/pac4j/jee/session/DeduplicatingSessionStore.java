@@ -0,0 +1,72 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import org.pac4j.core.context.WebContext;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.util.CommonHelper;
+
+import java.util.Optional;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>A {@link SessionStore} which deduplicates the profiles before they are stored in the web session (see {@link ProfileDeduplicator}),
+ * to reduce the heap footprint of the sessions.</p>
+ *
+ * <p>It decorates the session store of the framework: see {@link DeduplicatingSessionStoreFactory}. The profiles of the sessions
+ * restored by the container (after a restart or a failover) are deduplicated the next time they are saved.</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public class DeduplicatingSessionStore implements SessionStore {
+
+    @Getter
+    private final SessionStore delegate;
+
+    @Getter
+    private final ProfileDeduplicator deduplicator;
+
+    public DeduplicatingSessionStore(final SessionStore delegate, final ProfileDeduplicator deduplicator) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("deduplicator", deduplicator);
+        this.delegate = delegate;
+        this.deduplicator = deduplicator;
+    }
+
+    @Override
+    public Optional<String> getSessionId(final WebContext context, final boolean createSession) {
+        return delegate.getSessionId(context, createSession);
+    }
+
+    @Override
+    public Optional<Object> get(final WebContext context, final String key) {
+        return delegate.get(context, key);
+    }
+
+    @Override
+    public void set(final WebContext context, final String key, final Object value) {
+        delegate.set(context, key, deduplicator.deduplicate(value));
+    }
+
+    @Override
+    public boolean destroySession(final WebContext context) {
+        return delegate.destroySession(context);
+    }
+
+    @Override
+    public Optional<Object> getTrackableSession(final WebContext context) {
+        return delegate.getTrackableSession(context);
+    }
+
+    @Override
+    public Optional<SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
+        return delegate.buildFromTrackableSession(context, trackableSession)
+            .map(sessionStore -> new DeduplicatingSessionStore(sessionStore, deduplicator));
+    }
+
+    @Override
+    public boolean renewSession(final WebContext context) {
+        return delegate.renewSession(context);
+    }
+}
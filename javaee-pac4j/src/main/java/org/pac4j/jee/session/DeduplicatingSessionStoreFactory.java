@@ -0,0 +1,40 @@
+package org.pac4j.jee.session;
+
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jee.context.session.JEESessionStoreFactory;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * Factory of the {@link DeduplicatingSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new DeduplicatingSessionStoreFactory())</code>. It decorates the session stores of the
+ * {@link JEESessionStoreFactory} by default. All its session stores share the same {@link ProfileDeduplicator}.
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public class DeduplicatingSessionStoreFactory implements SessionStoreFactory {
+
+    private final SessionStoreFactory delegate;
+
+    private final ProfileDeduplicator deduplicator;
+
+    public DeduplicatingSessionStoreFactory() {
+        this(JEESessionStoreFactory.INSTANCE, new ProfileDeduplicator());
+    }
+
+    public DeduplicatingSessionStoreFactory(final SessionStoreFactory delegate, final ProfileDeduplicator deduplicator) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("deduplicator", deduplicator);
+        this.delegate = delegate;
+        this.deduplicator = deduplicator;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        return new DeduplicatingSessionStore(delegate.newSessionStore(parameters), deduplicator);
+    }
+}
@@ -0,0 +1,49 @@
+package org.pac4j.jee.session;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>The key-value storage of the {@link SharedSessionStore}: the serialized data of each session, by session identifier.</p>
+ *
+ * <p>The data passed to and returned by a repository must never be modified. The implementations must be thread-safe.</p>
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public interface SessionRepository {
+
+    /**
+     * Get the data of a session.
+     *
+     * @param sessionId the session identifier
+     * @return the data, if the session exists and has not expired
+     */
+    Optional<byte[]> get(String sessionId);
+
+    /**
+     * Save the data of a session.
+     *
+     * @param sessionId the session identifier
+     * @param data the data
+     * @param timeToLive the time to live of the data (in milliseconds)
+     */
+    void put(String sessionId, byte[] data, long timeToLive);
+
+    /**
+     * Remove a session.
+     *
+     * @param sessionId the session identifier
+     */
+    void remove(String sessionId);
+
+    /**
+     * Register a listener notified with the identifier of the sessions changed or removed in this repository,
+     * to invalidate the local copies of their data.
+     *
+     * @param listener the listener
+     */
+    default void addInvalidationListener(final Consumer<String> listener) {}
+}
@@ -0,0 +1,30 @@
+package org.pac4j.jee.session;
+
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * Factory of the {@link SharedSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new SharedSessionStoreFactory(new SharedSessionStore(new InMemorySessionRepository())))</code>.
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public class SharedSessionStoreFactory implements SessionStoreFactory {
+
+    private final SharedSessionStore sessionStore;
+
+    public SharedSessionStoreFactory(final SharedSessionStore sessionStore) {
+        CommonHelper.assertNotNull("sessionStore", sessionStore);
+        this.sessionStore = sessionStore;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        return sessionStore;
+    }
+}
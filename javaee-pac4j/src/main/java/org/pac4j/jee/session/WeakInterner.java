@@ -0,0 +1,119 @@
+package org.pac4j.jee.session;
+
+import lombok.Getter;
+import lombok.val;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>A bounded canonical map of immutable values: equal values are replaced by the same instance, as long as this instance
+ * is used somewhere else (the entries are weakly referenced, so the values no longer used are forgotten).</p>
+ *
+ * <p>The map is split into segments, each with its own lock. When a segment is full, the new values are no longer canonicalized
+ * (they are returned as is) until some values are forgotten.</p>
+ *
+ * @param <T> the type of the values
+ * @since 8.0.4
+ */
+@Deprecated
+public class WeakInterner<T> {
+
+    private static final int SEGMENTS = 16;
+
+    @Getter
+    private final int maxSize;
+
+    private final int maxSegmentSize;
+
+    private final Map<T, WeakReference<T>>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder overflows = new LongAdder();
+
+    /**
+     * Build an interner.
+     *
+     * @param maxSize the maximum number of canonical values
+     */
+    @SuppressWarnings("unchecked")
+    public WeakInterner(final int maxSize) {
+        assertTrue(maxSize > 0, "maxSize must be greater than 0");
+        this.maxSize = maxSize;
+        this.maxSegmentSize = Math.max(1, maxSize / SEGMENTS);
+        this.segments = new Map[SEGMENTS];
+        for (var i = 0; i < SEGMENTS; i++) {
+            segments[i] = new WeakHashMap<>();
+        }
+    }
+
+    /**
+     * Get the canonical instance of a value.
+     *
+     * @param value the value
+     * @return the canonical instance, or the value itself if it becomes the canonical instance or if the interner is full
+     */
+    public T intern(final T value) {
+        if (value == null) {
+            return null;
+        }
+        val hash = value.hashCode();
+        val segment = segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            val reference = segment.get(value);
+            if (reference != null) {
+                val canonical = reference.get();
+                if (canonical != null) {
+                    hits.increment();
+                    return canonical;
+                }
+            }
+            if (segment.size() >= maxSegmentSize) {
+                overflows.increment();
+                return value;
+            }
+            segment.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * Get the number of canonical values (including the ones which are no longer used, but not yet forgotten).
+     *
+     * @return the number of canonical values
+     */
+    public int size() {
+        var size = 0;
+        for (val segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the number of values replaced by their canonical instance.
+     *
+     * @return the number of replaced values
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of values not canonicalized as the interner was full.
+     *
+     * @return the number of values not canonicalized
+     */
+    public long getOverflows() {
+        return overflows.sum();
+    }
+}
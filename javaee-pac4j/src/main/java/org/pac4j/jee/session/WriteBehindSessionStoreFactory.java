@@ -0,0 +1,60 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+import org.pac4j.core.context.FrameworkParameters;
+import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.context.session.SessionStoreFactory;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.core.util.serializer.Serializer;
+import org.pac4j.jee.context.JEEFrameworkParameters;
+import org.pac4j.jee.context.session.JEESessionStoreFactory;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * Factory of the {@link WriteBehindSessionStore}, to be defined in the configuration:
+ * <code>config.setSessionStoreFactory(new WriteBehindSessionStoreFactory())</code>. It decorates the session stores of the
+ * {@link JEESessionStoreFactory} by default and the values are fingerprinted by an uncompressed {@link CompactSerializer}.
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public class WriteBehindSessionStoreFactory implements SessionStoreFactory {
+
+    private final SessionStoreFactory delegate;
+
+    private final Serializer fingerprintSerializer;
+
+    public WriteBehindSessionStoreFactory() {
+        this(JEESessionStoreFactory.INSTANCE);
+    }
+
+    public WriteBehindSessionStoreFactory(final SessionStoreFactory delegate) {
+        this(delegate, uncompressedSerializer());
+    }
+
+    public WriteBehindSessionStoreFactory(final SessionStoreFactory delegate, final Serializer fingerprintSerializer) {
+        CommonHelper.assertNotNull("delegate", delegate);
+        CommonHelper.assertNotNull("fingerprintSerializer", fingerprintSerializer);
+        this.delegate = delegate;
+        this.fingerprintSerializer = fingerprintSerializer;
+    }
+
+    private static Serializer uncompressedSerializer() {
+        val serializer = new CompactSerializer();
+        serializer.setCompression(false);
+        return serializer;
+    }
+
+    @Override
+    public SessionStore newSessionStore(final FrameworkParameters parameters) {
+        if (parameters instanceof JEEFrameworkParameters jeeParameters) {
+            val sessionStore = WriteBehindSessionStore.current(jeeParameters.getRequest(),
+                () -> new WriteBehindSessionStore(delegate.newSessionStore(parameters), fingerprintSerializer));
+            if (sessionStore != null) {
+                return sessionStore;
+            }
+        }
+        return delegate.newSessionStore(parameters);
+    }
+}
@@ -0,0 +1,527 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>An asynchronous execution of a request: the request is put in asynchronous mode and the work is performed on an executor,
+ * releasing the container thread.</p>
+ *
+ * <p>The execution ends exactly once: by a dispatch back to the container, a completion, a failure or the timeout.</p>
+ *
+ * <p>The task must use the request and the response of the execution (<code>getRequest()</code> and <code>getResponse()</code>):
+ * once the execution has ended, for example after the timeout, the writes to the response are dropped and the web session
+ * and the attributes of the request can no longer be accessed (an {@link IllegalStateException} is thrown), as the container
+ * may already have recycled them for another request.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Deprecated
+public final class AsyncExecution implements AsyncListener {
+
+    /* The default timeout of an asynchronous execution (in milliseconds) */
+    public static final long DEFAULT_TIMEOUT = 30_000L;
+
+    /* The default number of threads of the pool used when virtual threads are not available */
+    public static final int DEFAULT_POOL_THREADS = 64;
+
+    private static final int QUEUE_SIZE_PER_THREAD = 16;
+
+    private final AsyncContext asyncContext;
+
+    private final HttpServletRequest containerRequest;
+
+    private final HttpServletResponse containerResponse;
+
+    @Getter
+    private final HttpServletRequest request;
+
+    @Getter
+    private final HttpServletResponse response;
+
+    private final FallbackHandler fallbackHandler;
+
+    private final AtomicBoolean ended = new AtomicBoolean();
+
+    // the writes of the task and of the fallback handler to the response are exclusive
+    private final Object responseLock = new Object();
+
+    private AsyncExecution(final AsyncContext asyncContext, final HttpServletRequest request, final HttpServletResponse response,
+                           final FallbackHandler fallbackHandler) {
+        this.asyncContext = asyncContext;
+        this.containerRequest = request;
+        this.containerResponse = response;
+        this.request = new GuardedRequest(request);
+        this.response = new GuardedResponse(response);
+        this.fallbackHandler = fallbackHandler;
+    }
+
+    /**
+     * Start the asynchronous mode for the request and submit the task to the executor.
+     *
+     * @param executor the executor
+     * @param timeout the timeout in milliseconds
+     * @param request the request
+     * @param response the response
+     * @param task the task to perform
+     * @param fallbackHandler the handler called when the task is rejected by the executor or when the timeout is reached,
+     *                        with the request and the response of the container
+     */
+    public static void execute(final Executor executor, final long timeout, final HttpServletRequest request,
+                               final HttpServletResponse response, final Task task, final FallbackHandler fallbackHandler) {
+        val asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeout);
+        val execution = new AsyncExecution(asyncContext, request, response, fallbackHandler);
+        asyncContext.addListener(execution);
+        try {
+            executor.execute(() -> execution.run(task));
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Asynchronous execution rejected for: {}", request.getRequestURI());
+            execution.fallback();
+        }
+    }
+
+    /**
+     * Build an executor for asynchronous executions.
+     *
+     * @param threadNamePrefix the prefix of the thread names
+     * @param threads the number of threads of a bounded pool, or 0 to use virtual threads when the JVM supports them
+     * @param defaultThreads the number of threads of the pool when virtual threads are not available
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(final String threadNamePrefix, final int threads, final int defaultThreads) {
+        if (threads <= 0) {
+            try {
+                val executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                LOGGER.debug("Using virtual threads for: {}", threadNamePrefix);
+                return executor;
+            } catch (final ReflectiveOperationException e) {
+                LOGGER.debug("Virtual threads not available, using a pool of {} threads for: {}", defaultThreads, threadNamePrefix);
+                return newPool(threadNamePrefix, defaultThreads);
+            }
+        }
+        return newPool(threadNamePrefix, threads);
+    }
+
+    private static ExecutorService newPool(final String threadNamePrefix, final int threads) {
+        val counter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            val thread = new Thread(runnable, threadNamePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        val pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private void run(final Task task) {
+        try {
+            task.run(this);
+        } catch (final Exception e) {
+            if (ended.get()) {
+                LOGGER.debug("Asynchronous execution interrupted by its end", e);
+            } else {
+                LOGGER.error("Asynchronous execution failed for: {}", containerRequest.getRequestURI(), e);
+                fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        }
+    }
+
+    /**
+     * Dispatch the request back to the container, if the execution has not already ended.
+     *
+     * @return whether the request has been dispatched
+     */
+    public boolean dispatch() {
+        if (ended.compareAndSet(false, true)) {
+            asyncContext.dispatch();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Complete the response, if the execution has not already ended.
+     *
+     * @return whether the response has been completed
+     */
+    public boolean complete() {
+        if (ended.compareAndSet(false, true)) {
+            asyncContext.complete();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Send an error and complete the response, if the execution has not already ended.
+     *
+     * @param status the HTTP status code
+     * @return whether the error has been sent
+     */
+    public boolean fail(final int status) {
+        if (ended.compareAndSet(false, true)) {
+            try {
+                synchronized (responseLock) {
+                    if (!containerResponse.isCommitted()) {
+                        containerResponse.sendError(status);
+                    }
+                }
+            } catch (final IOException | IllegalStateException e) {
+                LOGGER.debug("Unable to send the error: {}", status, e);
+            } finally {
+                asyncContext.complete();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void fallback() {
+        if (ended.compareAndSet(false, true)) {
+            try {
+                // waits for a write of the task in progress, the following ones are dropped
+                synchronized (responseLock) {
+                    if (!containerResponse.isCommitted()) {
+                        fallbackHandler.handle(containerRequest, containerResponse);
+                    }
+                }
+            } catch (final IOException | IllegalStateException e) {
+                LOGGER.debug("Unable to write the fallback response", e);
+            } finally {
+                asyncContext.complete();
+            }
+        }
+    }
+
+    /**
+     * Whether the execution has ended: the response can no longer be written by the task.
+     *
+     * @return whether the execution has ended
+     */
+    public boolean isEnded() {
+        return ended.get();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+        LOGGER.warn("Asynchronous execution timed out for: {}", containerRequest.getRequestURI());
+        fallback();
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+        if (ended.compareAndSet(false, true)) {
+            LOGGER.error("Asynchronous execution error for: {}", containerRequest.getRequestURI(), event.getThrowable());
+            asyncContext.complete();
+        }
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+        ended.set(true);
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+        // the listener is registered again by the code starting a new asynchronous cycle, if needed
+    }
+
+    private void checkNotEnded() {
+        if (ended.get()) {
+            throw new IllegalStateException("The asynchronous execution has ended for: " + containerRequest.getRequestURI());
+        }
+    }
+
+    private void write(final ResponseWrite write) throws IOException {
+        synchronized (responseLock) {
+            if (ended.get()) {
+                LOGGER.debug("Asynchronous execution ended, write dropped for: {}", containerRequest.getRequestURI());
+            } else {
+                write.run();
+            }
+        }
+    }
+
+    private void update(final Runnable update) {
+        synchronized (responseLock) {
+            if (ended.get()) {
+                LOGGER.debug("Asynchronous execution ended, update dropped for: {}", containerRequest.getRequestURI());
+            } else {
+                update.run();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseWrite {
+        void run() throws IOException;
+    }
+
+    /**
+     * The request of the task: the web session and the attributes can't be accessed once the execution has ended.
+     */
+    private final class GuardedRequest extends HttpServletRequestWrapper {
+
+        private GuardedRequest(final HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public HttpSession getSession(final boolean create) {
+            checkNotEnded();
+            return super.getSession(create);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            checkNotEnded();
+            return super.getSession();
+        }
+
+        @Override
+        public String changeSessionId() {
+            checkNotEnded();
+            return super.changeSessionId();
+        }
+
+        @Override
+        public Object getAttribute(final String name) {
+            checkNotEnded();
+            return super.getAttribute(name);
+        }
+
+        @Override
+        public void setAttribute(final String name, final Object o) {
+            checkNotEnded();
+            super.setAttribute(name, o);
+        }
+
+        @Override
+        public void removeAttribute(final String name) {
+            checkNotEnded();
+            super.removeAttribute(name);
+        }
+    }
+
+    /**
+     * The response of the task: the writes are dropped once the execution has ended.
+     */
+    private final class GuardedResponse extends HttpServletResponseWrapper {
+
+        private GuardedResponse(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setStatus(final int sc) {
+            update(() -> super.setStatus(sc));
+        }
+
+        @Override
+        public void sendError(final int sc) throws IOException {
+            write(() -> super.sendError(sc));
+        }
+
+        @Override
+        public void sendError(final int sc, final String msg) throws IOException {
+            write(() -> super.sendError(sc, msg));
+        }
+
+        @Override
+        public void sendRedirect(final String location) throws IOException {
+            write(() -> super.sendRedirect(location));
+        }
+
+        @Override
+        public void addCookie(final Cookie cookie) {
+            update(() -> super.addCookie(cookie));
+        }
+
+        @Override
+        public void setHeader(final String name, final String value) {
+            update(() -> super.setHeader(name, value));
+        }
+
+        @Override
+        public void addHeader(final String name, final String value) {
+            update(() -> super.addHeader(name, value));
+        }
+
+        @Override
+        public void setIntHeader(final String name, final int value) {
+            update(() -> super.setIntHeader(name, value));
+        }
+
+        @Override
+        public void addIntHeader(final String name, final int value) {
+            update(() -> super.addIntHeader(name, value));
+        }
+
+        @Override
+        public void setDateHeader(final String name, final long date) {
+            update(() -> super.setDateHeader(name, date));
+        }
+
+        @Override
+        public void addDateHeader(final String name, final long date) {
+            update(() -> super.addDateHeader(name, date));
+        }
+
+        @Override
+        public void setContentType(final String type) {
+            update(() -> super.setContentType(type));
+        }
+
+        @Override
+        public void setContentLength(final int len) {
+            update(() -> super.setContentLength(len));
+        }
+
+        @Override
+        public void setContentLengthLong(final long len) {
+            update(() -> super.setContentLengthLong(len));
+        }
+
+        @Override
+        public void setCharacterEncoding(final String charset) {
+            update(() -> super.setCharacterEncoding(charset));
+        }
+
+        @Override
+        public void reset() {
+            update(super::reset);
+        }
+
+        @Override
+        public void resetBuffer() {
+            update(super::resetBuffer);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            write(super::flushBuffer);
+        }
+
+        // the guards don't buffer anything: a new one can be returned on each call
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return new PrintWriter(new GuardedWriter(super.getWriter()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return new GuardedOutputStream(super.getOutputStream());
+        }
+    }
+
+    private final class GuardedWriter extends Writer {
+
+        private final Writer delegate;
+
+        private GuardedWriter(final Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            AsyncExecution.this.write(() -> delegate.write(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            AsyncExecution.this.write(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            AsyncExecution.this.write(delegate::close);
+        }
+    }
+
+    private final class GuardedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private GuardedOutputStream(final ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            AsyncExecution.this.write(() -> delegate.write(b));
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            AsyncExecution.this.write(() -> delegate.write(b, off, len));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            AsyncExecution.this.write(delegate::flush);
+        }
+
+        @Override
+        public void close() throws IOException {
+            AsyncExecution.this.write(delegate::close);
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * The work performed on the executor.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run(AsyncExecution execution) throws Exception;
+    }
+
+    /**
+     * The handler writing the response when the task is rejected by the executor or when the timeout is reached.
+     */
+    @FunctionalInterface
+    public interface FallbackHandler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+}
@@ -0,0 +1,50 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+
+import java.util.Optional;
+
+import static org.pac4j.core.util.CommonHelper.assertNotNull;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * An authenticator which validates the credentials only within the {@link Bulkhead} of its client: when the bulkhead is full,
+ * the request is rejected with a 503 error.
+ *
+ * @since 8.0.4
+ */
+@Getter
+@Deprecated
+public class BulkheadAuthenticator implements Authenticator {
+
+    private final Authenticator delegate;
+
+    private final Bulkhead bulkhead;
+
+    private final ClientBulkheads bulkheads;
+
+    public BulkheadAuthenticator(final Authenticator delegate, final Bulkhead bulkhead, final ClientBulkheads bulkheads) {
+        assertNotNull("delegate", delegate);
+        assertNotNull("bulkhead", bulkhead);
+        assertNotNull("bulkheads", bulkheads);
+        this.delegate = delegate;
+        this.bulkhead = bulkhead;
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+        if (!bulkhead.tryAcquire()) {
+            throw bulkheads.reject(ctx.webContext());
+        }
+        try {
+            return delegate.validate(ctx, credentials);
+        } finally {
+            bulkhead.release();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.pac4j.core.adapter.FrameworkAdapter;
+import org.pac4j.core.config.Config;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * Applies the default settings of the framework only once per configuration.
+ *
+ * The defaults are applied under a lock the first time a configuration is seen, then the configuration is published
+ * in an immutable list of weak references replaced on each change: the following calls for any initialized configuration
+ * only read this list, without any lock, whatever the number of configurations used alternately.
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public final class ConfigInitializer {
+
+    private static final Object LOCK = new Object();
+
+    private static volatile List<WeakReference<Config>> initializedConfigs = List.of();
+
+    private ConfigInitializer() {}
+
+    /**
+     * Apply the default settings to the configuration if it's not already done.
+     *
+     * @param config the configuration
+     * @return the same configuration, initialized
+     */
+    public static Config initialize(final Config config) {
+        if (config != null && !isInitialized(config)) {
+            synchronized (LOCK) {
+                if (!isInitialized(config)) {
+                    FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
+                    publish(config);
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Whether the default settings have already been applied to the configuration.
+     *
+     * @param config the configuration
+     * @return whether the configuration is initialized
+     */
+    public static boolean isInitialized(final Config config) {
+        if (config == null) {
+            return false;
+        }
+        val configs = initializedConfigs;
+        for (var i = 0; i < configs.size(); i++) {
+            if (configs.get(i).get() == config) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the configurations collected by the garbage collector are dropped when a new one is published
+    private static void publish(final Config config) {
+        val configs = initializedConfigs;
+        final List<WeakReference<Config>> published = new ArrayList<>(configs.size() + 1);
+        for (val reference : configs) {
+            if (reference.get() != null) {
+                published.add(reference);
+            }
+        }
+        published.add(new WeakReference<>(config));
+        initializedConfigs = List.copyOf(published);
+    }
+}
@@ -0,0 +1,58 @@
+package org.pac4j.jee.util;
+
+import org.pac4j.core.exception.TechnicalException;
+
+import javax.servlet.FilterConfig;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * Helper to read the numeric init parameters of the filters.
+ *
+ * @since 8.0.4
+ */
+@Deprecated
+public final class FilterConfigHelper {
+
+    private FilterConfigHelper() {}
+
+    /**
+     * Read an integer init parameter.
+     *
+     * @param filterConfig the filter configuration
+     * @param name the name of the parameter
+     * @param defaultValue the value to use if the parameter is not defined
+     * @return the value of the parameter
+     */
+    public static Integer getIntegerParam(final FilterConfig filterConfig, final String name, final Integer defaultValue) {
+        final String value = filterConfig.getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new TechnicalException("Invalid integer value for init parameter: " + name, e);
+        }
+    }
+
+    /**
+     * Read a long init parameter.
+     *
+     * @param filterConfig the filter configuration
+     * @param name the name of the parameter
+     * @param defaultValue the value to use if the parameter is not defined
+     * @return the value of the parameter
+     */
+    public static Long getLongParam(final FilterConfig filterConfig, final String name, final Long defaultValue) {
+        final String value = filterConfig.getInitParameter(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (final NumberFormatException e) {
+            throw new TechnicalException("Invalid long value for init parameter: " + name, e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.pac4j.jee.util;
 
+import org.pac4j.core.config.Config;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.jee.filter.RoutingSecurityFilter;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
@@ -18,6 +20,8 @@ import static org.pac4j.core.util.CommonHelper.assertNotNull;
  *
  * Helper to define filter mappings.
  *
+ * Several URL areas with different security requirements can be protected by a single filter: see {@link #securityRoutes(Config)}.
+ *
  * @author Jerome Leleu
  * @since 3.0.0
  */
@@ -35,7 +39,8 @@ public class FilterHelper {
      *
      * @param name the name fo the filter
      * @param filter the filter
-     * @param parameters the URLs on which it applies and the supported dispatcher types
+     * @param parameters the URLs on which it applies and the supported dispatcher types (asynchronous requests are supported
+     *                   by the filter if the <code>ASYNC</code> type is defined)
      */
     public void addFilterMapping(final String name, final Filter filter, final Object... parameters) {
         assertNotBlank("name", name);
@@ -61,6 +66,20 @@ public class FilterHelper {
         }
 
         final FilterRegistration.Dynamic registration = servletContext.addFilter(name, filter);
+        if (types.contains(DispatcherType.ASYNC)) {
+            registration.setAsyncSupported(true);
+        }
         registration.addMappingForUrlPatterns(EnumSet.copyOf(types), true, urls.toArray(new String[urls.size()]));
     }
+
+    /**
+     * Start the definition of security routes, compiled into a single {@link RoutingSecurityFilter} when registered:
+     * <code>helper.securityRoutes(config).route("/admin/*", "FormClient", "admin").route("/api/*", "HeaderClient").register("security", "/*")</code>.
+     *
+     * @param config the configuration
+     * @return the builder of the routes
+     */
+    public RoutingSecurityFilter.Builder securityRoutes(final Config config) {
+        return new RoutingSecurityFilter.Builder(config, this);
+    }
 }
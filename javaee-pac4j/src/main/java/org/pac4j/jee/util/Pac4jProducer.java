@@ -2,10 +2,10 @@ package org.pac4j.jee.util;
 
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
-import org.pac4j.core.adapter.FrameworkAdapter;
 import org.pac4j.core.config.Config;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.profile.ProfileManager;
 import org.pac4j.jee.context.JEEFrameworkParameters;
 
@@ -21,6 +21,16 @@ import javax.servlet.http.HttpServletResponse;
  *
  * Produces request-scoped web context and profile manager.
  *
+ * The web context and the session store are request-scoped beans: they are injected as lazy client proxies and are only created,
+ * once per request, when they are first used. The profile manager cannot be proxied (it has no default constructor): it is
+ * created once per request on top of these proxies, so that injecting it does not read the web context or the session.
+ *
+ * The configuration is resolved once per request, from the {@link ConfigHolder} bean if one is available (so that the produced beans
+ * of a request share the same snapshot of a reloadable configuration) or from the configuration bean otherwise.
+ *
+ * A normal-scoped producer cannot return <code>null</code>: without any available configuration, the web context and the session
+ * store fail with a {@link TechnicalException} when they are first used, and the profile manager is <code>null</code>.
+ *
  * @author Phillip Ross
  * @since 3.0.0
  */
@@ -30,81 +40,91 @@ import javax.servlet.http.HttpServletResponse;
 @Deprecated
 public class Pac4jProducer {
 
+    private Config config;
+
+    private JEEFrameworkParameters frameworkParameters;
+
+    private ProducedProfileManager producedProfileManager;
+
     /**
      * Factory method which produces a pac4j web context.
      *
      * @param instanceConfig the configuration
+     * @param instanceConfigHolder the configuration holder
      * @param httpServletRequest the HTTP servlet request
      * @param httpServletResponse the HTTP servlet response
      * @return a web context associated with the current servlet request
+     * @throws TechnicalException if no configuration is available
      */
     @Produces
+    @RequestScoped
     WebContext getWebContext(final Instance<Config> instanceConfig,
+                             final Instance<ConfigHolder> instanceConfigHolder,
                              final HttpServletRequest httpServletRequest,
                              final HttpServletResponse httpServletResponse) {
 
-        if (instanceConfig.isResolvable()) {
-            val config = instanceConfig.get();
-            FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
-
+        val config = resolveConfig(instanceConfig, instanceConfigHolder);
+        if (config != null) {
             LOGGER.trace("Producing a pac4j web context...");
-            val webContext = config.getWebContextFactory().newContext(new JEEFrameworkParameters(httpServletRequest, httpServletResponse));
+            val webContext = config.getWebContextFactory().newContext(getFrameworkParameters(httpServletRequest, httpServletResponse));
             LOGGER.trace("Returning a pac4j web context.");
             return webContext;
-        } else {
-            LOGGER.debug("Unable to produce a web context: no Config available");
         }
-
-        return null;
+        throw new TechnicalException("Unable to produce a web context: no Config or ConfigHolder bean available");
     }
 
     /**
      * Factory method which produces a pac4j session store.
      *
      * @param instanceConfig the configuration
+     * @param instanceConfigHolder the configuration holder
      * @param httpServletRequest the HTTP servlet request
      * @param httpServletResponse the HTTP servlet response
      * @return a session store associated with the current servlet request
+     * @throws TechnicalException if no configuration is available
      */
     @Produces
+    @RequestScoped
     SessionStore getSessionStore(final Instance<Config> instanceConfig,
+                                 final Instance<ConfigHolder> instanceConfigHolder,
                                  final HttpServletRequest httpServletRequest,
                                  final HttpServletResponse httpServletResponse) {
 
-        if (instanceConfig.isResolvable()) {
-            val config = instanceConfig.get();
-            FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
-
+        val config = resolveConfig(instanceConfig, instanceConfigHolder);
+        if (config != null) {
             LOGGER.trace("Producing a pac4j session store...");
-            val sessionStore = config.getSessionStoreFactory().newSessionStore(new JEEFrameworkParameters(httpServletRequest, httpServletResponse));
+            val sessionStore = config.getSessionStoreFactory().newSessionStore(getFrameworkParameters(httpServletRequest, httpServletResponse));
             LOGGER.trace("Returning a pac4j session store.");
             return sessionStore;
-        } else {
-            LOGGER.debug("Unable to produce a session store: no Config available");
         }
-
-        return null;
+        throw new TechnicalException("Unable to produce a session store: no Config or ConfigHolder bean available");
     }
 
     /**
      * Factory method which produces a pac4j profile manager.
      *
      * @param instanceConfig the configuration
+     * @param instanceConfigHolder the configuration holder
      * @param webContext the web context to be used for building the profile manager
      * @param sessionStore the session store to be used for building the profile manager
      * @return a profile manager associated with the current servlet request
      */
     @Produces
     ProfileManager getProfileManager(final Instance<Config> instanceConfig,
+                                     final Instance<ConfigHolder> instanceConfigHolder,
                                      final WebContext webContext,
                                      final SessionStore sessionStore) {
 
-        if (instanceConfig.isResolvable()) {
-            val config = instanceConfig.get();
-            FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
+        val produced = this.producedProfileManager;
+        if (produced != null && produced.webContext() == webContext && produced.sessionStore() == sessionStore) {
+            return produced.profileManager();
+        }
 
+        val config = resolveConfig(instanceConfig, instanceConfigHolder);
+        if (config != null) {
             LOGGER.trace("Producing a pac4j profile manager...");
             val profileManager = config.getProfileManagerFactory().apply(webContext, sessionStore);
+            this.producedProfileManager = new ProducedProfileManager(webContext, sessionStore, profileManager);
             LOGGER.trace("Returning a pac4j profile manager.");
             return profileManager;
         } else {
@@ -113,4 +133,30 @@ public class Pac4jProducer {
 
         return null;
     }
+
+    private Config resolveConfig(final Instance<Config> instanceConfig, final Instance<ConfigHolder> instanceConfigHolder) {
+        if (this.config == null) {
+            if (instanceConfigHolder.isResolvable()) {
+                this.config = instanceConfigHolder.get().get();
+            } else if (instanceConfig.isResolvable()) {
+                this.config = ConfigInitializer.initialize(instanceConfig.get());
+            }
+        }
+        return this.config;
+    }
+
+    /**
+     * The web context and the session store of a request share the same framework parameters.
+     */
+    private JEEFrameworkParameters getFrameworkParameters(final HttpServletRequest httpServletRequest,
+                                                          final HttpServletResponse httpServletResponse) {
+        var parameters = this.frameworkParameters;
+        if (parameters == null || parameters.getRequest() != httpServletRequest || parameters.getResponse() != httpServletResponse) {
+            parameters = new JEEFrameworkParameters(httpServletRequest, httpServletResponse);
+            this.frameworkParameters = parameters;
+        }
+        return parameters;
+    }
+
+    private record ProducedProfileManager(WebContext webContext, SessionStore sessionStore, ProfileManager profileManager) {}
 }
@@ -0,0 +1,188 @@
+package org.pac4j.jee.util;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.BasicUserProfile;
+import org.pac4j.core.profile.ProfileHelper;
+import org.pac4j.core.profile.UserProfile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.pac4j.core.util.CommonHelper.assertTrue;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>A bounded concurrent cache of the user profiles authenticated by direct clients.</p>
+ *
+ * <p>Entries are keyed by a SHA-256 hash of the client name and the credentials (token or username/password): no credentials
+ * are kept in memory. Each entry lives for the configured time to live, capped by the expiration date of the profile
+ * (the <code>exp</code> attribute) if any. When the cache is full, the oldest entries are evicted first (see {@link BoundedCache}).</p>
+ *
+ * <p>Profiles are copied when they are stored and when they are read, so that the changes made on a profile during
+ * a request (by the authorization generators for example) do not leak into the cache.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Deprecated
+public class ProfileCache {
+
+    private static final String EXPIRATION_ATTRIBUTE = "exp";
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long timeToLive;
+
+    private final BoundedCache<String, UserProfile> entries;
+
+    /**
+     * Build a profile cache.
+     *
+     * @param maxSize the maximum number of entries
+     * @param timeToLive the time to live of the entries (in milliseconds)
+     */
+    public ProfileCache(final int maxSize, final long timeToLive) {
+        assertTrue(timeToLive > 0, "timeToLive must be greater than 0");
+        this.entries = new BoundedCache<>(maxSize);
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Compute the cache key for a client and its credentials.
+     *
+     * @param clientName the client name
+     * @param credentials the credentials
+     * @return the key or <code>null</code> if these credentials cannot be cached
+     */
+    public static String key(final String clientName, final Credentials credentials) {
+        final String secret;
+        if (credentials instanceof TokenCredentials tokenCredentials) {
+            secret = "T:" + tokenCredentials.getToken();
+        } else if (credentials instanceof UsernamePasswordCredentials usernamePasswordCredentials) {
+            secret = "U:" + usernamePasswordCredentials.getUsername() + '\u0000' + usernamePasswordCredentials.getPassword();
+        } else {
+            return null;
+        }
+        try {
+            val digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(clientName).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return Base64.getEncoder().encodeToString(digest.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    /**
+     * Get a copy of the profile cached for this key.
+     *
+     * @param key the key
+     * @return the profile or <code>null</code> if there is no valid entry
+     */
+    public UserProfile get(final String key) {
+        val profile = entries.get(key);
+        return profile != null ? copy(profile) : null;
+    }
+
+    /**
+     * Cache a copy of the profile for this key.
+     *
+     * @param key the key
+     * @param profile the profile
+     */
+    public void put(final String key, final UserProfile profile) {
+        if (profile == null || profile.isExpired()) {
+            return;
+        }
+        var ttl = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        val expirationTime = getExpirationTime(profile);
+        if (expirationTime != null) {
+            ttl = Math.min(ttl, TimeUnit.MILLISECONDS.toNanos(expirationTime - System.currentTimeMillis()));
+            if (ttl <= 0) {
+                return;
+            }
+        }
+        entries.put(key, copy(profile), ttl);
+    }
+
+    /**
+     * Remove the entry for this key.
+     *
+     * @param key the key
+     */
+    public void remove(final String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int getSize() {
+        return entries.getSize();
+    }
+
+    public long getHits() {
+        return entries.getHits();
+    }
+
+    public long getMisses() {
+        return entries.getMisses();
+    }
+
+    public long getEvictions() {
+        return entries.getEvictions();
+    }
+
+    private static Long getExpirationTime(final UserProfile profile) {
+        val exp = profile.getAttribute(EXPIRATION_ATTRIBUTE);
+        if (exp instanceof Date date) {
+            return date.getTime();
+        } else if (exp instanceof Number number) {
+            return TimeUnit.SECONDS.toMillis(number.longValue());
+        }
+        return null;
+    }
+
+    /**
+     * Copy a profile: its identifier, attributes, authentication attributes, roles, client name, linked identifier
+     * and remembered flag. Profiles which are not {@link BasicUserProfile} are not copied.
+     *
+     * @param profile the profile
+     * @return the copy
+     */
+    protected UserProfile copy(final UserProfile profile) {
+        if (!(profile instanceof BasicUserProfile basicProfile)) {
+            return profile;
+        }
+        try {
+            val copy = (BasicUserProfile) ProfileHelper.buildUserProfileByClassCompleteName(profile.getClass().getName());
+            copy.build(basicProfile.getId(), basicProfile.getAttributes(), basicProfile.getAuthenticationAttributes());
+            copy.addRoles(basicProfile.getRoles());
+            copy.setClientName(basicProfile.getClientName());
+            copy.setLinkedId(basicProfile.getLinkedId());
+            copy.setRemembered(basicProfile.isRemembered());
+            return copy;
+        } catch (final TechnicalException e) {
+            LOGGER.debug("Cannot copy profile: {}", profile.getClass().getName(), e);
+            return profile;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.pac4j.jee.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionContext;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * You should upgrade to the new <code>jakartaee-pac4j</code> library.
+ *
+ * <p>This wraps the {@link HttpServletRequest} so that no web session is ever created or used: the existing sessions are hidden
+ * and each attempt to create a session is reported to a callback.</p>
+ *
+ * <p>By default, such an attempt gets a detached session which only lives for the current request and is never stored
+ * by the container, so that writing to the session is a no-op. In fail-fast mode, the attempt throws an {@link IllegalStateException}.</p>
+ *
+ * @since 8.0.4
+ */
+@Slf4j
+@Deprecated
+public class StatelessHttpServletRequestWrapper extends HttpServletRequestWrapper {
+
+    private final boolean failFast;
+
+    private final Runnable onSessionAttempt;
+
+    private DetachedSession detachedSession;
+
+    /**
+     * Build the wrapper.
+     *
+     * @param request the request
+     * @param failFast whether the attempts to create a session fail
+     * @param onSessionAttempt the callback of the attempts to create a session (optional)
+     */
+    public StatelessHttpServletRequestWrapper(final HttpServletRequest request, final boolean failFast,
+                                              final Runnable onSessionAttempt) {
+        super(request);
+        this.failFast = failFast;
+        this.onSessionAttempt = onSessionAttempt;
+    }
+
+    @Override
+    public HttpSession getSession(final boolean create) {
+        if (detachedSession == null && create) {
+            blockSession();
+            detachedSession = new DetachedSession(getServletContext());
+        }
+        return detachedSession;
+    }
+
+    @Override
+    public HttpSession getSession() {
+        return getSession(true);
+    }
+
+    @Override
+    public String changeSessionId() {
+        if (detachedSession == null) {
+            throw new IllegalStateException("No session in stateless mode");
+        }
+        detachedSession.id = UUID.randomUUID().toString();
+        return detachedSession.id;
+    }
+
+    @Override
+    public String getRequestedSessionId() {
+        return null;
+    }
+
+    @Override
+    public boolean isRequestedSessionIdValid() {
+        return false;
+    }
+
+    private void blockSession() {
+        if (onSessionAttempt != null) {
+            onSessionAttempt.run();
+        }
+        if (failFast) {
+            throw new IllegalStateException("Session creation forbidden in stateless mode: " + getRequestURI());
+        }
+        LOGGER.debug("Session creation blocked in stateless mode: {}", getRequestURI());
+    }
+
+    /**
+     * A session only living for the current request.
+     */
+    @SuppressWarnings("deprecation")
+    private static final class DetachedSession implements HttpSession {
+
+        private final ServletContext servletContext;
+
+        private final long creationTime = System.currentTimeMillis();
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private String id = UUID.randomUUID().toString();
+
+        private int maxInactiveInterval;
+
+        private DetachedSession(final ServletContext servletContext) {
+            this.servletContext = servletContext;
+        }
+
+        @Override
+        public long getCreationTime() {
+            return creationTime;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public long getLastAccessedTime() {
+            return creationTime;
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return servletContext;
+        }
+
+        @Override
+        public void setMaxInactiveInterval(final int interval) {
+            this.maxInactiveInterval = interval;
+        }
+
+        @Override
+        public int getMaxInactiveInterval() {
+            return maxInactiveInterval;
+        }
+
+        @Override
+        public HttpSessionContext getSessionContext() {
+            return null;
+        }
+
+        @Override
+        public Object getAttribute(final String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public Object getValue(final String name) {
+            return getAttribute(name);
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        @Override
+        public String[] getValueNames() {
+            return attributes.keySet().toArray(new String[0]);
+        }
+
+        @Override
+        public void setAttribute(final String name, final Object value) {
+            if (value == null) {
+                attributes.remove(name);
+            } else {
+                attributes.put(name, value);
+            }
+        }
+
+        @Override
+        public void putValue(final String name, final Object value) {
+            setAttribute(name, value);
+        }
+
+        @Override
+        public void removeAttribute(final String name) {
+            attributes.remove(name);
+        }
+
+        @Override
+        public void removeValue(final String name) {
+            removeAttribute(name);
+        }
+
+        @Override
+        public void invalidate() {
+            attributes.clear();
+        }
+
+        @Override
+        public boolean isNew() {
+            return true;
+        }
+    }
+}
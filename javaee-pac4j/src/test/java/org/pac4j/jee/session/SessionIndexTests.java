@@ -0,0 +1,132 @@
+package org.pac4j.jee.session;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.jee.util.ServletMocks;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import javax.servlet.http.HttpSessionEvent;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link SessionIndex}.
+ *
+ * @since 8.0.4
+ */
+final class SessionIndexTests {
+
+    private final SessionIndex index = new SessionIndex();
+
+    @Test
+    void testProfilesIndexedWhenSaved() {
+        val session = ServletMocks.session("s1");
+        saveProfiles(session, profiles("jle", "leleuj"));
+        assertEquals(Set.of("s1"), index.getSessionIds("jle"));
+        assertEquals(Set.of("s1"), index.getSessionIds("leleuj"));
+        assertEquals(Set.of("jle", "leleuj"), index.getProfileIds("s1"));
+
+        saveProfiles(session, profiles("other"));
+        assertTrue(index.getSessionIds("jle").isEmpty());
+        assertEquals(Set.of("s1"), index.getSessionIds("other"));
+
+        session.removeAttribute(Pac4jConstants.USER_PROFILES);
+        index.attributeRemoved(new HttpSessionBindingEvent(session, Pac4jConstants.USER_PROFILES));
+        assertTrue(index.getSessionIds("other").isEmpty());
+        assertEquals(0, index.getSize());
+    }
+
+    @Test
+    void testSessionUnindexedWhenDestroyed() {
+        val session = ServletMocks.session("s1");
+        saveProfiles(session, profiles("jle"));
+        index.recordIdpSession("idp", session);
+        assertEquals(Set.of("s1"), index.getIdpSessionIds("idp"));
+
+        index.sessionDestroyed(new HttpSessionEvent(session));
+        assertTrue(index.getSessionIds("jle").isEmpty());
+        assertTrue(index.getIdpSessionIds("idp").isEmpty());
+        assertEquals(0, index.getSize());
+    }
+
+    @Test
+    void testSessionIdChanged() {
+        // the index only holds weak references to the sessions
+        val session = ServletMocks.session("old");
+        saveProfiles(session, profiles("jle"));
+        index.recordIdpSession("idp", session);
+
+        index.sessionIdChanged(new HttpSessionEvent(ServletMocks.session("new")), "old");
+        assertEquals(Set.of("new"), index.getSessionIds("jle"));
+        assertEquals(Set.of("new"), index.getIdpSessionIds("idp"));
+        assertTrue(index.getProfileIds("old").isEmpty());
+        assertEquals(1, index.getSize());
+    }
+
+    @Test
+    void testOtherValuesIgnored() {
+        val session = ServletMocks.session("s1");
+        saveProfiles(session, List.of("jle", 42, profile("leleuj"), List.of("nested")));
+        assertEquals(Set.of("jle", "leleuj"), index.getProfileIds("s1"));
+
+        saveProfiles(session, "jle");
+        assertEquals(0, index.getSize());
+        index.attributeAdded(new HttpSessionBindingEvent(session, "other", profiles("jle")));
+        assertEquals(0, index.getSize());
+    }
+
+    @Test
+    void testRevokeTenant() {
+        val alice = ServletMocks.session("s1");
+        val bob = ServletMocks.session("s2");
+        val carol = ServletMocks.session("s3");
+        saveProfiles(alice, profiles("tenant1:alice"));
+        saveProfiles(bob, profiles("tenant1:bob"));
+        saveProfiles(carol, profiles("tenant2:carol"));
+
+        assertEquals(2, index.revokeTenant("tenant1:"));
+        assertThrows(IllegalStateException.class, alice::invalidate);
+        assertThrows(IllegalStateException.class, bob::invalidate);
+        assertNotNull(carol.getAttribute(Pac4jConstants.USER_PROFILES));
+        assertEquals(Set.of("s3"), index.getSessionIds("tenant2:carol"));
+        assertEquals(1, index.getSize());
+        // the sessions already invalidated are not counted
+        assertEquals(0, index.revokeUser("tenant1:alice"));
+    }
+
+    @Test
+    void testRevokeProfilesOnly() {
+        val session = ServletMocks.session("s1");
+        saveProfiles(session, profiles("jle"));
+
+        assertEquals(1, index.revokeSessions(index.getSessionIds("jle"), false));
+        assertNull(session.getAttribute(Pac4jConstants.USER_PROFILES));
+    }
+
+    private void saveProfiles(final HttpSession session, final Object profiles) {
+        session.setAttribute(Pac4jConstants.USER_PROFILES, profiles);
+        index.attributeAdded(new HttpSessionBindingEvent(session, Pac4jConstants.USER_PROFILES, profiles));
+    }
+
+    private static Map<String, UserProfile> profiles(final String... ids) {
+        final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+        for (val id : ids) {
+            profiles.put("client-" + id, profile(id));
+        }
+        return profiles;
+    }
+
+    private static UserProfile profile(final String id) {
+        val profile = new CommonProfile();
+        profile.setId(id);
+        return profile;
+    }
+}
@@ -0,0 +1,117 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.exception.http.StatusAction;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.jee.context.JEEContext;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the lockout and the recovery of the {@link BruteForceProtection} through a {@link BruteForceProtectingAuthenticator}.
+ *
+ * @since 8.0.4
+ */
+final class BruteForceProtectingAuthenticatorTests {
+
+    private static final String PASSWORD = "password";
+
+    private final AtomicInteger validations = new AtomicInteger();
+
+    private final Authenticator passwordAuthenticator = (ctx, credentials) -> {
+        validations.incrementAndGet();
+        val usernamePassword = (UsernamePasswordCredentials) credentials;
+        if (!PASSWORD.equals(usernamePassword.getPassword())) {
+            return Optional.empty();
+        }
+        val profile = new CommonProfile();
+        profile.setId(usernamePassword.getUsername());
+        credentials.setUserProfile(profile);
+        return Optional.of(credentials);
+    };
+
+    @Test
+    void testLockoutAfterTheFailedAttempts() {
+        val protection = new BruteForceProtection(3, 60_000, 0);
+        val authenticator = new BruteForceProtectingAuthenticator(passwordAuthenticator, protection, "form");
+
+        for (var i = 0; i < 3; i++) {
+            assertTrue(validate(authenticator, "jle", "wrong" + i).isEmpty());
+        }
+        val context = context();
+        val e = assertThrows(StatusAction.class, () -> authenticator.validate(new CallContext(context, null),
+            new UsernamePasswordCredentials("jle", PASSWORD)));
+        assertEquals(429, e.getCode());
+        assertNotNull(context.getNativeResponse().getHeader("Retry-After"));
+        // the authenticator is not called during the lockout, even for the right password
+        assertEquals(3, validations.get());
+        assertEquals(1L, protection.getThrottledAttempts());
+        // the other sources are not locked out
+        assertEquals(0L, protection.getThrottlingDelay("other-host", "jle"));
+    }
+
+    @Test
+    void testRecoveryAfterTheDelay() throws InterruptedException {
+        val protection = new BruteForceProtection(2, 400, 0);
+        val authenticator = new BruteForceProtectingAuthenticator(passwordAuthenticator, protection, "form");
+
+        validate(authenticator, "jle", "wrong1");
+        validate(authenticator, "jle", "wrong2");
+        val delay = protection.getThrottlingDelay(ServletMocks.REMOTE_ADDRESS, "jle");
+        assertTrue(delay > 0);
+
+        Thread.sleep(delay + 50);
+        assertTrue(validate(authenticator, "jle", PASSWORD).isPresent());
+        // the successful attempts do not consume tokens
+        assertTrue(validate(authenticator, "jle", PASSWORD).isPresent());
+        assertEquals(4, validations.get());
+    }
+
+    @Test
+    void testFailedCredentialsRejectedWithoutTheAuthenticator() {
+        val protection = new BruteForceProtection(10, 60_000, 60_000);
+        val authenticator = new BruteForceProtectingAuthenticator(passwordAuthenticator, protection, "form");
+
+        assertTrue(validate(authenticator, "jle", "wrong").isEmpty());
+        assertTrue(validate(authenticator, "jle", "wrong").isEmpty());
+        assertEquals(1, validations.get());
+        assertEquals(1L, protection.getRejectedCredentials());
+
+        protection.clearFailedCredentials();
+        assertTrue(validate(authenticator, "jle", "wrong").isEmpty());
+        assertEquals(2, validations.get());
+    }
+
+    @Test
+    void testServerErrorsNotCounted() {
+        val protection = new BruteForceProtection(1, 60_000, 60_000);
+        final Authenticator unavailable = (ctx, credentials) -> {
+            validations.incrementAndGet();
+            throw new StatusAction(503);
+        };
+        val authenticator = new BruteForceProtectingAuthenticator(unavailable, protection, "form");
+
+        for (var i = 0; i < 3; i++) {
+            assertThrows(StatusAction.class, () -> validate(authenticator, "jle", PASSWORD));
+        }
+        assertEquals(3, validations.get());
+        assertEquals(0L, protection.getThrottledAttempts());
+    }
+
+    private static Optional<Credentials> validate(final Authenticator authenticator, final String username, final String password) {
+        return authenticator.validate(new CallContext(context(), null), new UsernamePasswordCredentials(username, password));
+    }
+
+    private static JEEContext context() {
+        return new JEEContext(ServletMocks.request("/login", null, Map.of()), ServletMocks.response());
+    }
+}
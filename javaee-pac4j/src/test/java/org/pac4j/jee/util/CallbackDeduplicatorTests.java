@@ -0,0 +1,211 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.context.HttpConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests {@link CallbackDeduplicator} with parallel duplicate callbacks.
+ *
+ * @since 8.0.4
+ */
+final class CallbackDeduplicatorTests {
+
+    private static final int DUPLICATES = 8;
+
+    private static final long WAIT = TimeUnit.SECONDS.toMillis(10);
+
+    private static final String TARGET = "https://app.example.com/protected";
+
+    private static final String SESSION_COOKIE = "JSESSIONID=renewed; Path=/; HttpOnly";
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(DUPLICATES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testParallelDuplicatesPerformedOnceWithTheSameCookies() throws Exception {
+        val deduplicator = new CallbackDeduplicator(100, WAIT);
+        val calls = new AtomicInteger();
+        // the first callback ends once all the duplicates wait for it
+        final Runnable callback = () -> {
+            calls.incrementAndGet();
+            await(() -> deduplicator.getCoalesced() == DUPLICATES - 1);
+        };
+
+        val responses = performInParallel(deduplicator, DUPLICATES, i -> "session", callback);
+
+        assertEquals(1, calls.get());
+        assertEquals(DUPLICATES - 1, deduplicator.getCoalesced());
+        assertEquals(0, deduplicator.getSize());
+        for (val response : responses) {
+            assertEquals(HttpServletResponse.SC_FOUND, response.getStatus());
+            assertEquals(TARGET, response.getHeader(HttpConstants.LOCATION_HEADER));
+            assertEquals(List.of(SESSION_COOKIE), List.copyOf(response.getHeaders("Set-Cookie")));
+        }
+    }
+
+    @Test
+    void testCallbacksOfDifferentSessionsNotCoalesced() throws Exception {
+        val deduplicator = new CallbackDeduplicator(100, WAIT);
+        val started = new CountDownLatch(2);
+        // both callbacks must be in flight at the same time
+        final Runnable callback = () -> {
+            started.countDown();
+            await(() -> started.getCount() == 0);
+        };
+
+        val responses = performInParallel(deduplicator, 2, i -> "session" + i, callback);
+
+        assertEquals(0, deduplicator.getCoalesced());
+        for (val response : responses) {
+            assertEquals(HttpServletResponse.SC_FOUND, response.getStatus());
+        }
+    }
+
+    @Test
+    void testFailureReplayedAsError() throws Exception {
+        val deduplicator = new CallbackDeduplicator(100, WAIT);
+        final Runnable callback = () -> {
+            await(() -> deduplicator.getCoalesced() == DUPLICATES - 1);
+            throw new IllegalStateException("Code exchange failed");
+        };
+
+        val responses = new ArrayList<HttpServletResponse>();
+        final List<Future<?>> futures = new ArrayList<>();
+        val failures = new AtomicInteger();
+        for (var i = 0; i < DUPLICATES; i++) {
+            val response = ServletMocks.response();
+            responses.add(response);
+            futures.add(executor.submit(() -> {
+                try {
+                    deduplicator.perform(callbackRequest("session"), response, callback);
+                } catch (final IllegalStateException e) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (val future : futures) {
+            future.get(WAIT, TimeUnit.MILLISECONDS);
+        }
+
+        assertEquals(1, failures.get());
+        var errors = 0;
+        for (val response : responses) {
+            if (response.getStatus() == HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+                errors++;
+            }
+        }
+        assertEquals(DUPLICATES - 1, errors);
+        assertEquals(0, deduplicator.getSize());
+    }
+
+    @Test
+    void testDuplicatePerformedAfterTimeout() throws Exception {
+        val deduplicator = new CallbackDeduplicator(100, 50L);
+        val calls = new AtomicInteger();
+        // the first callback lasts longer than the timeout of the duplicate
+        final Runnable callback = () -> {
+            if (calls.incrementAndGet() == 1) {
+                await(() -> deduplicator.getTimeouts() == 1 && calls.get() == 2);
+            }
+        };
+
+        performInParallel(deduplicator, 2, i -> "session", callback);
+
+        assertEquals(2, calls.get());
+        assertEquals(1, deduplicator.getTimeouts());
+    }
+
+    @Test
+    void testCallbackWithoutCredentialsNotDeduplicated() throws Exception {
+        val deduplicator = new CallbackDeduplicator(100, WAIT);
+        val calls = new AtomicInteger();
+
+        val response = ServletMocks.response();
+        deduplicator.perform(ServletMocks.request("/callback", "session", Map.of()), response, calls::incrementAndGet);
+        deduplicator.perform(ServletMocks.request("/callback", "session", Map.of()), response, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+        assertEquals(0, deduplicator.getCoalesced());
+    }
+
+    @Test
+    void testInvalidSettings() {
+        assertThrows(RuntimeException.class, () -> new CallbackDeduplicator(0, WAIT));
+        assertThrows(RuntimeException.class, () -> new CallbackDeduplicator(100, 0L));
+        assertThrows(RuntimeException.class, () -> new CallbackDeduplicator(100, WAIT, List.of()));
+    }
+
+    /**
+     * Perform callbacks in parallel: the callback logic is followed by a redirection renewing the session cookie.
+     */
+    private List<HttpServletResponse> performInParallel(final CallbackDeduplicator deduplicator, final int count,
+                                                        final IntFunction<String> sessionIds, final Runnable logic)
+        throws Exception {
+        final List<HttpServletResponse> responses = new ArrayList<>();
+        final List<Future<?>> futures = new ArrayList<>();
+        for (var i = 0; i < count; i++) {
+            val response = ServletMocks.response();
+            val request = callbackRequest(sessionIds.apply(i));
+            responses.add(response);
+            futures.add(executor.submit(() -> {
+                deduplicator.perform(request, response, () -> {
+                    logic.run();
+                    response.setStatus(HttpServletResponse.SC_FOUND);
+                    response.setHeader(HttpConstants.LOCATION_HEADER, TARGET);
+                    response.addHeader("Set-Cookie", SESSION_COOKIE);
+                });
+                return null;
+            }));
+        }
+        for (val future : futures) {
+            future.get(WAIT, TimeUnit.MILLISECONDS);
+        }
+        return responses;
+    }
+
+    private static HttpServletRequest callbackRequest(final String sessionId) {
+        return ServletMocks.request("/callback", sessionId, Map.of("client_name", "OidcClient", "code", "abc", "state", "xyz"));
+    }
+
+    private static void await(final BooleanSupplier condition) {
+        val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAIT);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met in time");
+            }
+            Thread.onSpinWait();
+            Thread.yield();
+        }
+    }
+}
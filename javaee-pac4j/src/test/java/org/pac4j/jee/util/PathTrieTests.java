@@ -0,0 +1,82 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link PathTrie}.
+ *
+ * @since 8.0.4
+ */
+final class PathTrieTests {
+
+    @Test
+    void testExactPath() {
+        val trie = PathTrie.compile("/health");
+        assertTrue(trie.matches("/health", null));
+        assertTrue(trie.matches("", "/health"));
+        assertFalse(trie.matches("/health/", null));
+        assertFalse(trie.matches("/health/live", null));
+        assertFalse(trie.matches("/healthz", null));
+        assertFalse(trie.matches("/", null));
+    }
+
+    @Test
+    void testPathPrefix() {
+        val trie = PathTrie.compile("/static/*, /assets/**");
+        assertTrue(trie.matches("/static", null));
+        assertTrue(trie.matches("/static/", null));
+        assertTrue(trie.matches("/static/css/app.css", null));
+        assertTrue(trie.matches("/assets", "/img/logo.png"));
+        assertFalse(trie.matches("/staticfiles", null));
+        assertFalse(trie.matches("/stat", null));
+        assertFalse(trie.matches("/app", "/static"));
+    }
+
+    @Test
+    void testRootPrefixMatchesAllPaths() {
+        val trie = PathTrie.compile("/*");
+        assertTrue(trie.matches("", null));
+        assertTrue(trie.matches("/", null));
+        assertTrue(trie.matches("/any/path", null));
+    }
+
+    @Test
+    void testExtension() {
+        val trie = PathTrie.compile("*.css,*.min.js");
+        assertTrue(trie.matches("/static/app.css", null));
+        assertTrue(trie.matches("/app", "/vendor.min.js"));
+        assertFalse(trie.matches("/static/app.js", null));
+        assertFalse(trie.matches("/css", null));
+    }
+
+    @Test
+    void testMostSpecificPatternWins() {
+        val trie = PathTrie.<String>builder()
+            .add("/api/*", "api")
+            .add("/api/admin/*", "admin")
+            .add("/api/admin/health", "health")
+            .add("*.json", "json")
+            .build();
+        assertEquals("health", trie.find("/api/admin/health", null));
+        assertEquals("admin", trie.find("/api/admin/users", null));
+        assertEquals("admin", trie.find("/api/admin/users.json", null));
+        assertEquals("api", trie.find("/api/administrators", null));
+        assertEquals("api", trie.find("/api", "/users"));
+        assertEquals("json", trie.find("/data/users.json", null));
+        assertNull(trie.find("/data/users.xml", null));
+    }
+
+    @Test
+    void testInvalidPatterns() {
+        assertNull(PathTrie.compile(" "));
+        assertThrows(TechnicalException.class, () -> PathTrie.compile("static/*"));
+        assertThrows(TechnicalException.class, () -> PathTrie.compile("/static/*/css"));
+        assertThrows(TechnicalException.class, () -> PathTrie.compile("/health,/health"));
+        assertThrows(TechnicalException.class, () -> PathTrie.compile("/static/*,/static/**"));
+        assertThrows(TechnicalException.class, () -> PathTrie.compile("*.css,*.css"));
+    }
+}
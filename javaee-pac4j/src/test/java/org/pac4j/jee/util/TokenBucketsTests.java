@@ -0,0 +1,78 @@
+package org.pac4j.jee.util;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests {@link TokenBuckets}.
+ *
+ * @since 8.0.4
+ */
+final class TokenBucketsTests {
+
+    private static final int STRIPES = 1024;
+
+    @Test
+    void testBucketsStartFull() {
+        val buckets = new TokenBuckets(STRIPES, 3, 60_000);
+        for (var i = 0; i < 3; i++) {
+            assertFalse(buckets.isEmpty("key"));
+            assertTrue(buckets.tryConsume("key"));
+        }
+        assertTrue(buckets.isEmpty("key"));
+        assertFalse(buckets.tryConsume("key"));
+        val delay = buckets.getDelay("key");
+        assertTrue(delay > 0 && delay <= 20_000, String.valueOf(delay));
+    }
+
+    @Test
+    void testEmptyBucketOnlyBlocksItsKeys() {
+        val buckets = new TokenBuckets(STRIPES, 1, 60_000);
+        buckets.consume("key");
+        assertTrue(buckets.isEmpty("key"));
+        // the other keys may collide with the first one, but not all of them
+        var emptyBuckets = 0;
+        for (var i = 0; i < 10; i++) {
+            if (buckets.isEmpty("other" + i)) {
+                emptyBuckets++;
+            }
+        }
+        assertTrue(emptyBuckets < 10);
+    }
+
+    @Test
+    void testTokenGivenBackAfterTheDelay() throws InterruptedException {
+        val buckets = new TokenBuckets(STRIPES, 2, 400);
+        buckets.consume("key");
+        buckets.consume("key");
+        assertTrue(buckets.isEmpty("key"));
+
+        Thread.sleep(buckets.getDelay("key") + 50);
+        assertFalse(buckets.isEmpty("key"));
+        assertTrue(buckets.tryConsume("key"));
+        assertTrue(buckets.isEmpty("key"));
+    }
+
+    @Test
+    void testConsumingAnEmptyBucketPostponesTheNextToken() throws InterruptedException {
+        val buckets = new TokenBuckets(STRIPES, 1, 400);
+        buckets.consume("key");
+        Thread.sleep(200);
+        // the attempts keep the bucket empty, but never longer than the refill of a token
+        buckets.consume("key");
+        val delay = buckets.getDelay("key");
+        assertTrue(delay > 300 && delay <= 400, String.valueOf(delay));
+    }
+
+    @Test
+    void testNullKeyNeverLimited() {
+        val buckets = new TokenBuckets(STRIPES, 1, 60_000);
+        buckets.consume(null);
+        buckets.consume(null);
+        assertFalse(buckets.isEmpty(null));
+        assertTrue(buckets.tryConsume(null));
+        assertEquals(0L, buckets.getDelay(null));
+    }
+}
@@ -0,0 +1,145 @@
+package org.pac4j.jee.benchmark;
+
+import jakarta.servlet.ServletException;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.http.client.direct.DirectBasicAuthClient;
+import org.pac4j.jee.filter.SecurityFilter;
+import org.pac4j.jee.util.JEEConstants;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the {@link SecurityFilter} under a brute force attack on a basic auth client whose authenticator hashes
+ * the passwords (PBKDF2, as expensive as a BCrypt or an LDAP bind), with and without the brute force protection.
+ * As all the requests are rejected, the inverse of the throughput is the CPU time spent per rejected request.</p>
+ *
+ * <ul>
+ *     <li><code>repeatedCredentials</code>: the same wrong credentials are sent again and again (rejected by the negative cache)</li>
+ *     <li><code>credentialStuffing</code>: different usernames and passwords are sent from the same source (throttled)</li>
+ * </ul>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BruteForceProtectionBenchmark {
+
+    private static final int ITERATIONS = 10_000;
+
+    private static final byte[] SALT = "pac4j-benchmark".getBytes(StandardCharsets.UTF_8);
+
+    private static final int STUFFED_CREDENTIALS = 1024;
+
+    @Param({"false", "true"})
+    private boolean protection;
+
+    private SecurityFilter filter;
+
+    private ServletStubs.Request repeatedRequest;
+
+    private ServletStubs.Request[] stuffingRequests;
+
+    private int next;
+
+    private final ServletStubs.Response response = new ServletStubs.Response();
+
+    @Setup
+    public void setup() throws ServletException {
+        val passwordHash = hash("secret");
+        final Authenticator authenticator = (ctx, credentials) -> {
+            val usernamePassword = (UsernamePasswordCredentials) credentials;
+            if (!MessageDigest.isEqual(passwordHash, hash(usernamePassword.getPassword()))) {
+                throw new CredentialsException("Invalid password");
+            }
+            val profile = new CommonProfile();
+            profile.setId(usernamePassword.getUsername());
+            credentials.setUserProfile(profile);
+            return Optional.of(credentials);
+        };
+        val config = new Config(new DirectBasicAuthClient(authenticator));
+
+        final Map<String, String> parameters = new HashMap<>();
+        if (protection) {
+            parameters.put(JEEConstants.BRUTE_FORCE_PROTECTION, "true");
+        }
+        filter = new SecurityFilter(config, "DirectBasicAuthClient");
+        filter.init(ServletStubs.filterConfig(parameters));
+
+        repeatedRequest = request("admin", "123456");
+        stuffingRequests = new ServletStubs.Request[STUFFED_CREDENTIALS];
+        for (var i = 0; i < STUFFED_CREDENTIALS; i++) {
+            stuffingRequests[i] = request("user" + i, "password" + i);
+        }
+    }
+
+    private static ServletStubs.Request request(final String username, final String password) {
+        return new ServletStubs.Request("GET", "/api/resource").header("Authorization",
+            "Basic " + Base64.getEncoder().encodeToString((username + ':' + password).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] hash(final String password) {
+        try {
+            val spec = new PBEKeySpec(password.toCharArray(), SALT, ITERATIONS, 256);
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (final GeneralSecurityException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        filter.destroy();
+    }
+
+    private int run(final ServletStubs.Request request) throws IOException, ServletException {
+        filter.doFilter(request.reset(), response.reset(), ServletStubs.NOOP_CHAIN);
+        val status = response.getStatus();
+        if (status != 401 && status != 429) {
+            throw new IllegalStateException("Unexpected status: " + status);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public int repeatedCredentials() throws IOException, ServletException {
+        return run(repeatedRequest);
+    }
+
+    @Benchmark
+    public int credentialStuffing() throws IOException, ServletException {
+        next = (next + 1) % STUFFED_CREDENTIALS;
+        return run(stuffingRequests[next]);
+    }
+}
@@ -0,0 +1,171 @@
+package org.pac4j.jee.benchmark;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.client.IndirectClient;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.exception.http.FoundAction;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.jee.filter.CallbackFilter;
+import org.pac4j.jee.util.JEEConstants;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Simulation of duplicate callbacks: each operation sends the same authorization code to the {@link CallbackFilter}
+ * from several threads at once, as a double click or a browser retry would, with a code exchange taking a few milliseconds.</p>
+ *
+ * <p>The <code>exchanges</code> counter reports the number of code exchanges: one per operation when the callbacks are
+ * deduplicated (<code>deduplicate=true</code>), one per duplicate otherwise. Each operation also checks that all the
+ * callbacks are redirected.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class CallbackFilterBenchmark {
+
+    private static final int DUPLICATES = 3;
+
+    private static final long EXCHANGE_MILLIS = 5L;
+
+    @Param({"false", "true"})
+    public boolean deduplicate;
+
+    private final LongAdder exchanges = new LongAdder();
+
+    private final ServletStubs.Request[] requests = new ServletStubs.Request[DUPLICATES];
+
+    private final ServletStubs.Response[] responses = new ServletStubs.Response[DUPLICATES];
+
+    private CallbackFilter filter;
+
+    private ExecutorService executor;
+
+    private long code;
+
+    @Setup
+    public void setup() throws Exception {
+        val client = new CodeClient(exchanges);
+        client.init();
+        val config = new Config(client);
+        filter = new CallbackFilter(config, "/home");
+        filter.init(ServletStubs.filterConfig(Map.of(JEEConstants.DEDUPLICATE_CALLBACKS, String.valueOf(deduplicate))));
+        for (var i = 0; i < DUPLICATES; i++) {
+            requests[i] = new ServletStubs.Request("GET", "/callback").parameter(Pac4jConstants.DEFAULT_CLIENT_NAME_PARAMETER, "CodeClient");
+            responses[i] = new ServletStubs.Response();
+        }
+        executor = Executors.newFixedThreadPool(DUPLICATES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        filter.destroy();
+    }
+
+    @Benchmark
+    public int duplicateCallbacks(final Counters counters) throws Exception {
+        val currentCode = "code-" + ++code;
+        val before = exchanges.sum();
+        val start = new CountDownLatch(1);
+        final var futures = new ArrayList<Future<Integer>>(DUPLICATES);
+        for (var i = 0; i < DUPLICATES; i++) {
+            val request = requests[i].parameter("code", currentCode).reset();
+            val response = responses[i];
+            final Callable<Integer> callback = () -> {
+                start.await();
+                filter.doFilter(request, response.reset(), ServletStubs.NOOP_CHAIN);
+                return response.getStatus();
+            };
+            futures.add(executor.submit(callback));
+        }
+        start.countDown();
+        var redirects = 0;
+        for (val future : futures) {
+            if (future.get() == 302) {
+                redirects++;
+            }
+        }
+        if (redirects != DUPLICATES) {
+            throw new IllegalStateException(redirects + " callbacks redirected out of " + DUPLICATES);
+        }
+        counters.exchanges += exchanges.sum() - before;
+        return redirects;
+    }
+
+    /**
+     * The number of code exchanges.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long exchanges;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            exchanges = 0;
+        }
+    }
+
+    /**
+     * An indirect client exchanging the <code>code</code> parameter for a profile, slowly.
+     */
+    private static final class CodeClient extends IndirectClient {
+
+        private final LongAdder exchanges;
+
+        private CodeClient(final LongAdder exchanges) {
+            this.exchanges = exchanges;
+            setName("CodeClient");
+            setCallbackUrl("/callback");
+        }
+
+        @Override
+        protected void internalInit(final boolean forceReinit) {
+            setRedirectionActionBuilderIfUndefined(ctx -> Optional.of(new FoundAction("https://idp.example.org/authorize")));
+            setCredentialsExtractorIfUndefined(ctx -> ctx.webContext().getRequestParameter("code").map(TokenCredentials::new));
+            setAuthenticatorIfUndefined((ctx, credentials) -> {
+                exchanges.increment();
+                try {
+                    Thread.sleep(EXCHANGE_MILLIS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                val profile = new CommonProfile();
+                profile.setId(((TokenCredentials) credentials).getToken());
+                credentials.setUserProfile(profile);
+                return Optional.of(credentials);
+            });
+        }
+    }
+}
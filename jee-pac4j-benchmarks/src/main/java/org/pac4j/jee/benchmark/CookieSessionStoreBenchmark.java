@@ -0,0 +1,96 @@
+package org.pac4j.jee.benchmark;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.jee.context.JEEContext;
+import org.pac4j.jee.session.CookieSessionStore;
+import org.pac4j.jee.session.WriteBehindSessionStore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the {@link CookieSessionStore}: cost of decoding the session cookies of a request carrying
+ * an authenticated profile, of encoding them when the profile is saved, and of a callback (session identifier, profiles
+ * and requested URL) whose changes are buffered in the scope of the filters and encoded once.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CookieSessionStoreBenchmark {
+
+    private final CookieSessionStore sessionStore = new CookieSessionStore("a-benchmark-secret-of-at-least-32-characters");
+
+    private final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+
+    private final ServletStubs.Response response = new ServletStubs.Response();
+
+    private final ServletStubs.Request emptyRequest = new ServletStubs.Request("GET", "/app");
+
+    private ServletStubs.Request sessionRequest;
+
+    @Setup
+    public void setup() {
+        val profile = new CommonProfile();
+        profile.setId("jle");
+        profile.setClientName("OidcClient");
+        profile.addAttribute("email", "jle@example.org");
+        profile.addAttribute("name", "Jerome Leleu");
+        profile.addRole("admin");
+        profile.addRole("user");
+        profiles.put("OidcClient", profile);
+
+        // encode once to build the cookies of the following requests
+        sessionStore.set(new JEEContext(emptyRequest.reset(), response.reset()), Pac4jConstants.USER_PROFILES, profiles);
+        sessionRequest = new ServletStubs.Request("GET", "/app");
+        for (val header : response.getSetCookies()) {
+            val nameValue = header.substring(0, header.indexOf(';'));
+            val separator = nameValue.indexOf('=');
+            sessionRequest.cookie(nameValue.substring(0, separator), nameValue.substring(separator + 1));
+        }
+        if (decode() == null) {
+            throw new IllegalStateException("The profiles cannot be decoded");
+        }
+    }
+
+    @Benchmark
+    public Object decode() {
+        return sessionStore.get(new JEEContext(sessionRequest.reset(), response.reset()), Pac4jConstants.USER_PROFILES).orElse(null);
+    }
+
+    @Benchmark
+    public int encode() {
+        sessionStore.set(new JEEContext(emptyRequest.reset(), response.reset()), Pac4jConstants.USER_PROFILES, profiles);
+        return response.getSetCookies().size();
+    }
+
+    @Benchmark
+    public int callback() {
+        val request = emptyRequest.reset();
+        val context = new JEEContext(request, response.reset());
+        WriteBehindSessionStore.open(request);
+        sessionStore.getSessionId(context, true);
+        sessionStore.set(context, Pac4jConstants.USER_PROFILES, profiles);
+        sessionStore.set(context, Pac4jConstants.REQUESTED_URL, null);
+        WriteBehindSessionStore.close(request);
+        return response.getSetCookies().size();
+    }
+}
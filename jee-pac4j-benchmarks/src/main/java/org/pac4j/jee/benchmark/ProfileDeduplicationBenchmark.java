@@ -0,0 +1,129 @@
+package org.pac4j.jee.benchmark;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.jee.session.ProfileDeduplicator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmark of the heap footprint of the profiles kept in many web sessions, with and without the {@link ProfileDeduplicator}.
+ * Each session holds an OpenID Connect-like profile built from fresh strings, as when the claims are parsed at each login.</p>
+ *
+ * <p>The <code>bytesPerSession</code> counter is the heap retained per session, measured after a full garbage collection
+ * over a single measurement iteration (the counters of the iterations are added up). The time is the time to build
+ * (and deduplicate) the profiles of all the sessions.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class ProfileDeduplicationBenchmark {
+
+    private static final String[] GROUPS = {"employees", "engineering", "sales", "support", "platform-team", "oncall", "managers"};
+
+    private static final String[] LOCALES = {"en-US", "fr-FR", "de-DE"};
+
+    @Param({"false", "true"})
+    private boolean deduplicated;
+
+    @Param("50000")
+    private int sessions;
+
+    private ProfileDeduplicator deduplicator;
+
+    private List<UserProfile> profiles;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        deduplicator = new ProfileDeduplicator();
+        profiles = null;
+    }
+
+    @Benchmark
+    public int sessions(final Counters counters) {
+        profiles = null;
+        val before = usedHeap();
+        final List<UserProfile> sessionProfiles = new ArrayList<>(sessions);
+        for (var i = 0; i < sessions; i++) {
+            val profile = profile(i);
+            sessionProfiles.add(deduplicated ? deduplicator.deduplicate(profile) : profile);
+        }
+        profiles = sessionProfiles;
+        counters.bytesPerSession = (usedHeap() - before) / sessions;
+        return profiles.size();
+    }
+
+    private static long usedHeap() {
+        val runtime = Runtime.getRuntime();
+        for (var i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // the strings are copied, like when they are parsed from a token
+    private static CommonProfile profile(final int i) {
+        val profile = new CommonProfile();
+        profile.setId(fresh("user-" + i));
+        profile.setClientName(fresh("OidcClient"));
+        profile.addAttribute(fresh("iss"), fresh("https://login.example.com/realms/corporate"));
+        profile.addAttribute(fresh("aud"), List.of(fresh("web-application")));
+        profile.addAttribute(fresh("azp"), fresh("web-application"));
+        profile.addAttribute(fresh("sub"), fresh("f81d4fae-7dec-11d0-a765-" + String.format("%012d", i)));
+        profile.addAttribute(fresh("email"), fresh("user" + i + "@example.com"));
+        profile.addAttribute(fresh("email_verified"), Boolean.TRUE);
+        profile.addAttribute(fresh("name"), fresh("User " + i));
+        profile.addAttribute(fresh("preferred_username"), fresh("user" + i));
+        profile.addAttribute(fresh("locale"), fresh(LOCALES[i % LOCALES.length]));
+        profile.addAttribute(fresh("zoneinfo"), fresh("Europe/Paris"));
+        profile.addAttribute(fresh("groups"), List.of(fresh(GROUPS[i % GROUPS.length]), fresh(GROUPS[(i + 3) % GROUPS.length]),
+            fresh(GROUPS[(i + 5) % GROUPS.length])));
+        profile.addAttribute(fresh("department"), fresh(GROUPS[i % GROUPS.length]));
+        profile.addAttribute(fresh("token_type"), fresh("Bearer"));
+        profile.addRole(fresh("user"));
+        if (i % 10 == 0) {
+            profile.addRole(fresh("admin"));
+        }
+        return profile;
+    }
+
+    private static String fresh(final String s) {
+        return new String(s.toCharArray());
+    }
+
+    /**
+     * The heap retained per session.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+
+        public long bytesPerSession;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            bytesPerSession = 0;
+        }
+    }
+}
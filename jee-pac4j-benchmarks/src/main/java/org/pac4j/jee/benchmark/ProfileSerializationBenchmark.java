@@ -0,0 +1,121 @@
+package org.pac4j.jee.benchmark;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.serializer.JavaSerializer;
+import org.pac4j.core.util.serializer.Serializer;
+import org.pac4j.jee.session.CompactSerializer;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the serialization of the profiles stored in the web session (a map of one OpenID Connect-like profile
+ * with its claims and tokens, as saved by pac4j): the Java serialization versus the {@link CompactSerializer}, with and without
+ * compression. The size of the serialized data is printed when each trial starts.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProfileSerializationBenchmark {
+
+    @Param({"java", "compact", "compactUncompressed"})
+    private String serializerType;
+
+    private Serializer serializer;
+
+    private Map<String, UserProfile> profiles;
+
+    private byte[] serializedProfiles;
+
+    @Setup
+    public void setup() {
+        if ("java".equals(serializerType)) {
+            serializer = new JavaSerializer();
+        } else {
+            val compactSerializer = new CompactSerializer();
+            compactSerializer.setCompression("compact".equals(serializerType));
+            serializer = compactSerializer;
+        }
+
+        profiles = new LinkedHashMap<>();
+        profiles.put("OidcClient", oidcProfile());
+        serializedProfiles = serializer.serializeToBytes(profiles);
+        System.out.printf("%n%s: %d bytes%n", serializerType, serializedProfiles.length);
+    }
+
+    private static CommonProfile oidcProfile() {
+        val random = new Random(42);
+        val profile = new CommonProfile();
+        profile.setId("248289761001");
+        profile.setClientName("OidcClient");
+        val now = System.currentTimeMillis();
+        profile.addAttribute("iss", "https://login.example.com/realms/corporate");
+        profile.addAttribute("aud", List.of("web-application"));
+        profile.addAttribute("azp", "web-application");
+        profile.addAttribute("exp", new Date(now + 300_000L));
+        profile.addAttribute("iat", new Date(now));
+        profile.addAttribute("auth_time", new Date(now - 5_000L));
+        profile.addAttribute("nonce", token(random, 32));
+        profile.addAttribute("sid", token(random, 36));
+        profile.addAttribute("at_hash", token(random, 22));
+        profile.addAttribute("name", "Jane Doe");
+        profile.addAttribute("given_name", "Jane");
+        profile.addAttribute("family_name", "Doe");
+        profile.addAttribute("preferred_username", "j.doe");
+        profile.addAttribute("email", "janedoe@example.com");
+        profile.addAttribute("email_verified", true);
+        profile.addAttribute("locale", "en-US");
+        profile.addAttribute("zoneinfo", "Europe/Paris");
+        profile.addAttribute("picture", "https://cdn.example.com/avatars/248289761001.png");
+        profile.addAttribute("groups", List.of("employees", "engineering", "platform-team", "oncall"));
+        profile.addAttribute("department", "Engineering");
+        profile.addAttribute("employee_number", 4217);
+        profile.addAttribute("tenant", "corporate");
+        profile.addAttribute("id_token", token(random, 1100));
+        profile.addAttribute("access_token", token(random, 1400));
+        profile.addAttribute("refresh_token", token(random, 700));
+        profile.addAttribute("token_type", "Bearer");
+        profile.addAttribute("expiration", new Date(now + 300_000L));
+        profile.addRoles(List.of("user", "developer"));
+        return profile;
+    }
+
+    private static String token(final Random random, final int length) {
+        val bytes = new byte[length * 3 / 4];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serializeToBytes(profiles);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserializeFromBytes(serializedProfiles);
+    }
+}
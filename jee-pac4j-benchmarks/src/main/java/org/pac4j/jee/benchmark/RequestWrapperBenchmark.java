@@ -0,0 +1,80 @@
+package org.pac4j.jee.benchmark;
+
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.jee.util.Pac4JHttpServletRequestWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the principal and role lookups of the {@link Pac4JHttpServletRequestWrapper}: a new wrapper is built
+ * for each invocation, as the filter does for each request, and queried several times, as a web framework usually does.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestWrapperBenchmark {
+
+    private static final int LOOKUPS = 5;
+
+    @Param({"1", "3"})
+    public int profiles;
+
+    @Param({"5", "50"})
+    public int rolesPerProfile;
+
+    private List<UserProfile> userProfiles;
+
+    private final ServletStubs.Request request = new ServletStubs.Request("GET", "/api/resource");
+
+    @Setup
+    public void setup() {
+        userProfiles = new ArrayList<>();
+        for (var i = 0; i < profiles; i++) {
+            val profile = new CommonProfile();
+            profile.setId("user" + i);
+            for (var j = 0; j < rolesPerProfile; j++) {
+                profile.addRole("role" + j);
+            }
+            userProfiles.add(profile);
+        }
+    }
+
+    @Benchmark
+    public void principal(final Blackhole blackhole) {
+        val wrapper = new Pac4JHttpServletRequestWrapper(request.get(), userProfiles);
+        for (var i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(wrapper.getUserPrincipal());
+            blackhole.consume(wrapper.getRemoteUser());
+        }
+    }
+
+    @Benchmark
+    public void roles(final Blackhole blackhole) {
+        val wrapper = new Pac4JHttpServletRequestWrapper(request.get(), userProfiles);
+        for (var i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(wrapper.isUserInRole("role0"));
+            blackhole.consume(wrapper.isUserInRole("missing"));
+        }
+    }
+}
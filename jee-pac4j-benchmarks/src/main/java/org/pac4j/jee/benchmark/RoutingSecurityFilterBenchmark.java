@@ -0,0 +1,80 @@
+package org.pac4j.jee.benchmark;
+
+import jakarta.servlet.ServletException;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.config.Config;
+import org.pac4j.http.client.direct.HeaderClient;
+import org.pac4j.http.credentials.authenticator.test.SimpleTestTokenAuthenticator;
+import org.pac4j.jee.filter.RoutingSecurityFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the {@link RoutingSecurityFilter}: the cost of a request must not depend on the number of routes.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingSecurityFilterBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int routes;
+
+    private RoutingSecurityFilter filter;
+
+    private ServletStubs.Request securedRequest;
+
+    private ServletStubs.Request unsecuredRequest;
+
+    private final ServletStubs.Response response = new ServletStubs.Response();
+
+    @Setup
+    public void setup() throws ServletException {
+        val client = new HeaderClient("X-Token", new SimpleTestTokenAuthenticator());
+        val builder = RoutingSecurityFilter.builder(new Config(client));
+        for (var i = 0; i < routes; i++) {
+            builder.route("/area" + i + "/*", "HeaderClient");
+        }
+        filter = builder.build();
+        filter.init(ServletStubs.filterConfig(Map.of()));
+
+        securedRequest = new ServletStubs.Request("GET", "/area" + (routes - 1) + "/resource").header("X-Token", "jle");
+        unsecuredRequest = new ServletStubs.Request("GET", "/public/resource");
+    }
+
+    @TearDown
+    public void tearDown() {
+        filter.destroy();
+    }
+
+    @Benchmark
+    public int securedRoute() throws IOException, ServletException {
+        filter.doFilter(securedRequest.reset(), response.reset(), ServletStubs.NOOP_CHAIN);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public int unsecuredPath() throws IOException, ServletException {
+        filter.doFilter(unsecuredRequest.reset(), response.reset(), ServletStubs.NOOP_CHAIN);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,192 @@
+package org.pac4j.jee.benchmark;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.client.direct.AnonymousClient;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.matching.matcher.PathMatcher;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.http.client.direct.DirectBasicAuthClient;
+import org.pac4j.http.client.direct.HeaderClient;
+import org.pac4j.http.credentials.authenticator.test.SimpleTestTokenAuthenticator;
+import org.pac4j.http.credentials.authenticator.test.SimpleTestUsernamePasswordAuthenticator;
+import org.pac4j.jee.filter.SecurityFilter;
+import org.pac4j.jee.util.JEEConstants;
+import org.pac4j.jwt.config.signature.SecretSignatureConfiguration;
+import org.pac4j.jwt.credentials.authenticator.JwtAuthenticator;
+import org.pac4j.jwt.profile.JwtGenerator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the {@link SecurityFilter} with direct clients: one filter per scenario, as they would be mapped
+ * on different URLs of a web service.</p>
+ *
+ * <p>Run with <code>java -jar target/benchmarks.jar SecurityFilterBenchmark -prof gc</code> to also report the allocation rates.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private static final String JWT_SECRET = "12345678901234567890123456789012";
+
+    private static final String TOKEN_HEADER = "X-Token";
+
+    private SecurityFilter headerFilter;
+
+    private SecurityFilter basicAuthFilter;
+
+    private SecurityFilter jwtFilter;
+
+    private SecurityFilter cachedJwtFilter;
+
+    private SecurityFilter anonymousFilter;
+
+    private SecurityFilter excludedPathFilter;
+
+    private SecurityFilter bypassedPathFilter;
+
+    private SecurityFilter timedHeaderFilter;
+
+    private ServletStubs.Request headerRequest;
+
+    private ServletStubs.Request basicAuthRequest;
+
+    private ServletStubs.Request jwtRequest;
+
+    private ServletStubs.Request anonymousRequest;
+
+    private ServletStubs.Request excludedPathRequest;
+
+    private final ServletStubs.Response response = new ServletStubs.Response();
+
+    @Setup
+    public void setup() throws ServletException {
+        val signatureConfiguration = new SecretSignatureConfiguration(JWT_SECRET);
+
+        val headerClient = new HeaderClient(TOKEN_HEADER, new SimpleTestTokenAuthenticator());
+        headerClient.setName("HeaderClient");
+        val basicAuthClient = new DirectBasicAuthClient(new SimpleTestUsernamePasswordAuthenticator());
+        val jwtClient = new HeaderClient("Authorization", "Bearer ", new JwtAuthenticator(signatureConfiguration));
+        jwtClient.setName("JwtClient");
+        val cachedJwtClient = new HeaderClient("Authorization", "Bearer ", new JwtAuthenticator(signatureConfiguration));
+        cachedJwtClient.setName("CachedJwtClient");
+        val timedHeaderClient = new HeaderClient(TOKEN_HEADER, new SimpleTestTokenAuthenticator());
+        timedHeaderClient.setName("TimedHeaderClient");
+
+        val config = new Config(headerClient, basicAuthClient, jwtClient, cachedJwtClient, new AnonymousClient(), timedHeaderClient);
+        config.addMatcher("excludedPath", new PathMatcher().excludeBranch("/public"));
+
+        headerFilter = filter(config, "HeaderClient", null, Map.of());
+        basicAuthFilter = filter(config, "DirectBasicAuthClient", null, Map.of());
+        jwtFilter = filter(config, "JwtClient", null, Map.of());
+        cachedJwtFilter = filter(config, "CachedJwtClient", null, Map.of(JEEConstants.PROFILE_CACHE_SIZE, "1000"));
+        anonymousFilter = filter(config, "AnonymousClient", null, Map.of());
+        excludedPathFilter = filter(config, "HeaderClient", "excludedPath", Map.of());
+        bypassedPathFilter = filter(config, "HeaderClient", null, Map.of(JEEConstants.BYPASS_PATHS, "/public/*,/health,*.ico"));
+        timedHeaderFilter = filter(config, "TimedHeaderClient", null, Map.of(JEEConstants.SERVER_TIMING, "true"));
+
+        val profile = new CommonProfile();
+        profile.setId("jle");
+        profile.addRole("admin");
+        val jwt = new JwtGenerator(signatureConfiguration).generate(profile);
+
+        headerRequest = new ServletStubs.Request("GET", "/api/resource").header(TOKEN_HEADER, "jle");
+        basicAuthRequest = new ServletStubs.Request("GET", "/api/resource").header("Authorization",
+            "Basic " + Base64.getEncoder().encodeToString("jle:jle".getBytes(StandardCharsets.UTF_8)));
+        jwtRequest = new ServletStubs.Request("GET", "/api/resource").header("Authorization", "Bearer " + jwt);
+        anonymousRequest = new ServletStubs.Request("GET", "/api/resource");
+        excludedPathRequest = new ServletStubs.Request("GET", "/public/style.css");
+    }
+
+    private static SecurityFilter filter(final Config config, final String clients, final String matchers,
+                                         final Map<String, String> parameters) throws ServletException {
+        val filter = new SecurityFilter(config, clients, null, matchers);
+        filter.init(ServletStubs.filterConfig(new HashMap<>(parameters)));
+        return filter;
+    }
+
+    @TearDown
+    public void tearDown() {
+        headerFilter.destroy();
+        basicAuthFilter.destroy();
+        jwtFilter.destroy();
+        cachedJwtFilter.destroy();
+        anonymousFilter.destroy();
+        excludedPathFilter.destroy();
+        bypassedPathFilter.destroy();
+        timedHeaderFilter.destroy();
+    }
+
+    private int run(final SecurityFilter filter, final ServletStubs.Request request) throws IOException, ServletException {
+        filter.doFilter(request.reset(), response.reset(), ServletStubs.NOOP_CHAIN);
+        val status = response.getStatus();
+        if (status != HttpServletResponse.SC_OK) {
+            throw new IllegalStateException("Unexpected status: " + status);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public int headerClient() throws IOException, ServletException {
+        return run(headerFilter, headerRequest);
+    }
+
+    @Benchmark
+    public int headerClientWithServerTiming() throws IOException, ServletException {
+        return run(timedHeaderFilter, headerRequest);
+    }
+
+    @Benchmark
+    public int basicAuthClient() throws IOException, ServletException {
+        return run(basicAuthFilter, basicAuthRequest);
+    }
+
+    @Benchmark
+    public int jwtClient() throws IOException, ServletException {
+        return run(jwtFilter, jwtRequest);
+    }
+
+    @Benchmark
+    public int jwtClientWithProfileCache() throws IOException, ServletException {
+        return run(cachedJwtFilter, jwtRequest);
+    }
+
+    @Benchmark
+    public int anonymousClient() throws IOException, ServletException {
+        return run(anonymousFilter, anonymousRequest);
+    }
+
+    @Benchmark
+    public int excludedPath() throws IOException, ServletException {
+        return run(excludedPathFilter, excludedPathRequest);
+    }
+
+    @Benchmark
+    public int bypassedPath() throws IOException, ServletException {
+        return run(bypassedPathFilter, excludedPathRequest);
+    }
+}
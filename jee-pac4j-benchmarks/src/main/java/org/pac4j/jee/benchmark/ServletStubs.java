@@ -0,0 +1,230 @@
+package org.pac4j.jee.benchmark;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Lightweight in-memory stand-ins for the servlet API, so that the benchmarks measure the pac4j code
+ * and not a servlet container.</p>
+ *
+ * <p>Only the methods used by the filters are backed by state: the other methods return default values.</p>
+ *
+ * @since 8.0.4
+ */
+public final class ServletStubs {
+
+    private ServletStubs() {}
+
+    /**
+     * A filter chain which does nothing.
+     */
+    public static final FilterChain NOOP_CHAIN = (request, response) -> {};
+
+    /**
+     * A filter configuration with the given init parameters.
+     *
+     * @param parameters the init parameters
+     * @return the filter configuration
+     */
+    public static FilterConfig filterConfig(final Map<String, String> parameters) {
+        return proxy(FilterConfig.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getInitParameter" -> parameters.get((String) args[0]);
+            case "getInitParameterNames" -> Collections.enumeration(parameters.keySet());
+            case "getFilterName" -> "benchmark";
+            case "getServletContext" -> proxy(ServletContext.class, (p, m, a) -> defaultValue(m.getReturnType()));
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * An in-memory request.
+     */
+    public static final class Request {
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        private final Map<String, String[]> parameters = new HashMap<>();
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private final List<Cookie> cookies = new ArrayList<>();
+
+        private final String method;
+
+        private final String path;
+
+        private Session session;
+
+        private final HttpServletRequest proxy;
+
+        public Request(final String method, final String path) {
+            this.method = method;
+            this.path = path;
+            this.proxy = proxy(HttpServletRequest.class, this::invoke);
+        }
+
+        public Request header(final String name, final String value) {
+            headers.put(name.toLowerCase(), value);
+            return this;
+        }
+
+        public Request cookie(final String name, final String value) {
+            cookies.add(new Cookie(name, value));
+            return this;
+        }
+
+        public Request parameter(final String name, final String value) {
+            parameters.put(name, new String[] {value});
+            return this;
+        }
+
+        /**
+         * Forget the attributes and the session created during the previous invocation.
+         *
+         * @return the request
+         */
+        public HttpServletRequest reset() {
+            attributes.clear();
+            session = null;
+            return proxy;
+        }
+
+        public HttpServletRequest get() {
+            return proxy;
+        }
+
+        private Object invoke(final Object proxy, final Method m, final Object[] args) {
+            return switch (m.getName()) {
+                case "getMethod" -> method;
+                case "getRequestURI", "getServletPath" -> path;
+                case "getContextPath", "getPathInfo", "getQueryString" -> null;
+                case "getRequestURL" -> new StringBuffer("http://localhost:8080").append(path);
+                case "getScheme" -> "http";
+                case "getServerName" -> "localhost";
+                case "getServerPort" -> 8080;
+                case "getRemoteAddr" -> "127.0.0.1";
+                case "isSecure" -> false;
+                case "getHeader" -> headers.get(((String) args[0]).toLowerCase());
+                case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+                case "getParameter" -> {
+                    final String[] values = parameters.get((String) args[0]);
+                    yield values == null ? null : values[0];
+                }
+                case "getParameterValues" -> parameters.get((String) args[0]);
+                case "getParameterMap" -> parameters;
+                case "getAttribute" -> attributes.get((String) args[0]);
+                case "getAttributeNames" -> Collections.enumeration(attributes.keySet());
+                case "setAttribute" -> attributes.put((String) args[0], args[1]);
+                case "removeAttribute" -> attributes.remove((String) args[0]);
+                case "getCookies" -> cookies.isEmpty() ? null : cookies.toArray(new Cookie[0]);
+                case "getSession" -> {
+                    if (session == null && (args == null || (Boolean) args[0])) {
+                        session = new Session();
+                    }
+                    yield session == null ? null : session.proxy;
+                }
+                case "isRequestedSessionIdValid" -> session != null;
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                case "toString" -> method + ' ' + path;
+                default -> defaultValue(m.getReturnType());
+            };
+        }
+    }
+
+    /**
+     * An in-memory response discarding its content.
+     */
+    public static final class Response {
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        private final List<String> setCookies = new ArrayList<>();
+
+        private int status = HttpServletResponse.SC_OK;
+
+        private final PrintWriter writer = new PrintWriter(Writer.nullWriter());
+
+        private final HttpServletResponse proxy = proxy(HttpServletResponse.class, (p, m, args) -> switch (m.getName()) {
+            case "setHeader", "addHeader" -> {
+                if ("set-cookie".equalsIgnoreCase((String) args[0])) {
+                    setCookies.add((String) args[1]);
+                }
+                yield headers.put(((String) args[0]).toLowerCase(), (String) args[1]);
+            }
+            case "getHeader" -> headers.get(((String) args[0]).toLowerCase());
+            case "containsHeader" -> headers.containsKey(((String) args[0]).toLowerCase());
+            case "setStatus", "sendError" -> status = (Integer) args[0];
+            case "getStatus" -> status;
+            case "isCommitted" -> false;
+            case "encodeURL", "encodeRedirectURL" -> args[0];
+            case "getWriter" -> writer;
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> defaultValue(m.getReturnType());
+        });
+
+        public HttpServletResponse reset() {
+            headers.clear();
+            setCookies.clear();
+            status = HttpServletResponse.SC_OK;
+            return proxy;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public List<String> getSetCookies() {
+            return setCookies;
+        }
+    }
+
+    private static final class Session {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private final HttpSession proxy = proxy(HttpSession.class, (p, m, args) -> switch (m.getName()) {
+            case "getId" -> "benchmark-session";
+            case "getAttribute" -> attributes.get((String) args[0]);
+            case "getAttributeNames" -> Collections.enumeration(attributes.keySet());
+            case "setAttribute" -> attributes.put((String) args[0], args[1]);
+            case "removeAttribute" -> attributes.remove((String) args[0]);
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> defaultValue(m.getReturnType());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T proxy(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ServletStubs.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    static Object defaultValue(final Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
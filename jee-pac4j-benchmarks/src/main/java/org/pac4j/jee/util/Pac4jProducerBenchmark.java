@@ -0,0 +1,76 @@
+package org.pac4j.jee.util;
+
+import jakarta.enterprise.inject.Instance;
+import lombok.val;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.profile.ProfileManager;
+import org.pac4j.jee.benchmark.ServletStubs;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Benchmarks of the {@link Pac4jProducer}: production of the web context, the session store and the profile manager
+ * for a request, as a CDI container does when they are injected (in two beans). A new producer is used for each invocation,
+ * as it is request-scoped. The configuration comes from a configuration bean or from a {@link ConfigHolder} bean.</p>
+ *
+ * <p>This benchmark lives in the package of the producer as its factory methods are package-private.</p>
+ *
+ * @since 8.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Pac4jProducerBenchmark {
+
+    private final ServletStubs.Request request = new ServletStubs.Request("GET", "/api/resource");
+
+    private final ServletStubs.Response response = new ServletStubs.Response();
+
+    @Param({"false", "true"})
+    private boolean configHolder;
+
+    private Instance<Config> instanceConfig;
+
+    private Instance<ConfigHolder> instanceConfigHolder;
+
+    @Setup
+    public void setup() {
+        val config = new Config();
+        instanceConfig = instance(config);
+        instanceConfigHolder = instance(configHolder ? new ConfigHolder(config) : null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Instance<T> instance(final T bean) {
+        return ServletStubs.proxy(Instance.class, (proxy, method, args) -> switch (method.getName()) {
+            case "isResolvable" -> bean != null;
+            case "get" -> bean;
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Benchmark
+    public ProfileManager profileManager() {
+        val producer = new Pac4jProducer();
+        val httpRequest = request.reset();
+        val httpResponse = response.reset();
+        val webContext = producer.getWebContext(instanceConfig, instanceConfigHolder, httpRequest, httpResponse);
+        val sessionStore = producer.getSessionStore(instanceConfig, instanceConfigHolder, httpRequest, httpResponse);
+        producer.getProfileManager(instanceConfig, instanceConfigHolder, webContext, sessionStore);
+        return producer.getProfileManager(instanceConfig, instanceConfigHolder, webContext, sessionStore);
+    }
+}
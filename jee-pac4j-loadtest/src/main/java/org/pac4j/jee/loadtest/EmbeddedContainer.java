@@ -0,0 +1,173 @@
+package org.pac4j.jee.loadtest;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.val;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.pac4j.core.config.Config;
+import org.pac4j.jee.filter.CallbackFilter;
+import org.pac4j.jee.filter.LogoutFilter;
+import org.pac4j.jee.filter.SecurityFilter;
+import org.pac4j.jee.util.FilterHelper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An embedded Tomcat running a small web application protected by the pac4j filters, all registered through the {@link FilterHelper}:
+ * the {@link SecurityFilter} on <code>/protected/*</code>, the {@link CallbackFilter} on <code>/callback</code> and the {@link LogoutFilter}
+ * on <code>/logout</code>.</p>
+ *
+ * <p>An outer filter measures the bytes allocated by the request threads of the container for each {@link Endpoint}: the pac4j logic
+ * and the container itself, but not the load generator running in the same JVM.</p>
+ *
+ * @since 8.0.4
+ */
+public final class EmbeddedContainer implements AutoCloseable {
+
+    /**
+     * The endpoints of the web application.
+     */
+    public enum Endpoint {
+        PROTECTED,
+        CALLBACK,
+        LOGOUT,
+        OTHER;
+
+        static Endpoint of(final String path) {
+            if (path.startsWith("/protected/")) {
+                return PROTECTED;
+            } else if (path.equals("/callback")) {
+                return CALLBACK;
+            } else if (path.equals("/logout")) {
+                return LOGOUT;
+            }
+            return OTHER;
+        }
+    }
+
+    private final Tomcat tomcat = new Tomcat();
+
+    private final Map<Endpoint, LongAdder> allocatedBytes = new EnumMap<>(Endpoint.class);
+
+    private final Map<Endpoint, LongAdder> requests = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Start the container on a free port of the loopback interface.
+     *
+     * @param config the pac4j configuration
+     * @param clients the clients of the security filter
+     * @throws IOException if the working directory cannot be created
+     * @throws LifecycleException if the container cannot be started
+     */
+    public EmbeddedContainer(final Config config, final String clients) throws IOException, LifecycleException {
+        for (val endpoint : Endpoint.values()) {
+            allocatedBytes.put(endpoint, new LongAdder());
+            requests.put(endpoint, new LongAdder());
+        }
+        val baseDir = Files.createTempDirectory("jee-pac4j-loadtest").toFile();
+        baseDir.deleteOnExit();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setHostname("127.0.0.1");
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("address", "127.0.0.1");
+        tomcat.getConnector().setProperty("maxKeepAliveRequests", "-1");
+
+        val context = tomcat.addContext("", baseDir.getAbsolutePath());
+        context.addServletContainerInitializer((classes, servletContext) -> {
+            val filterHelper = new FilterHelper(servletContext);
+            filterHelper.addFilterMapping("allocation", new AllocationFilter(), "/*");
+            filterHelper.addFilterMapping("callback", new CallbackFilter(config, "/protected/index"), "/callback");
+            filterHelper.addFilterMapping("security", new SecurityFilter(config, clients), "/protected/*");
+            filterHelper.addFilterMapping("logout", new LogoutFilter(config, "/"), "/logout");
+        }, null);
+        Tomcat.addServlet(context, "app", new AppServlet());
+        context.addServletMappingDecoded("/", "app");
+        tomcat.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + tomcat.getConnector().getLocalPort();
+    }
+
+    /**
+     * Get the number of requests served for an endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the number of requests
+     */
+    public long getRequests(final Endpoint endpoint) {
+        return requests.get(endpoint).sum();
+    }
+
+    /**
+     * Get the number of bytes allocated by the container to serve the requests of an endpoint.
+     *
+     * @param endpoint the endpoint
+     * @return the number of bytes
+     */
+    public long getAllocatedBytes(final Endpoint endpoint) {
+        return allocatedBytes.get(endpoint).sum();
+    }
+
+    /**
+     * Reset the counters (after the warm-up).
+     */
+    public void resetCounters() {
+        allocatedBytes.values().forEach(LongAdder::reset);
+        requests.values().forEach(LongAdder::reset);
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread while serving a request.
+     */
+    private final class AllocationFilter implements Filter {
+
+        private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        @Override
+        public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+            throws IOException, ServletException {
+            val endpoint = Endpoint.of(((HttpServletRequest) request).getRequestURI());
+            val start = threads.getCurrentThreadAllocatedBytes();
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                allocatedBytes.get(endpoint).add(threads.getCurrentThreadAllocatedBytes() - start);
+                requests.get(endpoint).increment();
+            }
+        }
+    }
+
+    /**
+     * The web application: it displays the authenticated user on the protected pages.
+     */
+    private static final class AppServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+            val principal = request.getUserPrincipal();
+            response.setContentType("text/plain");
+            response.getWriter().write(principal != null ? "Hello " + principal.getName() : "Hello");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.pac4j.jee.loadtest;
+
+import lombok.val;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.pac4j.core.config.Config;
+import org.pac4j.jee.loadtest.EmbeddedContainer.Endpoint;
+import org.pac4j.jee.loadtest.VirtualUser.Operation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>End-to-end load test of the pac4j filters: it starts the {@link MockIdentityProvider} and the {@link EmbeddedContainer},
+ * then runs concurrent {@link VirtualUser}s (login through the <code>CallbackFilter</code>, protected pages through the
+ * <code>SecurityFilter</code>, logout through the <code>LogoutFilter</code>) and reports the throughput, the p50/p99 latencies
+ * of each operation and the bytes allocated by the container for each request. Everything runs locally, on the loopback interface.</p>
+ *
+ * <p>Usage: <code>java -jar jee-pac4j-loadtest/target/loadtest.jar [users=50] [hits=10] [warmup=10] [duration=30] [idpLatency=0]</code>
+ * (durations in seconds, the provider latency in milliseconds). The load generator runs in the same JVM as the container:
+ * compare the results of runs on the same machine only.</p>
+ *
+ * @since 8.0.4
+ */
+public final class LoadTest {
+
+    private static final String SECRET = "12345678901234567890123456789012-loadtest";
+
+    private LoadTest() {}
+
+    public static void main(final String... args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        for (val arg : args) {
+            val index = arg.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("Invalid argument (name=value expected): " + arg);
+            }
+            options.put(arg.substring(0, index), arg.substring(index + 1));
+        }
+        val users = Integer.parseInt(options.getOrDefault("users", "50"));
+        val hits = Integer.parseInt(options.getOrDefault("hits", "10"));
+        val warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        val duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        val idpLatency = Long.parseLong(options.getOrDefault("idpLatency", "0"));
+
+        try (val provider = new MockIdentityProvider(SECRET, idpLatency)) {
+            val client = new MockIdpClient(provider, SECRET);
+            client.setName("MockIdpClient");
+            try (val container = new EmbeddedContainer(new Config(client), client.getName())) {
+                client.setCallbackUrl(container.getBaseUrl() + "/callback");
+                client.init();
+                run(provider, container, users, hits, warmup, duration, System.out);
+            }
+        }
+    }
+
+    private static void run(final MockIdentityProvider provider, final EmbeddedContainer container, final int users, final int hits,
+                            final long warmup, final long duration, final PrintStream out) throws IOException, InterruptedException {
+        final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+        for (val operation : Operation.values()) {
+            latencies.put(operation, VirtualUser.newRecorder());
+        }
+        val errors = new LongAdder();
+        val running = new AtomicBoolean(true);
+        val httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        // a first sequential flow initializes the components built lazily by pac4j (like the store of the logout handler)
+        new VirtualUser("user0", container.getBaseUrl(), httpClient, hits, latencies, errors, running::get).flow();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (var i = 0; i < users; i++) {
+            executor.execute(new VirtualUser("user" + i, container.getBaseUrl(), httpClient, hits, latencies, errors,
+                running::get));
+        }
+
+        out.println("Warm-up: " + warmup + " s, " + users + " virtual users, " + hits + " protected hits per login");
+        TimeUnit.SECONDS.sleep(warmup);
+        for (val recorder : latencies.values()) {
+            recorder.reset();
+        }
+        errors.reset();
+        container.resetCounters();
+        val start = System.nanoTime();
+        out.println("Measurement: " + duration + " s");
+        TimeUnit.SECONDS.sleep(duration);
+        final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        for (val entry : latencies.entrySet()) {
+            histograms.put(entry.getKey(), entry.getValue().getIntervalHistogram());
+        }
+        val elapsed = (System.nanoTime() - start) / 1e9;
+        val requests = new EnumMap<Endpoint, Long>(Endpoint.class);
+        val allocated = new EnumMap<Endpoint, Long>(Endpoint.class);
+        for (val endpoint : Endpoint.values()) {
+            requests.put(endpoint, container.getRequests(endpoint));
+            allocated.put(endpoint, container.getAllocatedBytes(endpoint));
+        }
+        val errorCount = errors.sum();
+        running.set(false);
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+
+        out.println();
+        out.printf("%-12s %10s %10s %10s %10s %10s%n", "operation", "count", "ops/s", "p50 (ms)", "p99 (ms)", "max (ms)");
+        for (val entry : histograms.entrySet()) {
+            val histogram = entry.getValue();
+            out.printf("%-12s %10d %10.1f %10.3f %10.3f %10.3f%n", entry.getKey().name().toLowerCase(), histogram.getTotalCount(),
+                histogram.getTotalCount() / elapsed, millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+        }
+        out.println();
+        out.printf("%-12s %10s %10s %16s%n", "endpoint", "requests", "req/s", "alloc/req (KB)");
+        for (val endpoint : Endpoint.values()) {
+            val count = requests.get(endpoint);
+            if (count > 0) {
+                out.printf("%-12s %10d %10.1f %16.1f%n", endpoint.name().toLowerCase(), count, count / elapsed,
+                    allocated.get(endpoint) / 1024.0 / count);
+            }
+        }
+        out.println();
+        out.println("Errors: " + errorCount + ", provider: " + provider.getAuthorizations().sum() + " authorizations, "
+            + provider.getTokens().sum() + " token exchanges (including the warm-up)");
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / 1e6;
+    }
+}
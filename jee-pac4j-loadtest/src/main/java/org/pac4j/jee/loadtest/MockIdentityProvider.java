@@ -0,0 +1,185 @@
+package org.pac4j.jee.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import lombok.val;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.jwt.config.signature.SecretSignatureConfiguration;
+import org.pac4j.jwt.profile.JwtGenerator;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A local in-process OAuth 2.0 / OpenID Connect provider, for the load test only: it runs on the loopback interface and
+ * authenticates everyone.</p>
+ *
+ * <p>The authorization endpoint (<code>/authorize</code>) immediately redirects back to the <code>redirect_uri</code>
+ * with a one-time code and the <code>state</code>, for the user given by the <code>login_hint</code> parameter. The token endpoint
+ * (<code>/token</code>) exchanges the code for a JSON response with an access token and an ID token signed with the shared
+ * secret (HS256). Both endpoints can simulate the latency of a real provider.</p>
+ *
+ * @since 8.0.4
+ */
+public final class MockIdentityProvider implements AutoCloseable {
+
+    /* The issuer of the ID tokens */
+    public static final String ISSUER = "https://mock-idp.local";
+
+    /* The roles of all the users */
+    public static final Set<String> ROLES = Set.of("ROLE_USER");
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        val thread = new Thread(r, "mock-idp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JwtGenerator jwtGenerator;
+
+    private final long latencyMillis;
+
+    private final Map<String, String> codes = new ConcurrentHashMap<>();
+
+    @Getter
+    private final LongAdder authorizations = new LongAdder();
+
+    @Getter
+    private final LongAdder tokens = new LongAdder();
+
+    /**
+     * Start the provider on a free port of the loopback interface.
+     *
+     * @param secret the secret signing the ID tokens (at least 256 bits)
+     * @param latencyMillis the simulated latency of each endpoint (in milliseconds)
+     * @throws IOException if the provider cannot be started
+     */
+    public MockIdentityProvider(final String secret, final long latencyMillis) throws IOException {
+        this.jwtGenerator = new JwtGenerator(new SecretSignatureConfiguration(secret));
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/authorize", this::authorize);
+        server.createContext("/token", this::token);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getAuthorizationEndpoint() {
+        return getBaseUrl() + "/authorize";
+    }
+
+    public String getTokenEndpoint() {
+        return getBaseUrl() + "/token";
+    }
+
+    private String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    private void authorize(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            simulateLatency();
+            val parameters = parse(exchange.getRequestURI().getRawQuery());
+            val redirectUri = parameters.get("redirect_uri");
+            val user = parameters.get("login_hint");
+            if (redirectUri == null || user == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            val code = UUID.randomUUID().toString();
+            codes.put(code, user);
+            authorizations.increment();
+            val location = redirectUri + (redirectUri.indexOf('?') >= 0 ? '&' : '?') + "code=" + code
+                + "&state=" + URLEncoder.encode(parameters.getOrDefault("state", ""), StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Location", location);
+            // the JDK server may close an idle kept-alive connection while the client reuses it: use one connection per login
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(302, -1);
+        }
+    }
+
+    private void token(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            simulateLatency();
+            val parameters = parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            val code = parameters.get("code");
+            val user = code != null ? codes.remove(code) : null;
+            if (!"POST".equals(exchange.getRequestMethod()) || !"authorization_code".equals(parameters.get("grant_type"))
+                || user == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            tokens.increment();
+            val profile = new CommonProfile();
+            profile.setId(user);
+            profile.addAttribute("iss", ISSUER);
+            profile.addAttribute("aud", parameters.getOrDefault("client_id", ""));
+            profile.addAttribute("email", user + "@mock-idp.local");
+            profile.addAttribute("groups", List.of("users"));
+            profile.addRoles(ROLES);
+            val body = ("{\"access_token\":\"" + UUID.randomUUID() + "\",\"token_type\":\"Bearer\",\"expires_in\":3600,"
+                + "\"id_token\":\"" + jwtGenerator.generate(profile) + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private void simulateLatency() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(final String query) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (val pair : query.split("&")) {
+                val index = pair.indexOf('=');
+                if (index > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, index), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(index + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Build the URI of the authorization endpoint for a user.
+     *
+     * @param authorizationUrl the URL of the authorization request
+     * @param user the user
+     * @return the URI
+     */
+    public static URI loginAs(final String authorizationUrl, final String user) {
+        return URI.create(authorizationUrl + "&login_hint=" + URLEncoder.encode(user, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package org.pac4j.jee.loadtest;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import lombok.val;
+import org.pac4j.core.client.IndirectClient;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.exception.http.FoundAction;
+import org.pac4j.core.util.CommonHelper;
+import org.pac4j.jwt.config.signature.SecretSignatureConfiguration;
+import org.pac4j.jwt.credentials.authenticator.JwtAuthenticator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * <p>An indirect client for the {@link MockIdentityProvider}, following the OAuth 2.0 authorization code flow like the OpenID Connect
+ * clients: redirection to the authorization endpoint with a <code>state</code> saved in the web session, check of the <code>state</code>
+ * on callback, exchange of the code at the token endpoint (a back-channel HTTP call) and validation of the signed ID token.</p>
+ *
+ * @since 8.0.4
+ */
+public class MockIdpClient extends IndirectClient {
+
+    /* The identifier of the client at the provider */
+    public static final String CLIENT_ID = "jee-pac4j-loadtest";
+
+    private final String authorizationEndpoint;
+
+    private final String tokenEndpoint;
+
+    private final String secret;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .version(HttpClient.Version.HTTP_1_1)
+        .build();
+
+    public MockIdpClient(final MockIdentityProvider provider, final String secret) {
+        this.authorizationEndpoint = provider.getAuthorizationEndpoint();
+        this.tokenEndpoint = provider.getTokenEndpoint();
+        this.secret = secret;
+    }
+
+    @Override
+    protected void internalInit(final boolean forceReinit) {
+        CommonHelper.assertNotBlank("secret", secret);
+        val jwtAuthenticator = new JwtAuthenticator(new SecretSignatureConfiguration(secret));
+        jwtAuthenticator.init();
+
+        setRedirectionActionBuilderIfUndefined(ctx -> {
+            val state = UUID.randomUUID().toString();
+            ctx.sessionStore().set(ctx.webContext(), getStateSessionAttributeName(), state);
+            return Optional.of(new FoundAction(authorizationEndpoint + "?response_type=code&client_id=" + CLIENT_ID
+                + "&redirect_uri=" + encode(computeFinalCallbackUrl(ctx.webContext())) + "&state=" + state));
+        });
+        setCredentialsExtractorIfUndefined(ctx -> {
+            val code = ctx.webContext().getRequestParameter("code");
+            if (code.isEmpty()) {
+                return Optional.empty();
+            }
+            val expectedState = ctx.sessionStore().get(ctx.webContext(), getStateSessionAttributeName());
+            ctx.sessionStore().set(ctx.webContext(), getStateSessionAttributeName(), null);
+            if (expectedState.isEmpty() || !expectedState.get().equals(ctx.webContext().getRequestParameter("state").orElse(null))) {
+                throw new TechnicalException("State parameter is different from the one sent in authentication request");
+            }
+            return Optional.of(new TokenCredentials(code.get()));
+        });
+        setAuthenticatorIfUndefined((ctx, credentials) -> exchange(ctx, credentials, jwtAuthenticator));
+    }
+
+    private Optional<Credentials> exchange(final CallContext ctx, final Credentials credentials, final JwtAuthenticator jwtAuthenticator) {
+        val request = HttpRequest.newBuilder(URI.create(tokenEndpoint))
+            .timeout(Duration.ofSeconds(10))
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .POST(HttpRequest.BodyPublishers.ofString("grant_type=authorization_code&client_id=" + CLIENT_ID
+                + "&code=" + encode(((TokenCredentials) credentials).getToken())
+                + "&redirect_uri=" + encode(computeFinalCallbackUrl(ctx.webContext()))))
+            .build();
+        try {
+            val response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new TechnicalException("Token endpoint error: " + response.statusCode());
+            }
+            val idToken = JSONObjectUtils.getString(JSONObjectUtils.parse(response.body()), "id_token");
+            val profile = jwtAuthenticator.validateToken(idToken);
+            if (profile == null) {
+                throw new TechnicalException("Invalid ID token");
+            }
+            credentials.setUserProfile(profile);
+            return Optional.of(credentials);
+        } catch (final IOException | ParseException e) {
+            throw new TechnicalException(e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static String encode(final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package org.pac4j.jee.loadtest;
+
+import lombok.val;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>A virtual user, looping over the same flow as a browser: login (protected page redirected to the provider, authorization,
+ * callback, protected page), several protected pages with the web session, then logout.</p>
+ *
+ * <p>The redirections are followed manually to check each step and the session cookie is kept by the user itself. The latency
+ * of each operation is recorded in nanoseconds; the failed flows are counted and restarted with a new session.</p>
+ *
+ * @since 8.0.4
+ */
+final class VirtualUser implements Runnable {
+
+    /**
+     * The operations of a flow.
+     */
+    enum Operation {
+        LOGIN,
+        PROTECTED,
+        LOGOUT
+    }
+
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+
+    private static final String SESSION_COOKIE = "JSESSIONID=";
+
+    private final String name;
+
+    private final URI baseUri;
+
+    private final HttpClient httpClient;
+
+    private final int protectedHits;
+
+    private final Map<Operation, Recorder> latencies;
+
+    private final LongAdder errors;
+
+    private final BooleanSupplier running;
+
+    private String sessionCookie;
+
+    VirtualUser(final String name, final String baseUrl, final HttpClient httpClient, final int protectedHits,
+                final Map<Operation, Recorder> latencies, final LongAdder errors, final BooleanSupplier running) {
+        this.name = name;
+        this.baseUri = URI.create(baseUrl);
+        this.httpClient = httpClient;
+        this.protectedHits = protectedHits;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.running = running;
+    }
+
+    @Override
+    public void run() {
+        while (running.getAsBoolean()) {
+            try {
+                flow();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (final IOException | RuntimeException e) {
+                if (running.getAsBoolean()) {
+                    errors.increment();
+                }
+                sessionCookie = null;
+            }
+        }
+    }
+
+    /**
+     * Run one flow: login, protected pages and logout.
+     *
+     * @throws IOException if a request fails
+     * @throws InterruptedException if the user is interrupted
+     */
+    void flow() throws IOException, InterruptedException {
+        var start = System.nanoTime();
+        val authorization = expect(get(baseUri.resolve("/protected/index"), true), 302);
+        val callback = expect(get(MockIdentityProvider.loginAs(location(authorization), name), false), 302);
+        val target = expect(get(URI.create(location(callback)), true), 302);
+        expectUser(expect(get(baseUri.resolve(location(target)), true), 200));
+        record(Operation.LOGIN, start);
+
+        for (var i = 0; i < protectedHits && running.getAsBoolean(); i++) {
+            start = System.nanoTime();
+            expectUser(expect(get(baseUri.resolve("/protected/index"), true), 200));
+            record(Operation.PROTECTED, start);
+        }
+
+        start = System.nanoTime();
+        expect(get(baseUri.resolve("/logout"), true), 302);
+        record(Operation.LOGOUT, start);
+    }
+
+    private HttpResponse<String> get(final URI uri, final boolean withSession) throws IOException, InterruptedException {
+        val request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+        if (withSession && sessionCookie != null) {
+            request.header("Cookie", sessionCookie);
+        }
+        val response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (withSession) {
+            for (val cookie : response.headers().allValues("Set-Cookie")) {
+                if (cookie.startsWith(SESSION_COOKIE)) {
+                    val end = cookie.indexOf(';');
+                    sessionCookie = end > 0 ? cookie.substring(0, end) : cookie;
+                }
+            }
+        }
+        return response;
+    }
+
+    private HttpResponse<String> expect(final HttpResponse<String> response, final int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " (expected: " + status + ") for "
+                + response.request().uri());
+        }
+        return response;
+    }
+
+    private void expectUser(final HttpResponse<String> response) {
+        if (!response.body().equals("Hello " + name)) {
+            throw new IllegalStateException("Unexpected user: " + response.body());
+        }
+    }
+
+    private static String location(final HttpResponse<String> response) {
+        return response.headers().firstValue("Location")
+            .orElseThrow(() -> new IllegalStateException("No location for " + response.request().uri()));
+    }
+
+    private void record(final Operation operation, final long start) {
+        if (running.getAsBoolean()) {
+            latencies.get(operation).recordValue(Math.min(System.nanoTime() - start, HIGHEST_LATENCY));
+        }
+    }
+
+    static Recorder newRecorder() {
+        return new Recorder(HIGHEST_LATENCY, 3);
+    }
+}